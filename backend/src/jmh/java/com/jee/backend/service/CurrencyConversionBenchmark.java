@@ -0,0 +1,71 @@
+package com.jee.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting a batch of amounts: BigDecimal multiply + setScale against the fixed-point engine
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="CurrencyConversionBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurrencyConversionBenchmark {
+
+    private static final int AMOUNTS = 1024;
+
+    private final BigDecimal[] amounts = new BigDecimal[AMOUNTS];
+    private final long[] unscaledAmounts = new long[AMOUNTS];
+    private BigDecimal rate;
+    private long scaledRate;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < AMOUNTS; i++) {
+            amounts[i] = BigDecimal.valueOf(random.nextInt(10_000_000), 2);
+            unscaledAmounts[i] = amounts[i].unscaledValue().longValue();
+        }
+        // EUR -> GBP
+        rate = new BigDecimal("0.79").divide(new BigDecimal("0.91"), FixedPointConverter.RATE_SCALE, RoundingMode.HALF_UP);
+        scaledRate = FixedPointConverter.toScaledRate(rate);
+    }
+
+    @Benchmark
+    public void bigDecimal(Blackhole blackhole) {
+        for (BigDecimal amount : amounts) {
+            blackhole.consume(amount.multiply(rate).setScale(2, RoundingMode.HALF_UP));
+        }
+    }
+
+    @Benchmark
+    public void fixedPointBigDecimalAmounts(Blackhole blackhole) {
+        for (BigDecimal amount : amounts) {
+            blackhole.consume(FixedPointConverter.convert(amount, scaledRate));
+        }
+    }
+
+    @Benchmark
+    public void fixedPointLongAmounts(Blackhole blackhole) {
+        for (long amount : unscaledAmounts) {
+            blackhole.consume(FixedPointConverter.convert(amount, 2, scaledRate));
+        }
+    }
+}
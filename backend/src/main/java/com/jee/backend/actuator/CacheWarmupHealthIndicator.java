@@ -0,0 +1,26 @@
+package com.jee.backend.actuator;
+
+import com.jee.backend.service.CacheWarmupService;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Indicateur "cacheWarmup", inclus dans le groupe readiness : OUT_OF_SERVICE tant que le préchargement
+ * des caches n'a pas atteint la fraction configurée (cacheflow.warmup.readiness-fraction)
+ */
+@Component
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmupService cacheWarmupService;
+
+    public CacheWarmupHealthIndicator(CacheWarmupService cacheWarmupService) {
+        this.cacheWarmupService = cacheWarmupService;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = cacheWarmupService.isReady() ? Health.up() : Health.outOfService();
+        return builder.withDetails(cacheWarmupService.getStatus()).build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.jee.backend.actuator;
+
+import com.jee.backend.cache.HotKeyTracker;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Clés les plus lues par cache, avec leur débit estimé sur la dernière fenêtre complète
+ * (/actuator/hotkeys et /actuator/hotkeys/{cache})
+ */
+@Component
+@Endpoint(id = "hotkeys")
+public class HotKeysEndpoint {
+
+    private final HotKeyTracker hotKeyTracker;
+
+    public HotKeysEndpoint(HotKeyTracker hotKeyTracker) {
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> hotKeys() {
+        return hotKeyTracker.getStatistics();
+    }
+
+    @ReadOperation
+    public Map<String, Object> hotKeys(@Selector String cache) {
+        return hotKeyTracker.getStatistics().getOrDefault(cache, Map.of());
+    }
+}
@@ -1,5 +1,6 @@
 package com.jee.backend.actuator;
 
+import com.jee.backend.cache.TwoTierCacheManager;
 import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
 import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
 import org.springframework.cache.CacheManager;
@@ -39,13 +40,16 @@ public class RedisEndpoint {
             info.put("connectionTest", result != null ? "success" : "failed");
             
             // Add cache information
-            if (cacheManager instanceof RedisCacheManager) {
+            if (cacheManager instanceof RedisCacheManager || cacheManager instanceof TwoTierCacheManager) {
                 Map<String, Object> cacheInfo = new HashMap<>();
                 for (String cacheName : cacheManager.getCacheNames()) {
                     cacheInfo.put(cacheName, "configured");
                 }
                 info.put("caches", cacheInfo);
             }
+            if (cacheManager instanceof TwoTierCacheManager twoTierCacheManager) {
+                info.put("nearCaches", twoTierCacheManager.getNearCacheStatistics());
+            }
             
             info.put("message", "Redis is connected and operational");
         } catch (Exception e) {
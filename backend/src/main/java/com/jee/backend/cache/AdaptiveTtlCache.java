@@ -0,0 +1,129 @@
+package com.jee.backend.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Décorateur qui alimente l'{@link AdaptiveTtlPolicy} : hits (lecture servie sans chargement) et valeurs
+ * écrites, comparées à la précédente valeur de la clé. Une lecture sans résultat n'est pas comptée : elle
+ * est suivie d'un chargement ou d'un put, comptés eux comme écritures.
+ */
+public class AdaptiveTtlCache implements Cache {
+
+    private final Cache delegate;
+    private final AdaptiveTtlPolicy policy;
+
+    public AdaptiveTtlCache(Cache delegate, AdaptiveTtlPolicy policy) {
+        this.delegate = delegate;
+        this.policy = policy;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean[] loaded = new boolean[1];
+        T value = delegate.get(key, () -> {
+            loaded[0] = true;
+            T loadedValue = valueLoader.call();
+            policy.recordWrite(getName(), key, loadedValue);
+            return loadedValue;
+        });
+        if (!loaded[0]) {
+            policy.recordHit(getName());
+        }
+        return value;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        boolean[] loaded = new boolean[1];
+        return delegate.retrieve(key, () -> {
+            loaded[0] = true;
+            return valueLoader.get().thenApply(value -> {
+                policy.recordWrite(getName(), key, value);
+                return value;
+            });
+        }).thenApply(value -> {
+            if (!loaded[0]) {
+                policy.recordHit(getName());
+            }
+            return value;
+        });
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null) {
+            policy.recordHit(getName());
+        }
+        return wrapper;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        T value = delegate.get(key, type);
+        if (value != null) {
+            policy.recordHit(getName());
+        }
+        return value;
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        CompletableFuture<?> result = delegate.retrieve(key);
+        return result != null ? result.thenApply(value -> {
+            if (value != null) {
+                policy.recordHit(getName());
+            }
+            return value;
+        }) : null;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        policy.recordWrite(getName(), key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null) {
+            policy.recordWrite(getName(), key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+}
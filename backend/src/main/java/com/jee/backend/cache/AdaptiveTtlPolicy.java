@@ -0,0 +1,184 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * TTL adaptatif par cache, réglé à l'exécution entre des bornes configurées.
+ *
+ * Chaque valeur écrite est réduite à une empreinte (par exemple température et humidité pour la météo, taux pour
+ * les devises) et comparée à la précédente empreinte de la même clé : la part des rechargements qui ont réellement
+ * changé la valeur mesure la volatilité de la donnée. À chaque intervalle, un cache volatil voit son TTL réduit ;
+ * un cache stable voit son TTL allongé tant que son taux de hit reste sous la cible. Le nouveau TTL s'applique
+ * aux écritures suivantes, sans redémarrage.
+ */
+public class AdaptiveTtlPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveTtlPolicy.class);
+
+    private final CacheFlowProperties.AdaptiveTtl properties;
+    private final Map<String, KeyGroup> groups = new ConcurrentHashMap<>();
+
+    public AdaptiveTtlPolicy(CacheFlowProperties.AdaptiveTtl properties) {
+        this.properties = properties;
+    }
+
+    public boolean isEnabledFor(String cacheName) {
+        return properties.isEnabledFor(cacheName);
+    }
+
+    /**
+     * Enregistre un cache adaptatif ; le TTL initial est borné par min-ttl et max-ttl.
+     *
+     * @param fingerprint réduit une valeur aux champs dont le changement compte
+     * @return la fonction de TTL à donner à la configuration du cache Redis
+     */
+    public RedisCacheWriter.TtlFunction register(String cacheName, Duration initialTtl, ToIntFunction<Object> fingerprint) {
+        CacheFlowProperties.AdaptiveTtlSpec spec = properties.getCaches().get(cacheName);
+        long minMillis = spec.getMinTtl() != null ? spec.getMinTtl().toMillis() : initialTtl.toMillis();
+        long maxMillis = spec.getMaxTtl() != null ? spec.getMaxTtl().toMillis() : initialTtl.toMillis();
+        KeyGroup group = new KeyGroup(Math.min(minMillis, maxMillis), Math.max(minMillis, maxMillis), fingerprint);
+        group.ttlMillis = group.clamp(initialTtl.toMillis());
+        groups.put(cacheName, group);
+        logger.info("Adaptive TTL enabled - Cache: {}, Initial TTL: {}s, Bounds: [{}s, {}s]", cacheName,
+                group.ttlMillis / 1000, group.minMillis / 1000, group.maxMillis / 1000);
+        return (key, value) -> Duration.ofMillis(group.ttlMillis);
+    }
+
+    public RedisCacheWriter.TtlFunction register(String cacheName, Duration initialTtl) {
+        return register(cacheName, initialTtl, Objects::hashCode);
+    }
+
+    public Duration currentTtl(String cacheName) {
+        KeyGroup group = groups.get(cacheName);
+        return group != null ? Duration.ofMillis(group.ttlMillis) : null;
+    }
+
+    boolean isRegistered(String cacheName) {
+        return groups.containsKey(cacheName);
+    }
+
+    void recordHit(String cacheName) {
+        KeyGroup group = groups.get(cacheName);
+        if (group != null) {
+            group.hits.increment();
+        }
+    }
+
+    /**
+     * Compte une valeur chargée ou écrite et la compare à la précédente valeur connue de la clé
+     */
+    void recordWrite(String cacheName, Object key, Object value) {
+        KeyGroup group = groups.get(cacheName);
+        if (group == null || value == null) {
+            return;
+        }
+        group.writes.increment();
+        Object raw = value instanceof StampedValue stamped ? stamped.getValue() : value;
+        int fingerprint = group.fingerprint.applyAsInt(raw);
+        Integer previous = group.fingerprints.get(key);
+        if (previous != null || group.fingerprints.size() < properties.getMaxTrackedKeys()) {
+            group.fingerprints.put(key, fingerprint);
+        }
+        if (previous != null) {
+            group.compared.increment();
+            if (previous != fingerprint) {
+                group.changed.increment();
+            }
+        }
+    }
+
+    /**
+     * Réévalue le TTL de chaque cache à partir des observations de l'intervalle écoulé
+     */
+    @Scheduled(initialDelayString = "${cacheflow.adaptive-ttl.interval:1m}",
+            fixedDelayString = "${cacheflow.adaptive-ttl.interval:1m}")
+    public void tune() {
+        groups.forEach(this::tune);
+    }
+
+    private void tune(String cacheName, KeyGroup group) {
+        long compared = group.compared.sumThenReset();
+        long changed = group.changed.sumThenReset();
+        long hits = group.hits.sumThenReset();
+        long writes = group.writes.sumThenReset();
+        if (compared < properties.getMinSamples()) {
+            // Trop peu de rechargements comparables : le TTL est conservé
+            return;
+        }
+        double changeRatio = (double) changed / compared;
+        double hitRatio = hits + writes > 0 ? (double) hits / (hits + writes) : 0.0;
+        group.lastChangeRatio = changeRatio;
+        group.lastHitRatio = hitRatio;
+
+        long current = group.ttlMillis;
+        long next = current;
+        if (changeRatio >= properties.getVolatileChangeRatio()) {
+            next = group.clamp((long) (current * properties.getDecreaseFactor()));
+        } else if (changeRatio <= properties.getStableChangeRatio() && hitRatio < properties.getTargetHitRatio()) {
+            next = group.clamp((long) (current * properties.getIncreaseFactor()));
+        }
+        if (next != current) {
+            group.ttlMillis = next;
+            group.adjustments.increment();
+            logger.info("Adaptive TTL - Cache: {}, TTL: {}s -> {}s, Change ratio: {}, Hit ratio: {}",
+                    cacheName, current / 1000, next / 1000, String.format("%.2f", changeRatio),
+                    String.format("%.2f", hitRatio));
+        }
+    }
+
+    /**
+     * Par cache : TTL courant, bornes, ratios du dernier intervalle évalué et nombre d'ajustements
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        groups.forEach((name, group) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ttlSeconds", group.ttlMillis / 1000);
+            stats.put("minTtlSeconds", group.minMillis / 1000);
+            stats.put("maxTtlSeconds", group.maxMillis / 1000);
+            stats.put("lastChangeRatio", group.lastChangeRatio);
+            stats.put("lastHitRatio", group.lastHitRatio);
+            stats.put("adjustments", group.adjustments.sum());
+            stats.put("trackedKeys", group.fingerprints.size());
+            result.put(name, stats);
+        });
+        return result;
+    }
+
+    private static final class KeyGroup {
+        private final long minMillis;
+        private final long maxMillis;
+        private final ToIntFunction<Object> fingerprint;
+        private final Map<Object, Integer> fingerprints = new ConcurrentHashMap<>();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder writes = new LongAdder();
+        private final LongAdder compared = new LongAdder();
+        private final LongAdder changed = new LongAdder();
+        private final LongAdder adjustments = new LongAdder();
+        private volatile long ttlMillis;
+        private volatile double lastChangeRatio = -1;
+        private volatile double lastHitRatio = -1;
+
+        private KeyGroup(long minMillis, long maxMillis, ToIntFunction<Object> fingerprint) {
+            this.minMillis = minMillis;
+            this.maxMillis = maxMillis;
+            this.fingerprint = fingerprint;
+        }
+
+        private long clamp(long ttlMillis) {
+            return Math.max(minMillis, Math.min(maxMillis, ttlMillis));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.jee.backend.cache;
+
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opérations multi-clés d'un RedisCacheWriter : lecture de plusieurs clés en un seul MGET et écriture
+ * de plusieurs entrées en un seul pipeline.
+ *
+ * Chaque writer de la chaîne applique aux lots le même traitement qu'aux opérations unitaires (métriques,
+ * TTL avec jitter, compression, budgets...) puis les transmet au writer suivant. Un writer qui ne gère pas
+ * les lots est appelé clé par clé (voir {@link #getAll(RedisCacheWriter, String, List)}).
+ */
+public interface BatchRedisCacheWriter extends RedisCacheWriter {
+
+    /**
+     * @return les valeurs dans l'ordre des clés, null pour une clé absente
+     */
+    List<byte[]> getAll(String name, List<byte[]> keys);
+
+    /**
+     * Écrit chaque entrée absente de Redis (SET NX) : une valeur écrite entre-temps par une mise à jour
+     * n'est jamais écrasée par une valeur rechargée
+     *
+     * @return pour chaque entrée, dans l'ordre, true si elle a été écrite
+     */
+    List<Boolean> putAllIfAbsent(String name, List<Entry> entries);
+
+    /**
+     * Écrase toutes les entrées d'un seul coup (MULTI/EXEC) : un lecteur voit l'ancienne valeur ou la nouvelle,
+     * jamais une clé absente
+     */
+    void putAll(String name, List<Entry> entries);
+
+    static List<byte[]> getAll(RedisCacheWriter writer, String name, List<byte[]> keys) {
+        if (writer instanceof BatchRedisCacheWriter batchWriter) {
+            return batchWriter.getAll(name, keys);
+        }
+        List<byte[]> values = new ArrayList<>(keys.size());
+        for (byte[] key : keys) {
+            values.add(writer.get(name, key));
+        }
+        return values;
+    }
+
+    static List<Boolean> putAllIfAbsent(RedisCacheWriter writer, String name, List<Entry> entries) {
+        if (writer instanceof BatchRedisCacheWriter batchWriter) {
+            return batchWriter.putAllIfAbsent(name, entries);
+        }
+        List<Boolean> stored = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            stored.add(writer.putIfAbsent(name, entry.getKey(), entry.getValue(), entry.getTtl()) == null);
+        }
+        return stored;
+    }
+
+    static void putAll(RedisCacheWriter writer, String name, List<Entry> entries) {
+        if (writer instanceof BatchRedisCacheWriter batchWriter) {
+            batchWriter.putAll(name, entries);
+            return;
+        }
+        for (Entry entry : entries) {
+            writer.put(name, entry.getKey(), entry.getValue(), entry.getTtl());
+        }
+    }
+
+    /**
+     * Entrée d'une écriture groupée : clé Redis complète, valeur sérialisée et TTL
+     */
+    final class Entry {
+        private final byte[] key;
+        private final byte[] value;
+        private final Duration ttl;
+
+        public Entry(byte[] key, byte[] value, Duration ttl) {
+            this.key = key;
+            this.value = value;
+            this.ttl = ttl;
+        }
+
+        public byte[] getKey() {
+            return key;
+        }
+
+        public byte[] getValue() {
+            return value;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public Entry withValue(byte[] value) {
+            return new Entry(key, value, ttl);
+        }
+
+        public Entry withTtl(Duration ttl) {
+            return new Entry(key, value, ttl);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.jee.backend.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.cache.CacheKeyPrefix;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * RedisCacheWriter qui applique les budgets par cache ({@link CacheBudgets}) : chaque écriture est indexée
+ * avec sa taille stockée et peut évincer les entrées les plus froides du même cache, chaque lecture réussie
+ * rafraîchit le dernier accès de la clé. Les victimes sont supprimées par le reste de la chaîne, puis signalées
+ * à {@link CacheBudgets} pour être invalidées dans le L1 de tous les nœuds.
+ *
+ * Placé sous la compression : la taille comptée est celle réellement stockée dans Redis. Une erreur
+ * de l'index est loguée sans faire échouer l'opération de cache.
+ */
+public class BudgetedRedisCacheWriter implements BatchRedisCacheWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BudgetedRedisCacheWriter.class);
+
+    private final RedisCacheWriter delegate;
+    private final CacheBudgets budgets;
+    private final CacheKeyPrefix keyPrefix;
+
+    public BudgetedRedisCacheWriter(RedisCacheWriter delegate, CacheBudgets budgets, CacheKeyPrefix keyPrefix) {
+        this.delegate = delegate;
+        this.budgets = budgets;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        delegate.put(name, key, value, ttl);
+        register(name, key, value);
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        if (!budgets.isEnabledFor(name)) {
+            return delegate.store(name, key, value, ttl);
+        }
+        // Le script d'indexation est bloquant : hors du thread d'E/S du client Redis, dans le pool borné des budgets
+        return delegate.store(name, key, value, ttl)
+                .thenRun(() -> budgets.registerLater(name, () -> register(name, key, value)));
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        byte[] existing = delegate.putIfAbsent(name, key, value, ttl);
+        if (existing == null) {
+            register(name, key, value);
+        } else {
+            recordAccess(name, key);
+        }
+        return existing;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Supplier<byte[]> valueLoader, Duration ttl, boolean timeToIdleEnabled) {
+        if (!budgets.isEnabledFor(name)) {
+            return delegate.get(name, key, valueLoader, ttl, timeToIdleEnabled);
+        }
+        byte[][] loaded = new byte[1][];
+        byte[] value = delegate.get(name, key, () -> {
+            loaded[0] = valueLoader.get();
+            return loaded[0];
+        }, ttl, timeToIdleEnabled);
+        if (loaded[0] != null) {
+            register(name, key, loaded[0]);
+        } else if (value != null) {
+            recordAccess(name, key);
+        }
+        return value;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        byte[] value = delegate.get(name, key);
+        if (value != null) {
+            recordAccess(name, key);
+        }
+        return value;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        byte[] value = delegate.get(name, key, ttl);
+        if (value != null) {
+            recordAccess(name, key);
+        }
+        return value;
+    }
+
+    @Override
+    public List<byte[]> getAll(String name, List<byte[]> keys) {
+        List<byte[]> values = BatchRedisCacheWriter.getAll(delegate, name, keys);
+        for (int i = 0; i < keys.size(); i++) {
+            if (values.get(i) != null) {
+                recordAccess(name, keys.get(i));
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public List<Boolean> putAllIfAbsent(String name, List<Entry> entries) {
+        List<Boolean> stored = BatchRedisCacheWriter.putAllIfAbsent(delegate, name, entries);
+        if (!budgets.isEnabledFor(name)) {
+            return stored;
+        }
+        List<Entry> written = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (stored.get(i) && entries.get(i).getValue() != null) {
+                written.add(entries.get(i));
+            }
+        }
+        try {
+            evictVictims(name, budgets.registerAll(name, written));
+        } catch (Exception e) {
+            logger.warn("Could not apply budget of cache {}: {}", name, e.getMessage());
+        }
+        return stored;
+    }
+
+    @Override
+    public void putAll(String name, List<Entry> entries) {
+        BatchRedisCacheWriter.putAll(delegate, name, entries);
+        if (!budgets.isEnabledFor(name)) {
+            return;
+        }
+        try {
+            List<Entry> written = entries.stream().filter(entry -> entry.getValue() != null).toList();
+            evictVictims(name, budgets.registerAll(name, written));
+        } catch (Exception e) {
+            logger.warn("Could not apply budget of cache {}: {}", name, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        return delegate.retrieve(name, key, ttl).whenComplete((value, error) -> {
+            if (value != null) {
+                recordAccess(name, key);
+            }
+        });
+    }
+
+    @Override
+    public void evict(String name, byte[] key) {
+        delegate.evict(name, key);
+        unindex(name, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(String name, byte[] key) {
+        boolean evicted = delegate.evictIfPresent(name, key);
+        unindex(name, key);
+        return evicted;
+    }
+
+    @Override
+    public void clear(String name, byte[] pattern) {
+        // Les clés supprimées sortent de l'index au prochain nettoyage (CacheBudgets.prune())
+        delegate.clear(name, pattern);
+    }
+
+    @Override
+    public boolean invalidate(String name, byte[] pattern) {
+        return delegate.invalidate(name, pattern);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+
+    @Override
+    public void clearStatistics(String cacheName) {
+        delegate.clearStatistics(cacheName);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector statisticsCollector) {
+        return new BudgetedRedisCacheWriter(delegate.withStatisticsCollector(statisticsCollector), budgets, keyPrefix);
+    }
+
+    private void register(String name, byte[] key, byte[] value) {
+        if (value == null || !budgets.isEnabledFor(name)) {
+            return;
+        }
+        try {
+            evictVictims(name, budgets.register(name, key, value.length));
+        } catch (Exception e) {
+            logger.warn("Could not apply budget of cache {}: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Supprime les victimes déjà retirées de l'index, puis les signale pour l'invalidation des L1
+     */
+    private void evictVictims(String name, List<byte[]> victims) {
+        if (victims == null || victims.isEmpty()) {
+            return;
+        }
+        String prefix = keyPrefix.compute(name);
+        for (byte[] victim : victims) {
+            delegate.evict(name, victim);
+            String redisKey = new String(victim, StandardCharsets.UTF_8);
+            // Une clé d'une génération précédente n'est plus dans aucun L1 (vidé au changement de génération)
+            if (redisKey.startsWith(prefix)) {
+                budgets.notifyEvicted(name, redisKey.substring(prefix.length()));
+            }
+        }
+    }
+
+    private void recordAccess(String name, byte[] key) {
+        if (budgets.isEnabledFor(name)) {
+            budgets.recordAccess(name, key);
+        }
+    }
+
+    private void unindex(String name, byte[] key) {
+        if (!budgets.isEnabledFor(name)) {
+            return;
+        }
+        try {
+            budgets.remove(name, key);
+        } catch (Exception e) {
+            logger.warn("Could not update budget index of cache {}: {}", name, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.jee.backend.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Lecture groupée de plusieurs clés d'un même cache : cache local (L1), puis un seul MGET Redis pour les clés
+ * absentes du L1, puis un seul chargement pour les clés absentes de Redis, recopiées dans Redis en un seul
+ * pipeline de SET NX (voir {@link BatchRedisCacheWriter}).
+ *
+ * Les lots traversent la même chaîne de writers que les lectures unitaires (génération, métriques, jitter,
+ * compression, budgets). Comme pour un chargement sur miss, les valeurs rechargées ne publient pas
+ * d'invalidation ; une valeur écrite entre-temps dans Redis par une mise à jour n'est jamais écrasée
+ * et n'est recopiée dans le L1 que si aucune invalidation n'est arrivée pendant le lot.
+ * {@link #putAll} sert au contraire à remplacer des valeurs connues, sans fenêtre de miss.
+ */
+public class CacheBatchLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheBatchLoader.class);
+
+    private final TwoTierCacheManager cacheManager;
+    private final HotKeyTracker hotKeys;
+    private final Map<String, Statistics> statistics = new ConcurrentHashMap<>();
+
+    public CacheBatchLoader(TwoTierCacheManager cacheManager, HotKeyTracker hotKeys) {
+        this.cacheManager = cacheManager;
+        this.hotKeys = hotKeys;
+    }
+
+    /**
+     * @param loader charge en une fois les clés absentes des deux niveaux ; une clé absente du résultat
+     *               n'existe pas et n'est pas mise en cache
+     * @return les valeurs trouvées, dans l'ordre des clés demandées (doublons ignorés)
+     */
+    public <T> Map<String, T> getAll(String cacheName, Collection<String> keys, Class<T> type,
+                                     Function<Set<String>, Map<String, T>> loader) {
+        Set<String> requested = new LinkedHashSet<>(keys);
+        Map<String, T> found = new LinkedHashMap<>();
+        if (requested.isEmpty()) {
+            return found;
+        }
+        Statistics stats = statistics.computeIfAbsent(cacheName, name -> new Statistics());
+        stats.batches.increment();
+        stats.keys.add(requested.size());
+
+        // Décore le cache au premier usage : le L1 existe ensuite
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || !(cacheManager.getRedisCacheManager().getCache(cacheName) instanceof RedisCache redisCache)) {
+            throw new IllegalArgumentException("Unknown Redis cache: " + cacheName);
+        }
+        NearCache nearCache = cacheManager.getNearCache(cacheName);
+
+        List<String> remaining = new ArrayList<>();
+        for (String key : requested) {
+            T local = nearCache != null ? unwrap(nearCache.get(key), type) : null;
+            if (local != null) {
+                found.put(key, local);
+                stats.nearHits.increment();
+                if (hotKeys != null) {
+                    hotKeys.record(cacheName, key);
+                }
+            } else {
+                remaining.add(key);
+            }
+        }
+
+        Map<String, T> fromRedis = new LinkedHashMap<>();
+        Map<String, T> loaded = Map.of();
+        // Valeurs telles que stockées (éventuellement datées), recopiées dans le L1
+        Map<String, Object> toNearCache = new LinkedHashMap<>();
+        if (!remaining.isEmpty()) {
+            RedisCacheConfiguration configuration = redisCache.getCacheConfiguration();
+            RedisCacheWriter writer = (RedisCacheWriter) redisCache.getNativeCache();
+            // Préfixe lu une seule fois : tout le lot utilise la même génération
+            String keyPrefix = configuration.getKeyPrefixFor(cacheName);
+            long nearGeneration = nearCache != null ? nearCache.generation() : 0;
+
+            List<byte[]> redisKeys = new ArrayList<>(remaining.size());
+            remaining.forEach(key -> redisKeys.add(redisKey(keyPrefix, key)));
+            List<byte[]> values = BatchRedisCacheWriter.getAll(writer, cacheName, redisKeys);
+            Set<String> missing = new LinkedHashSet<>();
+            for (int i = 0; i < remaining.size(); i++) {
+                Object stored = values.get(i) != null ? deserialize(configuration, values.get(i)) : null;
+                T value = unwrap(stored, type);
+                if (value != null) {
+                    fromRedis.put(remaining.get(i), value);
+                    toNearCache.put(remaining.get(i), stored);
+                } else {
+                    missing.add(remaining.get(i));
+                }
+            }
+            stats.redisHits.add(fromRedis.size());
+
+            if (!missing.isEmpty()) {
+                long start = System.nanoTime();
+                Map<String, T> result = loader.apply(missing);
+                long computeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                loaded = result != null ? result : Map.of();
+                Map<String, Object> stored = backfill(cacheName, configuration, writer, keyPrefix, missing, loaded,
+                        type, computeMillis);
+                stats.loaded.add(stored.size());
+                stats.notFound.add(missing.size() - stored.size());
+                toNearCache.putAll(stored);
+            }
+
+            if (nearCache != null) {
+                toNearCache.forEach((key, stored) -> nearCache.putIfUnchanged(key, stored, nearGeneration));
+            }
+        }
+
+        // Ordre de la requête
+        Map<String, T> ordered = new LinkedHashMap<>();
+        for (String key : requested) {
+            T value = found.get(key);
+            if (value == null) {
+                value = fromRedis.get(key);
+            }
+            if (value == null) {
+                value = loaded(loaded, key, type);
+            }
+            if (value != null) {
+                ordered.put(key, value);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Remplace plusieurs valeurs d'un cache en une seule transaction Redis (voir {@link BatchRedisCacheWriter#putAll}),
+     * sans passer par une éviction : les lecteurs voient l'ancienne valeur ou la nouvelle, jamais un miss.
+     * Le L1 de ce nœud reçoit les nouvelles valeurs, ceux des autres nœuds une invalidation par clé.
+     *
+     * @return nombre d'entrées écrites
+     */
+    public int putAll(String cacheName, Map<String, ?> values) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || !(cacheManager.getRedisCacheManager().getCache(cacheName) instanceof RedisCache redisCache)) {
+            throw new IllegalArgumentException("Unknown Redis cache: " + cacheName);
+        }
+        RedisCacheConfiguration configuration = redisCache.getCacheConfiguration();
+        RedisCacheWriter writer = (RedisCacheWriter) redisCache.getNativeCache();
+        String keyPrefix = configuration.getKeyPrefixFor(cacheName);
+
+        Map<String, Object> storedValues = new LinkedHashMap<>();
+        List<BatchRedisCacheWriter.Entry> entries = new ArrayList<>(values.size());
+        values.forEach((key, value) -> {
+            Object stored = stamp(cacheName, value, 0);
+            storedValues.put(key, stored);
+            Duration ttl = configuration.getTtlFunction().getTimeToLive(key, stored);
+            byte[] serialized = ByteUtils.getBytes(configuration.getValueSerializationPair().write(stored));
+            entries.add(new BatchRedisCacheWriter.Entry(redisKey(keyPrefix, key), serialized, ttl));
+        });
+        BatchRedisCacheWriter.putAll(writer, cacheName, entries);
+
+        NearCache nearCache = cacheManager.getNearCache(cacheName);
+        storedValues.forEach((key, stored) -> {
+            if (nearCache != null) {
+                nearCache.put(key, stored);
+            }
+            cacheManager.publishEvict(cacheName, key);
+        });
+        statistics.computeIfAbsent(cacheName, name -> new Statistics()).overwritten.add(entries.size());
+        logger.debug("Cache {} overwritten - Entries: {}", cacheName, entries.size());
+        return entries.size();
+    }
+
+    /**
+     * @return les valeurs à stocker (datées si besoin), par clé
+     */
+    private <T> Map<String, Object> backfill(String cacheName, RedisCacheConfiguration configuration,
+                                             RedisCacheWriter writer, String keyPrefix, Set<String> missing,
+                                             Map<String, T> loaded, Class<T> type, long computeMillis) {
+        Map<String, Object> storedValues = new LinkedHashMap<>();
+        List<BatchRedisCacheWriter.Entry> entries = new ArrayList<>();
+        for (String key : missing) {
+            T value = loaded(loaded, key, type);
+            if (value == null) {
+                continue;
+            }
+            Object stored = stamp(cacheName, value, computeMillis);
+            storedValues.put(key, stored);
+            Duration ttl = configuration.getTtlFunction().getTimeToLive(key, stored);
+            byte[] serialized = ByteUtils.getBytes(configuration.getValueSerializationPair().write(stored));
+            entries.add(new BatchRedisCacheWriter.Entry(redisKey(keyPrefix, key), serialized, ttl));
+        }
+        if (entries.isEmpty()) {
+            return storedValues;
+        }
+        try {
+            List<Boolean> stored = BatchRedisCacheWriter.putAllIfAbsent(writer, cacheName, entries);
+            statistics.get(cacheName).backfilled.add(stored.stream().filter(Boolean::booleanValue).count());
+        } catch (Exception e) {
+            // Les valeurs chargées sont rendues quand même : le lot suivant retentera l'écriture
+            logger.warn("Could not backfill cache {} - Entries: {}, Error: {}", cacheName, entries.size(), e.getMessage());
+        }
+        return storedValues;
+    }
+
+    /**
+     * Les caches en stale-while-revalidate stockent des {@link StampedValue} : les valeurs rechargées sont
+     * datées de la même façon pour rester éligibles au rafraîchissement en tâche de fond
+     */
+    private Object stamp(String cacheName, Object value, long computeMillis) {
+        return cacheManager.storesStampedValues(cacheName)
+                ? new StampedValue(value, System.currentTimeMillis(), computeMillis)
+                : value;
+    }
+
+    private static <T> T unwrap(Object value, Class<T> type) {
+        Object unwrapped = value instanceof StampedValue stamped ? stamped.getValue() : value;
+        return type.isInstance(unwrapped) ? type.cast(unwrapped) : null;
+    }
+
+    private static <T> T loaded(Map<String, T> loaded, String key, Class<T> type) {
+        return unwrap(loaded.get(key), type);
+    }
+
+    private static Object deserialize(RedisCacheConfiguration configuration, byte[] value) {
+        return configuration.getValueSerializationPair().read(ByteBuffer.wrap(value));
+    }
+
+    private static byte[] redisKey(String keyPrefix, String key) {
+        return (keyPrefix + key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lots servis et origine des clés (L1, Redis, chargement), par cache
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        statistics.forEach((name, stats) -> {
+            Map<String, Object> cacheStats = new LinkedHashMap<>();
+            cacheStats.put("batches", stats.batches.sum());
+            cacheStats.put("keys", stats.keys.sum());
+            cacheStats.put("nearHits", stats.nearHits.sum());
+            cacheStats.put("redisHits", stats.redisHits.sum());
+            cacheStats.put("loaded", stats.loaded.sum());
+            cacheStats.put("notFound", stats.notFound.sum());
+            cacheStats.put("backfilled", stats.backfilled.sum());
+            cacheStats.put("overwritten", stats.overwritten.sum());
+            result.put(name, cacheStats);
+        });
+        return result;
+    }
+
+    private static final class Statistics {
+        private final LongAdder batches = new LongAdder();
+        private final LongAdder keys = new LongAdder();
+        private final LongAdder nearHits = new LongAdder();
+        private final LongAdder redisHits = new LongAdder();
+        private final LongAdder loaded = new LongAdder();
+        private final LongAdder notFound = new LongAdder();
+        private final LongAdder backfilled = new LongAdder();
+        private final LongAdder overwritten = new LongAdder();
+    }
+}
@@ -0,0 +1,375 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Budget en entrées et/ou en octets par cache Redis, appliqué par {@link BudgetedRedisCacheWriter}.
+ *
+ * Chaque cache budgété tient dans Redis un index de ses clés (sorted set, score = dernier accès en ms),
+ * la taille stockée de chaque clé (hash) et le total de ses octets. Chaque écriture met l'index à jour
+ * et, si le budget est dépassé, retire de l'index les clés les moins récemment lues du même cache, dans un seul
+ * script Lua qui ne touche qu'aux clés de l'index (compatible Redis Cluster). Le script rend ces victimes :
+ * {@link BudgetedRedisCacheWriter} les supprime par le writer et les invalide dans le L1 de tous les nœuds.
+ * Un cache qui grossit évince ainsi ses propres entrées froides avant que maxmemory ne touche aux autres clés
+ * (sessions Spring notamment).
+ *
+ * Les lectures ne font qu'un relevé local, envoyé périodiquement en un ZADD XX pipeliné. Les clés expirées par
+ * leur TTL restent dans l'index jusqu'à ce qu'elles deviennent les plus froides : elles sont alors retirées
+ * sans rien supprimer, par l'éviction ou par le nettoyage périodique. Le nettoyage vérifie l'existence des clés
+ * depuis le client (EXISTS pipeliné) : les scripts ne touchent jamais une clé absente de KEYS.
+ */
+public class CacheBudgets implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheBudgets.class);
+    private static final String KEY_PREFIX = "cacheflow:budget:";
+
+    private static final byte[] REGISTER_SCRIPT = ("local old = tonumber(redis.call('hget', KEYS[2], ARGV[1]) or '0') "
+            + "redis.call('hset', KEYS[2], ARGV[1], ARGV[2]) "
+            + "local total = redis.call('incrby', KEYS[3], tonumber(ARGV[2]) - old) "
+            + "redis.call('zadd', KEYS[1], ARGV[3], ARGV[1]) "
+            + "local maxEntries = tonumber(ARGV[4]) local maxBytes = tonumber(ARGV[5]) "
+            + "local victims = {} "
+            + "while #victims < tonumber(ARGV[6]) do "
+            + "  local count = redis.call('zcard', KEYS[1]) "
+            + "  if not ((maxEntries > 0 and count > maxEntries) or (maxBytes > 0 and total > maxBytes)) then break end "
+            + "  local victim = redis.call('zrange', KEYS[1], 0, 0)[1] "
+            + "  if not victim or victim == ARGV[1] then break end "
+            + "  local size = tonumber(redis.call('hget', KEYS[2], victim) or '0') "
+            + "  redis.call('hdel', KEYS[2], victim) "
+            + "  redis.call('zrem', KEYS[1], victim) "
+            + "  total = redis.call('decrby', KEYS[3], size) "
+            + "  victims[#victims + 1] = victim "
+            + "end "
+            + "return victims").getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] REMOVE_SCRIPT = ("local size = redis.call('hget', KEYS[2], ARGV[1]) "
+            + "if size then redis.call('hdel', KEYS[2], ARGV[1]) redis.call('decrby', KEYS[3], size) end "
+            + "return redis.call('zrem', KEYS[1], ARGV[1])").getBytes(StandardCharsets.UTF_8);
+
+    private final RedisConnectionFactory connectionFactory;
+    private final CacheFlowProperties.Budget properties;
+    private final Map<String, Map<String, Long>> pendingAccesses = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> evictions = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> pruned = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> registerRejected = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor registerExecutor;
+    private volatile BiConsumer<String, String> evictionListener = (cacheName, key) -> { };
+
+    public CacheBudgets(RedisConnectionFactory connectionFactory, CacheFlowProperties.Budget properties) {
+        this.connectionFactory = connectionFactory;
+        this.properties = properties;
+        this.registerExecutor = createRegisterExecutor(properties);
+    }
+
+    /**
+     * Pool borné des indexations d'écritures asynchrones : le script est bloquant et ne doit tourner ni sur le
+     * thread d'E/S du client Redis ni dans le pool commun
+     */
+    private static ThreadPoolExecutor createRegisterExecutor(CacheFlowProperties.Budget properties) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(properties.getRegisterThreads(),
+                properties.getRegisterThreads(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getRegisterQueueCapacity()), runnable -> {
+                    Thread thread = new Thread(runnable, "cache-budget-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public void destroy() {
+        registerExecutor.shutdownNow();
+    }
+
+    public boolean isEnabledFor(String cacheName) {
+        return properties.isEnabledFor(cacheName);
+    }
+
+    /**
+     * Appelé pour chaque entrée évincée par budget (nom du cache, clé sans préfixe), une fois supprimée de Redis
+     */
+    public void setEvictionListener(BiConsumer<String, String> evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    void notifyEvicted(String cacheName, String key) {
+        evictionListener.accept(cacheName, key);
+    }
+
+    /**
+     * Enregistre une écriture (taille stockée) puis retire de l'index les entrées les plus froides si le budget est
+     * dépassé
+     *
+     * @return clés Redis des entrées évincées, à supprimer par l'appelant
+     */
+    public List<byte[]> register(String cacheName, byte[] key, int size) {
+        CacheFlowProperties.BudgetSpec spec = properties.getCaches().get(cacheName);
+        long maxEntries = spec.getMaxEntries() != null ? spec.getMaxEntries() : 0;
+        long maxBytes = spec.getMaxSize() != null ? spec.getMaxSize().toBytes() : 0;
+        Object victims;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            victims = connection.scriptingCommands().eval(REGISTER_SCRIPT, ReturnType.MULTI, 3,
+                    indexKey(cacheName), sizesKey(cacheName), bytesKey(cacheName), key,
+                    bytes(size), bytes(System.currentTimeMillis()), bytes(maxEntries), bytes(maxBytes),
+                    bytes(properties.getMaxEvictionsPerWrite()));
+        }
+        return recordEvictions(cacheName, victims instanceof List<?> list ? list : List.of());
+    }
+
+    /**
+     * Lance l'indexation d'une écriture asynchrone dans le pool borné ; file pleine : l'entrée n'est pas indexée
+     * (elle le sera à sa prochaine écriture) et le refus est compté
+     */
+    public void registerLater(String cacheName, Runnable registration) {
+        try {
+            registerExecutor.execute(registration);
+        } catch (RejectedExecutionException e) {
+            counter(registerRejected, cacheName).increment();
+        }
+    }
+
+    /**
+     * Enregistre des écritures groupées : un script par entrée, envoyés en un seul pipeline
+     *
+     * @return clés Redis des entrées évincées, à supprimer par l'appelant
+     */
+    public List<byte[]> registerAll(String cacheName, List<BatchRedisCacheWriter.Entry> entries) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        CacheFlowProperties.BudgetSpec spec = properties.getCaches().get(cacheName);
+        byte[] maxEntries = bytes(spec.getMaxEntries() != null ? spec.getMaxEntries() : 0);
+        byte[] maxBytes = bytes(spec.getMaxSize() != null ? spec.getMaxSize().toBytes() : 0);
+        byte[] maxEvictions = bytes(properties.getMaxEvictionsPerWrite());
+        byte[] now = bytes(System.currentTimeMillis());
+        List<Object> replies;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            for (BatchRedisCacheWriter.Entry entry : entries) {
+                connection.scriptingCommands().eval(REGISTER_SCRIPT, ReturnType.MULTI, 3,
+                        indexKey(cacheName), sizesKey(cacheName), bytesKey(cacheName), entry.getKey(),
+                        bytes(entry.getValue().length), now, maxEntries, maxBytes, maxEvictions);
+            }
+            replies = connection.closePipeline();
+        }
+        return recordEvictions(cacheName, replies);
+    }
+
+    /**
+     * Réponses des scripts (une liste de victimes par script) : victimes comptées puis rendues à plat
+     */
+    private List<byte[]> recordEvictions(String cacheName, List<?> replies) {
+        List<byte[]> victims = new ArrayList<>();
+        for (Object reply : replies) {
+            if (reply instanceof List<?> scriptVictims) {
+                scriptVictims.forEach(victim -> victims.add((byte[]) victim));
+            } else if (reply instanceof byte[] victim) {
+                victims.add(victim);
+            }
+        }
+        if (!victims.isEmpty()) {
+            counter(evictions, cacheName).add(victims.size());
+            logger.debug("Cache budget exceeded - Cache: {}, Entries evicted: {}", cacheName, victims.size());
+        }
+        return victims;
+    }
+
+    /**
+     * Retire une clé supprimée de l'index et du total
+     */
+    public void remove(String cacheName, byte[] key) {
+        pendingAccesses.getOrDefault(cacheName, Map.of()).remove(new String(key, StandardCharsets.UTF_8));
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.scriptingCommands().eval(REMOVE_SCRIPT, ReturnType.INTEGER, 3,
+                    indexKey(cacheName), sizesKey(cacheName), bytesKey(cacheName), key);
+        }
+    }
+
+    /**
+     * Relevé local d'une lecture ; envoyé à Redis par {@link #flushAccesses()}
+     */
+    public void recordAccess(String cacheName, byte[] key) {
+        pendingAccesses.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>())
+                .put(new String(key, StandardCharsets.UTF_8), System.currentTimeMillis());
+    }
+
+    /**
+     * Met à jour le dernier accès des clés lues depuis le dernier envoi (ZADD XX : une clé évincée n'est pas recréée)
+     */
+    @Scheduled(fixedDelayString = "${cacheflow.budget.access-flush-interval:1s}")
+    public void flushAccesses() {
+        Map<String, Map<String, Long>> batch = new HashMap<>();
+        pendingAccesses.forEach((cacheName, accesses) -> {
+            Map<String, Long> drained = new HashMap<>();
+            accesses.keySet().forEach(key -> {
+                Long accessedAt = accesses.remove(key);
+                if (accessedAt != null) {
+                    drained.put(key, accessedAt);
+                }
+            });
+            if (!drained.isEmpty()) {
+                batch.put(cacheName, drained);
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            batch.forEach((cacheName, accesses) -> {
+                byte[] index = indexKey(cacheName);
+                accesses.forEach((key, accessedAt) -> connection.zSetCommands().zAdd(index, accessedAt,
+                        key.getBytes(StandardCharsets.UTF_8), RedisZSetCommands.ZAddArgs.ifExists()));
+            });
+            connection.closePipeline();
+        } catch (Exception e) {
+            logger.warn("Could not record cache accesses for budgets: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Retire de l'index les clés les plus froides déjà expirées par leur TTL, pour que l'usage reste juste
+     */
+    @Scheduled(fixedDelayString = "${cacheflow.budget.prune-interval:30s}")
+    public void prune() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (String cacheName : properties.getCaches().keySet()) {
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                byte[] index = indexKey(cacheName);
+                Set<byte[]> coldest = connection.zSetCommands().zRange(index, 0, properties.getPruneBatchSize() - 1);
+                if (coldest == null || coldest.isEmpty()) {
+                    continue;
+                }
+                List<byte[]> members = new ArrayList<>(coldest);
+                connection.openPipeline();
+                members.forEach(member -> connection.keyCommands().exists(member));
+                List<Object> exists = connection.closePipeline();
+
+                List<byte[]> expired = new ArrayList<>();
+                for (int i = 0; i < members.size(); i++) {
+                    if (!isPresent(exists.get(i))) {
+                        expired.add(members.get(i));
+                    }
+                }
+                if (expired.isEmpty()) {
+                    continue;
+                }
+                connection.openPipeline();
+                expired.forEach(member -> connection.scriptingCommands().eval(REMOVE_SCRIPT, ReturnType.INTEGER, 3,
+                        index, sizesKey(cacheName), bytesKey(cacheName), member));
+                connection.closePipeline();
+                counter(pruned, cacheName).add(expired.size());
+            } catch (Exception e) {
+                logger.warn("Could not prune budget index of cache {}: {}", cacheName, e.getMessage());
+            }
+        }
+    }
+
+    private static boolean isPresent(Object exists) {
+        if (exists instanceof Boolean present) {
+            return present;
+        }
+        return exists instanceof Number count && count.longValue() > 0;
+    }
+
+    /**
+     * Usage courant (entrées, octets stockés) comparé au budget, et évictions par budget de ce nœud, par cache
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        if (!properties.isEnabled() || properties.getCaches().isEmpty()) {
+            return statistics;
+        }
+        List<String> names = List.copyOf(properties.getCaches().keySet());
+        List<Object> usage;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            for (String cacheName : names) {
+                connection.zSetCommands().zCard(indexKey(cacheName));
+                connection.stringCommands().get(bytesKey(cacheName));
+            }
+            usage = connection.closePipeline();
+        }
+        for (int i = 0; i < names.size(); i++) {
+            String cacheName = names.get(i);
+            CacheFlowProperties.BudgetSpec spec = properties.getCaches().get(cacheName);
+            Map<String, Object> stats = new LinkedHashMap<>();
+            long entries = usage.get(2 * i) instanceof Long count ? count : 0;
+            long bytes = parse(usage.get(2 * i + 1));
+            stats.put("entries", entries);
+            if (spec.getMaxEntries() != null) {
+                stats.put("maxEntries", spec.getMaxEntries());
+                stats.put("entriesUsage", ratio(entries, spec.getMaxEntries()));
+            }
+            stats.put("bytes", bytes);
+            if (spec.getMaxSize() != null) {
+                stats.put("maxBytes", spec.getMaxSize().toBytes());
+                stats.put("bytesUsage", ratio(bytes, spec.getMaxSize().toBytes()));
+            }
+            stats.put("evictions", counter(evictions, cacheName).sum());
+            stats.put("prunedExpired", counter(pruned, cacheName).sum());
+            stats.put("registerRejected", counter(registerRejected, cacheName).sum());
+            statistics.put(cacheName, stats);
+        }
+        return statistics;
+    }
+
+    private static double ratio(long used, long budget) {
+        return budget > 0 ? Math.round(used * 1000.0 / budget) / 1000.0 : 0;
+    }
+
+    private static long parse(Object value) {
+        if (value instanceof byte[] bytes) {
+            return Long.parseLong(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+
+    private static LongAdder counter(Map<String, LongAdder> counters, String cacheName) {
+        return counters.computeIfAbsent(cacheName, name -> new LongAdder());
+    }
+
+    private static byte[] indexKey(String cacheName) {
+        return bytes(KEY_PREFIX + cacheName + ":index");
+    }
+
+    private static byte[] sizesKey(String cacheName) {
+        return bytes(KEY_PREFIX + cacheName + ":sizes");
+    }
+
+    private static byte[] bytesKey(String cacheName) {
+        return bytes(KEY_PREFIX + cacheName + ":bytes");
+    }
+
+    private static byte[] bytes(Object value) {
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,154 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.cache.CacheKeyPrefix;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Numéro de génération par cache, stocké dans Redis et intégré au préfixe des clés ("weather::3::paris").
+ *
+ * Vider un cache revient à un INCR de sa génération : les clés de l'ancienne génération ne sont plus jamais
+ * lues et disparaissent à l'expiration de leur TTL, sans parcourir le keyspace. Chaque nœud garde la génération
+ * en mémoire ; il la relit à réception d'un message de vidage (pub/sub) et, à défaut, lors du rafraîchissement
+ * périodique (un seul MGET pour tous les caches).
+ */
+public class CacheGenerations {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheGenerations.class);
+    private static final String GENERATION_KEY_PREFIX = "cacheflow:generation:";
+
+    private final RedisConnectionFactory connectionFactory;
+    private final CacheFlowProperties.Generations properties;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final LongAdder advances = new LongAdder();
+
+    public CacheGenerations(RedisConnectionFactory connectionFactory, CacheFlowProperties.Generations properties) {
+        this.connectionFactory = connectionFactory;
+        this.properties = properties;
+    }
+
+    public boolean isEnabledFor(String cacheName) {
+        return properties.isEnabledFor(cacheName);
+    }
+
+    /**
+     * Préfixe "nom::génération::" pour les caches générationnels, "nom::" (préfixe par défaut) pour les autres
+     */
+    public CacheKeyPrefix keyPrefix() {
+        return cacheName -> isEnabledFor(cacheName)
+                ? cacheName + CacheKeyPrefix.SEPARATOR + current(cacheName) + CacheKeyPrefix.SEPARATOR
+                : CacheKeyPrefix.simple().compute(cacheName);
+    }
+
+    /**
+     * Génération connue de ce nœud ; lue dans Redis au premier accès seulement
+     */
+    public long current(String cacheName) {
+        AtomicLong generation = generations.get(cacheName);
+        if (generation == null) {
+            generation = generations.computeIfAbsent(cacheName, name -> new AtomicLong(read(name)));
+        }
+        return generation.get();
+    }
+
+    /**
+     * Passe le cache à la génération suivante (INCR) : toutes ses entrées actuelles deviennent invisibles
+     */
+    public long advance(String cacheName) {
+        long next;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            Long incremented = connection.stringCommands().incr(generationKey(cacheName));
+            next = incremented != null ? incremented : 0;
+        }
+        update(cacheName, next);
+        advances.increment();
+        logger.info("Cache generation advanced - Cache: {}, Generation: {}", cacheName, next);
+        return next;
+    }
+
+    /**
+     * Relit la génération d'un cache, après un vidage signalé par un autre nœud
+     */
+    public void reload(String cacheName) {
+        if (isEnabledFor(cacheName)) {
+            update(cacheName, read(cacheName));
+        }
+    }
+
+    /**
+     * Filet de sécurité si un message pub/sub a été perdu : relit toutes les générations connues en un MGET
+     */
+    @Scheduled(fixedDelayString = "${cacheflow.generations.refresh-interval:5s}")
+    public void refresh() {
+        List<String> names = new ArrayList<>(generations.keySet());
+        if (names.isEmpty()) {
+            return;
+        }
+        byte[][] keys = names.stream().map(CacheGenerations::generationKey).toArray(byte[][]::new);
+        List<byte[]> values;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            values = connection.stringCommands().mGet(keys);
+        }
+        if (values == null) {
+            return;
+        }
+        for (int i = 0; i < names.size() && i < values.size(); i++) {
+            update(names.get(i), parse(values.get(i)));
+        }
+    }
+
+    /**
+     * Vrai si le motif désigne toutes les clés de la génération courante du cache (RedisCache.clear())
+     */
+    boolean isWholeCachePattern(String cacheName, byte[] pattern) {
+        if (!isEnabledFor(cacheName)) {
+            return false;
+        }
+        String wholeCache = keyPrefix().compute(cacheName) + "*";
+        return wholeCache.equals(new String(pattern, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Génération courante et nombre de vidages par incrément effectués par ce nœud
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        Map<String, Long> current = new LinkedHashMap<>();
+        generations.forEach((name, generation) -> current.put(name, generation.get()));
+        result.put("generations", current);
+        result.put("advances", advances.sum());
+        return result;
+    }
+
+    private void update(String cacheName, long generation) {
+        // Une génération ne recule jamais, même si une relecture arrive après un INCR plus récent
+        generations.computeIfAbsent(cacheName, name -> new AtomicLong()).accumulateAndGet(generation, Math::max);
+    }
+
+    private long read(String cacheName) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            return parse(connection.stringCommands().get(generationKey(cacheName)));
+        }
+    }
+
+    private static long parse(byte[] value) {
+        return value != null ? Long.parseLong(new String(value, StandardCharsets.UTF_8)) : 0;
+    }
+
+    private static byte[] generationKey(String cacheName) {
+        return (GENERATION_KEY_PREFIX + cacheName).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,49 @@
+package com.jee.backend.cache;
+
+/**
+ * Message publié sur Redis pub/sub pour invalider le cache local des autres nœuds.
+ * Une clé nulle signifie que tout le cache doit être vidé.
+ */
+public class CacheInvalidationMessage {
+
+    private String origin;
+    private String cacheName;
+    private String key;
+
+    public CacheInvalidationMessage() {
+    }
+
+    public CacheInvalidationMessage(String origin, String cacheName, String key) {
+        this.origin = origin;
+        this.cacheName = cacheName;
+        this.key = key;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public void setCacheName(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public boolean isClear() {
+        return key == null;
+    }
+}
@@ -0,0 +1,51 @@
+package com.jee.backend.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Diffuse les invalidations du cache local aux autres nœuds via Redis pub/sub
+ */
+public class CacheInvalidationPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationPublisher.class);
+
+    private final RedisConnectionFactory connectionFactory;
+    private final ObjectMapper objectMapper;
+    private final byte[] channel;
+    private final String nodeId;
+
+    public CacheInvalidationPublisher(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper,
+                                      String channel, String nodeId) {
+        this.connectionFactory = connectionFactory;
+        this.objectMapper = objectMapper;
+        this.channel = channel.getBytes(StandardCharsets.UTF_8);
+        this.nodeId = nodeId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        publish(new CacheInvalidationMessage(nodeId, cacheName, key));
+    }
+
+    public void publishClear(String cacheName) {
+        publish(new CacheInvalidationMessage(nodeId, cacheName, null));
+    }
+
+    private void publish(CacheInvalidationMessage message) {
+        // Une panne Redis ne doit pas faire échouer l'écriture : le TTL du cache local borne l'incohérence
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.publish(channel, objectMapper.writeValueAsBytes(message));
+        } catch (Exception e) {
+            logger.warn("Failed to publish cache invalidation for cache {}: {}", message.getCacheName(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.jee.backend.cache;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Pool borné qui exécute les chargements bloquants (MongoDB, API météo) des variantes asynchrones des services.
+ *
+ * Les threads de requête ne font que lire Redis de façon non bloquante ; sur un miss, le chargement est confié
+ * à ce pool et la réponse est écrite à la complétion du CompletableFuture. Volontairement pas un
+ * {@link java.util.concurrent.Executor} : un bean de ce type remplacerait l'applicationTaskExecutor de Spring Boot.
+ */
+public class CacheLoadExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+
+    public CacheLoadExecutor(int threads, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "cache-load-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Exécute le chargement dans le pool ; une file pleine fait échouer le future (RejectedExecutionException)
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> loader) {
+        try {
+            return CompletableFuture.supplyAsync(loader, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Charge chaque clé dans le pool, au plus {@code maxConcurrency} à la fois pour ce lot : une clé n'est lancée
+     * qu'à la fin d'un chargement précédent, et les clés encore en attente à l'échéance ne sont jamais lancées
+     * (future en échec avec une TimeoutException). Un chargement déjà lancé va à son terme.
+     *
+     * @param deadlineNanos échéance du lot, en {@link System#nanoTime()}
+     * @return un future par clé, dans l'ordre des clés
+     */
+    public <K, V> Map<K, CompletableFuture<V>> supplyAll(Collection<K> keys, Function<K, V> loader, int maxConcurrency,
+                                                         long deadlineNanos) {
+        Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        List<Map.Entry<K, CompletableFuture<V>>> pending = new ArrayList<>();
+        for (K key : keys) {
+            CompletableFuture<V> future = new CompletableFuture<>();
+            futures.put(key, future);
+            pending.add(Map.entry(key, future));
+        }
+        Iterator<Map.Entry<K, CompletableFuture<V>>> queue = pending.iterator();
+        for (int i = 0; i < Math.max(1, maxConcurrency); i++) {
+            launchNext(queue, loader, deadlineNanos);
+        }
+        return futures;
+    }
+
+    private <K, V> void launchNext(Iterator<Map.Entry<K, CompletableFuture<V>>> queue, Function<K, V> loader,
+                                   long deadlineNanos) {
+        Map.Entry<K, CompletableFuture<V>> next;
+        synchronized (queue) {
+            if (!queue.hasNext()) {
+                return;
+            }
+            next = queue.next();
+        }
+        if (deadlineNanos - System.nanoTime() <= 0) {
+            next.getValue().completeExceptionally(new TimeoutException("Batch deadline reached before loading " + next.getKey()));
+            // Les clés restantes échouent de la même façon, sans occuper le pool
+            launchNext(queue, loader, deadlineNanos);
+            return;
+        }
+        supply(() -> loader.apply(next.getKey())).whenComplete((value, error) -> {
+            if (error != null) {
+                next.getValue().completeExceptionally(error);
+            } else {
+                next.getValue().complete(value);
+            }
+            launchNext(queue, loader, deadlineNanos);
+        });
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,151 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.ReturnType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bail distribué de reconstruction d'une entrée de cache (SET NX PX + jeton de fencing).
+ *
+ * Le jeton est tiré d'un compteur INCR par cache, donc strictement croissant. L'écriture de la valeur
+ * reconstruite n'a lieu que si le bail porte encore ce jeton : un nœud dont le bail a expiré pendant
+ * un chargement trop long ne peut pas écraser la valeur écrite par le nouveau détenteur.
+ */
+public class CacheRebuildLease {
+
+    private static final byte[] ACQUIRE_SCRIPT = ("local token = redis.call('incr', KEYS[2]) "
+            + "if redis.call('set', KEYS[1], token, 'NX', 'PX', ARGV[1]) then return token end "
+            + "return 0").getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] WRITE_SCRIPT = ("if redis.call('get', KEYS[1]) ~= ARGV[1] then return 0 end "
+            + "if tonumber(ARGV[3]) > 0 then redis.call('set', KEYS[2], ARGV[2], 'PX', ARGV[3]) "
+            + "else redis.call('set', KEYS[2], ARGV[2]) end "
+            + "redis.call('del', KEYS[1]) return 1").getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] RELEASE_SCRIPT = ("if redis.call('get', KEYS[1]) == ARGV[1] then "
+            + "return redis.call('del', KEYS[1]) end return 0").getBytes(StandardCharsets.UTF_8);
+
+    private final RedisConnectionFactory connectionFactory;
+    private final CacheFlowProperties.Lease properties;
+    private final Map<String, Statistics> statistics = new ConcurrentHashMap<>();
+
+    public CacheRebuildLease(RedisConnectionFactory connectionFactory, CacheFlowProperties.Lease properties) {
+        this.connectionFactory = connectionFactory;
+        this.properties = properties;
+    }
+
+    public boolean isEnabledFor(String cacheName) {
+        return properties.isEnabledFor(cacheName);
+    }
+
+    public Duration getWaitTimeout() {
+        return properties.getWaitTimeout();
+    }
+
+    public Duration getPollInterval() {
+        return properties.getPollInterval();
+    }
+
+    /**
+     * Tente de prendre le bail de reconstruction de la clé ; retourne le jeton de fencing, ou 0 si un autre nœud le détient
+     */
+    public long tryAcquire(String cacheName, byte[] key) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            Long token = connection.scriptingCommands().eval(ACQUIRE_SCRIPT, ReturnType.INTEGER, 2,
+                    leaseKey(key), fenceKey(cacheName),
+                    Long.toString(properties.getLeaseTtl().toMillis()).getBytes(StandardCharsets.UTF_8));
+            long result = token != null ? token : 0;
+            if (result > 0) {
+                statisticsFor(cacheName).acquired.increment();
+            } else {
+                statisticsFor(cacheName).contended.increment();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Écrit la valeur et libère le bail, uniquement si le bail porte encore le jeton donné
+     */
+    public boolean writeIfHolder(String cacheName, byte[] key, long token, byte[] value, Duration ttl) {
+        long ttlMillis = ttl != null && !ttl.isZero() && !ttl.isNegative() ? ttl.toMillis() : 0;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            Long written = connection.scriptingCommands().eval(WRITE_SCRIPT, ReturnType.INTEGER, 2,
+                    leaseKey(key), key, Long.toString(token).getBytes(StandardCharsets.UTF_8), value,
+                    Long.toString(ttlMillis).getBytes(StandardCharsets.UTF_8));
+            boolean accepted = written != null && written == 1;
+            if (!accepted) {
+                statisticsFor(cacheName).fencedOut.increment();
+            }
+            return accepted;
+        }
+    }
+
+    public void release(byte[] key, long token) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.scriptingCommands().eval(RELEASE_SCRIPT, ReturnType.INTEGER, 1,
+                    leaseKey(key), Long.toString(token).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    void recordServedByOtherNode(String cacheName) {
+        statisticsFor(cacheName).servedByOtherNode.increment();
+    }
+
+    void recordWaitTimeout(String cacheName) {
+        statisticsFor(cacheName).waitTimeouts.increment();
+    }
+
+    /**
+     * Baux obtenus, attentes servies par un autre nœud, attentes expirées et écritures refusées, par cache
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        statistics.forEach((name, stats) -> {
+            Map<String, Object> cacheStats = new LinkedHashMap<>();
+            cacheStats.put("acquired", stats.acquired.sum());
+            cacheStats.put("contended", stats.contended.sum());
+            cacheStats.put("servedByOtherNode", stats.servedByOtherNode.sum());
+            cacheStats.put("waitTimeouts", stats.waitTimeouts.sum());
+            cacheStats.put("fencedOut", stats.fencedOut.sum());
+            result.put(name, cacheStats);
+        });
+        return result;
+    }
+
+    private Statistics statisticsFor(String cacheName) {
+        return statistics.computeIfAbsent(cacheName, name -> new Statistics());
+    }
+
+    private static byte[] leaseKey(byte[] key) {
+        return concat("lease::", key);
+    }
+
+    private static byte[] fenceKey(String cacheName) {
+        return ("lease-fence::" + cacheName).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] concat(String prefix, byte[] key) {
+        byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        byte[] result = new byte[prefixBytes.length + key.length];
+        System.arraycopy(prefixBytes, 0, result, 0, prefixBytes.length);
+        System.arraycopy(key, 0, result, prefixBytes.length, key.length);
+        return result;
+    }
+
+    private static final class Statistics {
+        private final LongAdder acquired = new LongAdder();
+        private final LongAdder contended = new LongAdder();
+        private final LongAdder servedByOtherNode = new LongAdder();
+        private final LongAdder waitTimeouts = new LongAdder();
+        private final LongAdder fencedOut = new LongAdder();
+    }
+}
@@ -0,0 +1,45 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fournit le sérialiseur de valeurs de chaque cache selon le format configuré
+ * (cacheflow.serialization) et conserve ses mesures de taille et de temps.
+ */
+public class CacheSerializers {
+
+    private final CacheFlowProperties.Serialization properties;
+    private final ClassLoader classLoader;
+    private final Map<String, InstrumentedRedisSerializer> serializers = new ConcurrentHashMap<>();
+
+    public CacheSerializers(CacheFlowProperties.Serialization properties, ClassLoader classLoader) {
+        this.properties = properties;
+        this.classLoader = classLoader;
+    }
+
+    public RedisSerializer<Object> forCache(String cacheName) {
+        return serializers.computeIfAbsent(cacheName, name -> {
+            SerializationFormat format = properties.formatFor(name);
+            return new InstrumentedRedisSerializer(create(format, classLoader), format);
+        });
+    }
+
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        serializers.forEach((name, serializer) -> statistics.put(name, serializer.getStatistics()));
+        return statistics;
+    }
+
+    public static RedisSerializer<Object> create(SerializationFormat format, ClassLoader classLoader) {
+        if (format == SerializationFormat.COMPACT) {
+            return new CompactBinaryRedisSerializer(classLoader);
+        }
+        return new JdkSerializationRedisSerializer(classLoader);
+    }
+}
@@ -0,0 +1,379 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.model.Currency;
+import com.jee.backend.model.Product;
+import com.jee.backend.model.Weather;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sérialiseur binaire compact pour les valeurs des caches Redis.
+ *
+ * Format : [0xCB][version][tag][données]. Les champs de Product, Currency et Weather sont écrits dans un ordre
+ * fixe défini par la version du format, sans descripteur de classe (entiers en varint, chaînes UTF-8 préfixées
+ * par leur longueur). Les types non reconnus sont encapsulés en sérialisation JDK sous le tag {@code TAG_JDK}.
+ *
+ * Double lecture : une entrée commençant par l'en-tête de flux JDK (0xACED) est décodée avec
+ * JdkSerializationRedisSerializer, ce qui permet de relire les entrées écrites avant le déploiement.
+ */
+public class CompactBinaryRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xCB;
+    static final byte FORMAT_VERSION = 1;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_BIG_DECIMAL = 2;
+    private static final byte TAG_PRODUCT = 3;
+    private static final byte TAG_CURRENCY = 4;
+    private static final byte TAG_WEATHER = 5;
+    private static final byte TAG_LIST = 6;
+    private static final byte TAG_JDK = 7;
+    private static final byte TAG_STAMPED = 8;
+
+    private static final byte DECIMAL_NULL = 0;
+    private static final byte DECIMAL_LONG = 1;
+    private static final byte DECIMAL_BIG = 2;
+
+    private final JdkSerializationRedisSerializer jdkSerializer;
+
+    public CompactBinaryRedisSerializer(ClassLoader classLoader) {
+        this.jdkSerializer = new JdkSerializationRedisSerializer(classLoader);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        Writer writer = new Writer(64);
+        writer.writeByte(MAGIC);
+        writer.writeByte(FORMAT_VERSION);
+        writeValue(writer, value);
+        return writer.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (isJdkStream(bytes)) {
+            return jdkSerializer.deserialize(bytes);
+        }
+        if (bytes.length < 3 || bytes[0] != MAGIC) {
+            throw new SerializationException("Unknown cache value format");
+        }
+        if (bytes[1] != FORMAT_VERSION) {
+            throw new SerializationException("Unsupported compact format version: " + bytes[1]);
+        }
+        try {
+            return readValue(new Reader(bytes, 2));
+        } catch (RuntimeException e) {
+            throw new SerializationException("Cannot deserialize compact cache value", e);
+        }
+    }
+
+    static boolean isJdkStream(byte[] bytes) {
+        return bytes.length >= 2 && bytes[0] == (byte) 0xAC && bytes[1] == (byte) 0xED;
+    }
+
+    private void writeValue(Writer writer, Object value) {
+        if (value == null) {
+            writer.writeByte(TAG_NULL);
+        } else if (value instanceof String string) {
+            writer.writeByte(TAG_STRING);
+            writer.writeString(string);
+        } else if (value instanceof BigDecimal decimal) {
+            writer.writeByte(TAG_BIG_DECIMAL);
+            writer.writeDecimal(decimal);
+        } else if (value.getClass() == Product.class) {
+            Product product = (Product) value;
+            writer.writeByte(TAG_PRODUCT);
+            writer.writeString(product.getId());
+            writer.writeString(product.getName());
+            writer.writeDecimal(product.getPrice());
+            writer.writeString(product.getCategory());
+        } else if (value.getClass() == Currency.class) {
+            Currency currency = (Currency) value;
+            writer.writeByte(TAG_CURRENCY);
+            writer.writeString(currency.getId());
+            writer.writeString(currency.getCode());
+            writer.writeDecimal(currency.getRate());
+            writer.writeDateTime(currency.getLastUpdate());
+        } else if (value.getClass() == Weather.class) {
+            Weather weather = (Weather) value;
+            writer.writeByte(TAG_WEATHER);
+            writer.writeString(weather.getCity());
+            writer.writeDouble(weather.getTemp());
+            writer.writeDouble(weather.getHumidity());
+            writer.writeDateTime(weather.getTimestamp());
+        } else if (value instanceof StampedValue stamped) {
+            writer.writeByte(TAG_STAMPED);
+            writer.writeVarLong(stamped.getWrittenAt());
+            writer.writeVarLong(stamped.getComputeMillis());
+            writeValue(writer, stamped.getValue());
+        } else if (value instanceof List<?> list) {
+            writer.writeByte(TAG_LIST);
+            writer.writeVarInt(list.size());
+            for (Object element : list) {
+                writeValue(writer, element);
+            }
+        } else {
+            writer.writeByte(TAG_JDK);
+            writer.writeBytes(jdkSerializer.serialize(value));
+        }
+    }
+
+    private Object readValue(Reader reader) {
+        byte tag = reader.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_STRING:
+                return reader.readString();
+            case TAG_BIG_DECIMAL:
+                return reader.readDecimal();
+            case TAG_PRODUCT:
+                return new Product(reader.readString(), reader.readString(), reader.readDecimal(), reader.readString());
+            case TAG_CURRENCY: {
+                // Construit champ par champ : setRate() écraserait lastUpdate
+                String id = reader.readString();
+                String code = reader.readString();
+                BigDecimal rate = reader.readDecimal();
+                return new Currency(id, code, rate, reader.readDateTime());
+            }
+            case TAG_WEATHER:
+                return new Weather(reader.readString(), reader.readDouble(), reader.readDouble(), reader.readDateTime());
+            case TAG_LIST: {
+                int size = reader.readVarInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(reader));
+                }
+                return list;
+            }
+            case TAG_JDK:
+                return jdkSerializer.deserialize(reader.readBytes());
+            case TAG_STAMPED: {
+                long writtenAt = reader.readVarLong();
+                long computeMillis = reader.readVarLong();
+                return new StampedValue(readValue(reader), writtenAt, computeMillis);
+            }
+            default:
+                throw new SerializationException("Unknown compact type tag: " + tag);
+        }
+    }
+
+    /**
+     * Tampon d'écriture extensible
+     */
+    private static final class Writer {
+        private byte[] buffer;
+        private int position;
+
+        private Writer(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        private void ensureCapacity(int additional) {
+            if (position + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+            }
+        }
+
+        private void writeByte(byte value) {
+            ensureCapacity(1);
+            buffer[position++] = value;
+        }
+
+        private void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        private void writeBytes(byte[] bytes) {
+            writeVarInt(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        /**
+         * Longueur + 1 en varint (0 = null), puis les octets UTF-8
+         */
+        private void writeString(String value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void writeDecimal(BigDecimal value) {
+            if (value == null) {
+                writeByte(DECIMAL_NULL);
+                return;
+            }
+            BigInteger unscaled = value.unscaledValue();
+            if (unscaled.bitLength() < 64) {
+                writeByte(DECIMAL_LONG);
+                writeZigZag(unscaled.longValue());
+            } else {
+                writeByte(DECIMAL_BIG);
+                writeBytes(unscaled.toByteArray());
+            }
+            writeZigZag(value.scale());
+        }
+
+        private void writeDouble(Double value) {
+            if (value == null) {
+                writeByte((byte) 0);
+                return;
+            }
+            writeByte((byte) 1);
+            long bits = Double.doubleToLongBits(value);
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (bits >>> shift);
+            }
+        }
+
+        private void writeDateTime(LocalDateTime value) {
+            if (value == null) {
+                writeByte((byte) 0);
+                return;
+            }
+            writeByte((byte) 1);
+            writeZigZag(value.toEpochSecond(ZoneOffset.UTC));
+            writeVarInt(value.getNano());
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    /**
+     * Curseur de lecture sur le tableau d'octets
+     */
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        private Reader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        private byte readByte() {
+            if (position >= buffer.length) {
+                throw new SerializationException("Truncated compact cache value");
+            }
+            return buffer[position++];
+        }
+
+        private int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        private long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new SerializationException("Malformed varint in compact cache value");
+        }
+
+        private long readZigZag() {
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        private byte[] readBytes() {
+            int length = readVarInt();
+            return readRaw(length);
+        }
+
+        private byte[] readRaw(int length) {
+            if (length < 0 || position + length > buffer.length) {
+                throw new SerializationException("Truncated compact cache value");
+            }
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        private String readString() {
+            int length = readVarInt();
+            if (length == 0) {
+                return null;
+            }
+            if (length - 1 < 0 || position + length - 1 > buffer.length) {
+                throw new SerializationException("Truncated compact cache value");
+            }
+            String value = new String(buffer, position, length - 1, StandardCharsets.UTF_8);
+            position += length - 1;
+            return value;
+        }
+
+        private BigDecimal readDecimal() {
+            byte kind = readByte();
+            if (kind == DECIMAL_NULL) {
+                return null;
+            }
+            BigInteger unscaled = kind == DECIMAL_LONG ? BigInteger.valueOf(readZigZag()) : new BigInteger(readBytes());
+            return new BigDecimal(unscaled, (int) readZigZag());
+        }
+
+        private Double readDouble() {
+            if (readByte() == 0) {
+                return null;
+            }
+            long bits = 0;
+            for (int i = 0; i < 8; i++) {
+                bits = (bits << 8) | (readByte() & 0xFF);
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        private LocalDateTime readDateTime() {
+            if (readByte() == 0) {
+                return null;
+            }
+            long epochSecond = readZigZag();
+            int nano = readVarInt();
+            return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+        }
+    }
+}
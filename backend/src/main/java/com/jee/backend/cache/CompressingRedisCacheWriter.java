@@ -0,0 +1,127 @@
+package com.jee.backend.cache;
+
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * RedisCacheWriter qui compresse les valeurs au-delà du seuil configuré avant écriture
+ * et les décompresse à la lecture (voir {@link ValueCompressor})
+ */
+public class CompressingRedisCacheWriter implements BatchRedisCacheWriter {
+
+    private final RedisCacheWriter delegate;
+    private final ValueCompressor compressor;
+
+    public CompressingRedisCacheWriter(RedisCacheWriter delegate, ValueCompressor compressor) {
+        this.delegate = delegate;
+        this.compressor = compressor;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        return compressor.decompress(name, delegate.get(name, key));
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        return compressor.decompress(name, delegate.get(name, key, ttl));
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Supplier<byte[]> valueLoader, Duration ttl, boolean timeToIdleEnabled) {
+        return compressor.decompress(name, delegate.get(name, key,
+                () -> compressor.compress(name, valueLoader.get()), ttl, timeToIdleEnabled));
+    }
+
+    @Override
+    public List<byte[]> getAll(String name, List<byte[]> keys) {
+        List<byte[]> values = new ArrayList<>(BatchRedisCacheWriter.getAll(delegate, name, keys));
+        values.replaceAll(value -> compressor.decompress(name, value));
+        return values;
+    }
+
+    @Override
+    public List<Boolean> putAllIfAbsent(String name, List<Entry> entries) {
+        List<Entry> compressed = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            compressed.add(entry.withValue(compressor.compress(name, entry.getValue())));
+        }
+        return BatchRedisCacheWriter.putAllIfAbsent(delegate, name, compressed);
+    }
+
+    @Override
+    public void putAll(String name, List<Entry> entries) {
+        List<Entry> compressed = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            compressed.add(entry.withValue(compressor.compress(name, entry.getValue())));
+        }
+        BatchRedisCacheWriter.putAll(delegate, name, compressed);
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        return delegate.retrieve(name, key, ttl).thenApply(value -> compressor.decompress(name, value));
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        delegate.put(name, key, compressor.compress(name, value), ttl);
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.store(name, key, compressor.compress(name, value), ttl);
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        return compressor.decompress(name, delegate.putIfAbsent(name, key, compressor.compress(name, value), ttl));
+    }
+
+    @Override
+    public void evict(String name, byte[] key) {
+        delegate.evict(name, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(String name, byte[] key) {
+        return delegate.evictIfPresent(name, key);
+    }
+
+    @Override
+    public void clear(String name, byte[] pattern) {
+        delegate.clear(name, pattern);
+    }
+
+    @Override
+    public boolean invalidate(String name, byte[] pattern) {
+        return delegate.invalidate(name, pattern);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+
+    @Override
+    public void clearStatistics(String cacheName) {
+        delegate.clearStatistics(cacheName);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector statisticsCollector) {
+        return new CompressingRedisCacheWriter(delegate.withStatisticsCollector(statisticsCollector), compressor);
+    }
+}
@@ -0,0 +1,83 @@
+package com.jee.backend.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch : estimation en mémoire constante du nombre d'occurrences de chaque clé d'un flux.
+ *
+ * {@code depth} lignes de {@code width} compteurs ; une clé incrémente un compteur par ligne et son estimation
+ * est le minimum de ces compteurs. L'estimation ne sous-estime jamais ; elle surestime d'au plus
+ * e/width × (total du flux) avec une probabilité 1 - e^-depth. Les compteurs sont atomiques : aucun verrou
+ * sur le chemin de lecture des caches.
+ */
+class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    CountMinSketch(int depth, int width) {
+        this.depth = Math.max(1, depth);
+        // Largeur arrondie à une puissance de deux : l'index est un simple masque
+        int roundedWidth = Math.max(16, Integer.highestOneBit(Math.max(1, width - 1)) << 1);
+        this.mask = roundedWidth - 1;
+        this.counters = new AtomicLongArray(this.depth * roundedWidth);
+    }
+
+    /**
+     * Compte une occurrence et retourne l'estimation mise à jour
+     */
+    long add(Object key) {
+        int hash = spread(key.hashCode());
+        int step = spread(hash ^ 0x9E3779B9) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            // Double hachage : h1 + i × h2 donne des index indépendants par ligne
+            int index = row * (mask + 1) + ((hash + row * step) & mask);
+            estimate = Math.min(estimate, counters.incrementAndGet(index));
+        }
+        return estimate;
+    }
+
+    long estimate(Object key) {
+        int hash = spread(key.hashCode());
+        int step = spread(hash ^ 0x9E3779B9) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(row * (mask + 1) + ((hash + row * step) & mask)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Remise à zéro en fin de fenêtre ; les incréments concurrents peuvent être comptés dans l'une ou l'autre
+     */
+    void reset() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    /**
+     * Vieillissement : divise tous les compteurs par deux pour que les fréquences passées s'effacent
+     */
+    void age() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+    }
+
+    int width() {
+        return mask + 1;
+    }
+
+    private static int spread(int hash) {
+        // Finaliseur de MurmurHash3 : disperse les hashCode() de chaînes proches
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -0,0 +1,54 @@
+package com.jee.backend.cache;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Expiration anticipée probabiliste (XFetch) : un lecteur recalcule l'entrée avant son expiration avec une
+ * probabilité qui croît à l'approche du TTL, d'autant plus tôt que le calcul a été long.
+ *
+ * Condition : {@code now - computeTime * beta * ln(u) >= writtenAt + ttl}, u uniforme dans ]0, 1].
+ * Les lecteurs de tous les nœuds tirent indépendamment, sans coordination, ce qui étale les recalculs
+ * au lieu de les concentrer à l'instant d'expiration.
+ */
+public class EarlyExpirationPolicy {
+
+    private final double beta;
+    private final Supplier<Duration> ttl;
+    private final DoubleSupplier random;
+
+    public EarlyExpirationPolicy(double beta, Duration ttl) {
+        this(beta, () -> ttl);
+    }
+
+    /**
+     * @param ttl TTL dur courant, relu à chaque décision : suit les ajustements du TTL adaptatif
+     */
+    public EarlyExpirationPolicy(double beta, Supplier<Duration> ttl) {
+        this(beta, ttl, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    EarlyExpirationPolicy(double beta, Duration ttl, DoubleSupplier random) {
+        this(beta, () -> ttl, random);
+    }
+
+    EarlyExpirationPolicy(double beta, Supplier<Duration> ttl, DoubleSupplier random) {
+        this.beta = beta;
+        this.ttl = ttl;
+        this.random = random;
+    }
+
+    /**
+     * Une entrée sans durée de calcul connue (écrite par put) n'est jamais recalculée par anticipation
+     */
+    public boolean shouldRecompute(StampedValue stamped, long now) {
+        long computeMillis = stamped.getComputeMillis();
+        if (computeMillis <= 0) {
+            return false;
+        }
+        double gap = -computeMillis * beta * Math.log(1.0 - random.getAsDouble());
+        return now + gap >= stamped.getWrittenAt() + ttl.get().toMillis();
+    }
+}
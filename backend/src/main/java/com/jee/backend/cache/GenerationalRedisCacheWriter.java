@@ -0,0 +1,125 @@
+package com.jee.backend.cache;
+
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * RedisCacheWriter placé en tête de la chaîne : le vidage complet d'un cache générationnel est remplacé par
+ * un INCR de sa génération ({@link CacheGenerations}) au lieu d'un parcours SCAN + UNLINK de ses clés.
+ * Les vidages par motif partiel et les caches non générationnels suivent le chemin habituel.
+ */
+public class GenerationalRedisCacheWriter implements BatchRedisCacheWriter {
+
+    private final RedisCacheWriter delegate;
+    private final CacheGenerations generations;
+
+    public GenerationalRedisCacheWriter(RedisCacheWriter delegate, CacheGenerations generations) {
+        this.delegate = delegate;
+        this.generations = generations;
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        delegate.put(name, key, value, ttl);
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.store(name, key, value, ttl);
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.putIfAbsent(name, key, value, ttl);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Supplier<byte[]> valueLoader, Duration ttl, boolean timeToIdleEnabled) {
+        return delegate.get(name, key, valueLoader, ttl, timeToIdleEnabled);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        return delegate.get(name, key);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        return delegate.get(name, key, ttl);
+    }
+
+    @Override
+    public List<byte[]> getAll(String name, List<byte[]> keys) {
+        return BatchRedisCacheWriter.getAll(delegate, name, keys);
+    }
+
+    @Override
+    public List<Boolean> putAllIfAbsent(String name, List<Entry> entries) {
+        return BatchRedisCacheWriter.putAllIfAbsent(delegate, name, entries);
+    }
+
+    @Override
+    public void putAll(String name, List<Entry> entries) {
+        BatchRedisCacheWriter.putAll(delegate, name, entries);
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        return delegate.retrieve(name, key, ttl);
+    }
+
+    @Override
+    public void evict(String name, byte[] key) {
+        delegate.evict(name, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(String name, byte[] key) {
+        return delegate.evictIfPresent(name, key);
+    }
+
+    @Override
+    public void clear(String name, byte[] pattern) {
+        if (generations.isWholeCachePattern(name, pattern)) {
+            generations.advance(name);
+        } else {
+            delegate.clear(name, pattern);
+        }
+    }
+
+    @Override
+    public boolean invalidate(String name, byte[] pattern) {
+        if (generations.isWholeCachePattern(name, pattern)) {
+            // Les entrées de l'ancienne génération sont invisibles dès le retour de l'INCR
+            generations.advance(name);
+            return true;
+        }
+        return delegate.invalidate(name, pattern);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+
+    @Override
+    public void clearStatistics(String cacheName) {
+        delegate.clearStatistics(cacheName);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector statisticsCollector) {
+        return new GenerationalRedisCacheWriter(delegate.withStatisticsCollector(statisticsCollector), generations);
+    }
+}
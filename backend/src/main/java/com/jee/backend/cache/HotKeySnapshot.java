@@ -0,0 +1,404 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Instantané des entrées les plus chaudes des caches locaux (L1), écrit périodiquement et à l'arrêt dans un
+ * fichier local projeté en mémoire, puis rechargé au démarrage avant que le serveur HTTP n'accepte du trafic.
+ *
+ * Chaque entrée enregistre l'échéance de son entrée Redis (PTTL lu à l'écriture) et la génération de son cache :
+ * au rechargement, une entrée échue (ou trop proche de son échéance) ou dont le cache a été vidé depuis
+ * n'est jamais servie. Les entrées valides sont remises dans le L1 et, si Redis les a perdues, dans Redis
+ * (SET NX) avec leur TTL restant, ce qui réchauffe aussi les autres nœuds.
+ *
+ * Format : en-tête [magic][version][date d'écriture][nombre d'entrées][CRC32 du corps], puis pour chaque entrée
+ * [cache][génération][clé][échéance en ms epoch][valeur encodée par le sérialiseur du cache].
+ */
+public class HotKeySnapshot implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotKeySnapshot.class);
+
+    static final int MAGIC = 0x484B534E;
+    static final byte FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES + 1 + Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    private final TwoTierCacheManager cacheManager;
+    private final RedisConnectionFactory connectionFactory;
+    private final CacheGenerations generations;
+    private final CacheFlowProperties.Snapshot properties;
+    private final Path path;
+    private final AtomicLong lastWrittenAt = new AtomicLong();
+    private final AtomicLong lastEntries = new AtomicLong();
+    private final AtomicLong lastBytes = new AtomicLong();
+    private final LongAdder writeFailures = new LongAdder();
+    private final LongAdder restored = new LongAdder();
+    private final LongAdder restoredToRedis = new LongAdder();
+    private final LongAdder skippedExpired = new LongAdder();
+    private final LongAdder skippedGeneration = new LongAdder();
+
+    public HotKeySnapshot(TwoTierCacheManager cacheManager, RedisConnectionFactory connectionFactory,
+                          CacheGenerations generations, CacheFlowProperties.Snapshot properties) {
+        this.cacheManager = cacheManager;
+        this.connectionFactory = connectionFactory;
+        this.generations = generations;
+        this.properties = properties;
+        this.path = Path.of(properties.getPath());
+    }
+
+    /**
+     * Rechargement pendant l'initialisation du contexte, donc avant le démarrage du serveur web
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (properties.isEnabled()) {
+            restore();
+        }
+    }
+
+    /**
+     * Dernier instantané à l'arrêt, pour un redémarrage à chaud
+     */
+    @Override
+    public void destroy() {
+        if (properties.isEnabled()) {
+            write();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cacheflow.snapshot.interval:1m}", initialDelayString = "${cacheflow.snapshot.interval:1m}")
+    public void scheduledWrite() {
+        if (properties.isEnabled()) {
+            write();
+        }
+    }
+
+    /**
+     * Écrit l'instantané des entrées les plus chaudes ; un L1 vide conserve l'instantané précédent
+     */
+    public synchronized void write() {
+        try {
+            List<Entry> entries = collect(System.currentTimeMillis());
+            if (entries.isEmpty()) {
+                return;
+            }
+            long bytes = writeFile(path, entries, properties.getMaxSize().toBytes());
+            lastWrittenAt.set(System.currentTimeMillis());
+            lastEntries.set(entries.size());
+            lastBytes.set(bytes);
+            logger.debug("Hot key snapshot written - Entries: {}, Size: {} bytes", entries.size(), bytes);
+        } catch (Exception e) {
+            writeFailures.increment();
+            logger.warn("Could not write hot key snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Recharge l'instantané dans le L1 et dans Redis ; les entrées échues ou d'une génération vidée sont ignorées
+     */
+    public synchronized void restore() {
+        List<Entry> entries;
+        try {
+            entries = readFile(path);
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (Exception e) {
+            logger.warn("Ignoring unreadable hot key snapshot {}: {}", path, e.getMessage());
+            return;
+        }
+        Map<String, List<Entry>> byCache = new LinkedHashMap<>();
+        entries.forEach(entry -> byCache.computeIfAbsent(entry.cacheName, name -> new ArrayList<>()).add(entry));
+        byCache.forEach(this::restoreCache);
+        logger.info("Hot key snapshot restored - Entries: {}, Restored: {}, Written back to Redis: {}, "
+                        + "Expired: {}, Cleared since: {}", entries.size(), restored.sum(), restoredToRedis.sum(),
+                skippedExpired.sum(), skippedGeneration.sum());
+    }
+
+    private void restoreCache(String cacheName, List<Entry> entries) {
+        // Crée les décorateurs (dont le L1) avant d'y remettre les entrées
+        Cache cache = cacheManager.getCache(cacheName);
+        NearCache nearCache = cacheManager.getNearCache(cacheName);
+        if (cache == null || nearCache == null
+                || !(cacheManager.getRedisCacheManager().getCache(cacheName) instanceof RedisCache redisCache)) {
+            return;
+        }
+        long currentGeneration;
+        try {
+            currentGeneration = generationOf(cacheName);
+        } catch (Exception e) {
+            // Sans génération, impossible de savoir si le cache a été vidé depuis l'instantané
+            logger.warn("Skipping snapshot of cache {}: {}", cacheName, e.getMessage());
+            return;
+        }
+        RedisCacheConfiguration configuration = redisCache.getCacheConfiguration();
+        RedisCacheWriter writer = (RedisCacheWriter) redisCache.getNativeCache();
+        // Préfixe courant : une génération perdue avec Redis repart de 0
+        String keyPrefix = configuration.getKeyPrefixFor(cacheName);
+        for (Entry entry : entries) {
+            long now = System.currentTimeMillis();
+            if (entry.generation < currentGeneration) {
+                skippedGeneration.increment();
+                continue;
+            }
+            if (!entry.isFresh(now, properties.getMinRemainingTtl())) {
+                skippedExpired.increment();
+                continue;
+            }
+            try {
+                Object value = configuration.getValueSerializationPair().read(ByteBuffer.wrap(entry.value));
+                Duration remaining = Duration.ofMillis(entry.expiresAt - now);
+                if (value != null && nearCache.restore(entry.key, value, remaining)) {
+                    restored.increment();
+                }
+                byte[] redisKey = (keyPrefix + entry.key).getBytes(StandardCharsets.UTF_8);
+                if (writer.putIfAbsent(cacheName, redisKey, entry.value, remaining) == null) {
+                    restoredToRedis.increment();
+                }
+            } catch (Exception e) {
+                logger.debug("Could not restore snapshot entry - Cache: {}, Key: {}, Error: {}",
+                        cacheName, entry.key, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Entrées les plus récemment lues de chaque L1, avec l'échéance de leur entrée Redis (un PTTL pipeliné par cache)
+     */
+    private List<Entry> collect(long now) {
+        List<Entry> entries = new ArrayList<>();
+        for (String cacheName : List.copyOf(cacheManager.getNearCacheNames())) {
+            NearCache nearCache = cacheManager.getNearCache(cacheName);
+            if (nearCache == null
+                    || !(cacheManager.getRedisCacheManager().getCache(cacheName) instanceof RedisCache redisCache)) {
+                continue;
+            }
+            List<Map.Entry<String, Object>> hottest = nearCache.hottest(properties.getMaxEntriesPerCache());
+            if (hottest.isEmpty()) {
+                continue;
+            }
+            RedisCacheConfiguration configuration = redisCache.getCacheConfiguration();
+            String keyPrefix = configuration.getKeyPrefixFor(cacheName);
+            long generation = generationOf(cacheName);
+            List<Object> ttls;
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                connection.openPipeline();
+                hottest.forEach(hot -> connection.keyCommands()
+                        .pTtl((keyPrefix + hot.getKey()).getBytes(StandardCharsets.UTF_8)));
+                ttls = connection.closePipeline();
+            }
+            for (int i = 0; i < hottest.size() && i < ttls.size(); i++) {
+                // -2 : absente de Redis, -1 : sans expiration ; dans les deux cas la fraîcheur n'est pas vérifiable
+                if (!(ttls.get(i) instanceof Long ttl) || ttl <= 0) {
+                    continue;
+                }
+                Map.Entry<String, Object> hot = hottest.get(i);
+                ByteBuffer value = configuration.getValueSerializationPair().write(hot.getValue());
+                byte[] bytes = new byte[value.remaining()];
+                value.get(bytes);
+                entries.add(new Entry(cacheName, generation, hot.getKey(), now + ttl, bytes));
+            }
+        }
+        return entries;
+    }
+
+    private long generationOf(String cacheName) {
+        return generations != null && generations.isEnabledFor(cacheName) ? generations.current(cacheName) : 0;
+    }
+
+    /**
+     * Écrit les entrées dans un fichier temporaire projeté en mémoire puis le renomme atomiquement ;
+     * les entrées au-delà de {@code maxBytes} sont abandonnées (les plus chaudes sont en tête de chaque cache)
+     *
+     * @return taille du fichier écrit
+     */
+    static long writeFile(Path path, List<Entry> entries, long maxBytes) throws IOException {
+        List<byte[]> encoded = new ArrayList<>(entries.size());
+        long bodySize = 0;
+        for (Entry entry : entries) {
+            byte[] bytes = entry.encode();
+            if (HEADER_SIZE + bodySize + bytes.length > maxBytes) {
+                continue;
+            }
+            encoded.add(bytes);
+            bodySize += bytes.length;
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        long size = HEADER_SIZE + bodySize;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.position(HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            for (byte[] bytes : encoded) {
+                buffer.put(bytes);
+                crc.update(bytes);
+            }
+            buffer.position(0);
+            buffer.putInt(MAGIC);
+            buffer.put(FORMAT_VERSION);
+            buffer.putLong(System.currentTimeMillis());
+            buffer.putInt(encoded.size());
+            buffer.putLong(crc.getValue());
+            buffer.force();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    /**
+     * Relit un instantané ; un fichier tronqué, d'un autre format ou corrompu est refusé en entier
+     */
+    static List<Entry> readFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Truncated snapshot");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a hot key snapshot");
+            }
+            byte version = buffer.get();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+            buffer.getLong();
+            int count = buffer.getInt();
+            long expectedCrc = buffer.getLong();
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if (crc.getValue() != expectedCrc) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+            List<Entry> entries = new ArrayList<>(count);
+            try {
+                for (int i = 0; i < count; i++) {
+                    entries.add(Entry.decode(buffer));
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("Malformed snapshot entry", e);
+            }
+            return entries;
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", properties.isEnabled());
+        statistics.put("path", path.toString());
+        statistics.put("lastWrittenAt", lastWrittenAt.get());
+        statistics.put("lastEntries", lastEntries.get());
+        statistics.put("lastBytes", lastBytes.get());
+        statistics.put("writeFailures", writeFailures.sum());
+        statistics.put("restored", restored.sum());
+        statistics.put("restoredToRedis", restoredToRedis.sum());
+        statistics.put("skippedExpired", skippedExpired.sum());
+        statistics.put("skippedGeneration", skippedGeneration.sum());
+        return statistics;
+    }
+
+    static final class Entry {
+        private final String cacheName;
+        private final long generation;
+        private final String key;
+        private final long expiresAt;
+        private final byte[] value;
+
+        Entry(String cacheName, long generation, String key, long expiresAt, byte[] value) {
+            this.cacheName = cacheName;
+            this.generation = generation;
+            this.key = key;
+            this.expiresAt = expiresAt;
+            this.value = value;
+        }
+
+        String getCacheName() {
+            return cacheName;
+        }
+
+        long getGeneration() {
+            return generation;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        long getExpiresAt() {
+            return expiresAt;
+        }
+
+        byte[] getValue() {
+            return value;
+        }
+
+        /**
+         * Vrai si l'entrée Redis d'origine vit encore au moins {@code minRemaining}
+         */
+        boolean isFresh(long now, Duration minRemaining) {
+            return expiresAt - now >= Math.max(1, minRemaining.toMillis());
+        }
+
+        private byte[] encode() {
+            byte[] name = cacheName.getBytes(StandardCharsets.UTF_8);
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * 3 + Long.BYTES * 2
+                    + name.length + keyBytes.length + value.length);
+            buffer.putInt(name.length).put(name);
+            buffer.putLong(generation);
+            buffer.putInt(keyBytes.length).put(keyBytes);
+            buffer.putLong(expiresAt);
+            buffer.putInt(value.length).put(value);
+            return buffer.array();
+        }
+
+        private static Entry decode(ByteBuffer buffer) {
+            String cacheName = readString(buffer);
+            long generation = buffer.getLong();
+            String key = readString(buffer);
+            long expiresAt = buffer.getLong();
+            byte[] value = new byte[buffer.getInt()];
+            buffer.get(value);
+            return new Entry(cacheName, generation, key, expiresAt, value);
+        }
+
+        private static String readString(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
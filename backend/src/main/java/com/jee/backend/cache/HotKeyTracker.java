@@ -0,0 +1,205 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Détection des clés les plus lues, par cache, sur des fenêtres de temps fixes (cacheflow.hot-keys.window).
+ *
+ * Chaque lecture incrémente un {@link CountMinSketch} ; les K clés dont l'estimation est la plus forte sont
+ * conservées à part. Une clé déjà dans le top est mise à jour sans verrou ; le verrou n'est pris que lorsqu'une
+ * clé dépasse le plus petit compteur du top. En fin de fenêtre, le top est publié avec son débit estimé
+ * (lectures par seconde) puis le sketch repart de zéro.
+ *
+ * Alimenté par le chemin de lecture du writer Redis ({@link HotKeyTrackingRedisCacheWriter}) et par les hits
+ * du cache local, qui n'atteignent pas Redis (voir {@link TwoTierCache}).
+ */
+public class HotKeyTracker {
+
+    private final CacheFlowProperties.HotKeys properties;
+    private final Map<String, CacheHotKeys> caches = new ConcurrentHashMap<>();
+
+    public HotKeyTracker(CacheFlowProperties.HotKeys properties) {
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Compte une lecture de la clé (représentation textuelle, sans préfixe Redis)
+     */
+    public void record(String cacheName, String key) {
+        if (properties.isEnabled()) {
+            cacheHotKeys(cacheName).record(key);
+        }
+    }
+
+    /**
+     * Clôt la fenêtre courante : publie le top de chaque cache et remet les compteurs à zéro
+     */
+    @Scheduled(fixedDelayString = "${cacheflow.hot-keys.window:10s}")
+    public void rotate() {
+        long now = System.currentTimeMillis();
+        caches.values().forEach(cache -> cache.rotate(now));
+    }
+
+    /**
+     * Clés les plus lues de la dernière fenêtre complète, de la plus lue à la moins lue
+     */
+    public List<HotKey> hotKeys(String cacheName) {
+        CacheHotKeys cache = caches.get(cacheName);
+        return cache != null ? cache.published : List.of();
+    }
+
+    /**
+     * Débit estimé de la clé sur la dernière fenêtre complète ; 0 si elle n'était pas dans le top
+     */
+    public double estimatedQps(String cacheName, String key) {
+        for (HotKey hotKey : hotKeys(cacheName)) {
+            if (hotKey.getKey().equals(key)) {
+                return hotKey.getEstimatedQps();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Vrai si la clé faisait partie du top avec au moins {@code minQps} lectures par seconde,
+     * ex. pour décider de l'épingler localement ou de la précharger
+     */
+    public boolean isHot(String cacheName, String key, double minQps) {
+        return estimatedQps(cacheName, key) >= minQps;
+    }
+
+    /**
+     * Top de chaque cache avec lectures et débit estimés, et lectures totales de la fenêtre
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("windowSeconds", cache.publishedWindowMillis / 1000.0);
+            stats.put("reads", cache.publishedReads);
+            List<Map<String, Object>> keys = new ArrayList<>();
+            for (HotKey hotKey : cache.published) {
+                Map<String, Object> key = new LinkedHashMap<>();
+                key.put("key", hotKey.getKey());
+                key.put("estimatedReads", hotKey.getEstimatedReads());
+                key.put("estimatedQps", Math.round(hotKey.getEstimatedQps() * 10) / 10.0);
+                keys.add(key);
+            }
+            stats.put("hotKeys", keys);
+            statistics.put(name, stats);
+        });
+        return statistics;
+    }
+
+    private CacheHotKeys cacheHotKeys(String cacheName) {
+        CacheHotKeys cache = caches.get(cacheName);
+        return cache != null ? cache : caches.computeIfAbsent(cacheName, name -> new CacheHotKeys(properties));
+    }
+
+    private static final class CacheHotKeys {
+        private final int topK;
+        private final CountMinSketch sketch;
+        private final Map<String, Long> top = new ConcurrentHashMap<>();
+        private final LongAdder reads = new LongAdder();
+        // Plus petit compteur du top quand il est plein : en deçà, une clé ne peut pas y entrer
+        private volatile long threshold;
+        private long windowStart = System.currentTimeMillis();
+        private volatile List<HotKey> published = List.of();
+        private volatile long publishedWindowMillis;
+        private volatile long publishedReads;
+
+        private CacheHotKeys(CacheFlowProperties.HotKeys properties) {
+            this.topK = Math.max(1, properties.getTopK());
+            this.sketch = new CountMinSketch(properties.getSketchDepth(), properties.getSketchWidth());
+        }
+
+        private void record(String key) {
+            reads.increment();
+            long estimate = sketch.add(key);
+            if (top.computeIfPresent(key, (k, current) -> Math.max(current, estimate)) != null
+                    || estimate <= threshold) {
+                return;
+            }
+            synchronized (this) {
+                if (top.size() < topK) {
+                    top.put(key, estimate);
+                } else {
+                    // K reste petit : un parcours linéaire vaut un tas sans son coût de mise à jour
+                    Map.Entry<String, Long> coldest = coldest();
+                    if (coldest == null || estimate <= coldest.getValue()) {
+                        threshold = coldest != null ? coldest.getValue() : 0;
+                        return;
+                    }
+                    top.remove(coldest.getKey());
+                    top.put(key, estimate);
+                }
+                Map.Entry<String, Long> coldest = coldest();
+                threshold = top.size() < topK || coldest == null ? 0 : coldest.getValue();
+            }
+        }
+
+        private Map.Entry<String, Long> coldest() {
+            Map.Entry<String, Long> coldest = null;
+            for (Map.Entry<String, Long> entry : top.entrySet()) {
+                if (coldest == null || entry.getValue() < coldest.getValue()) {
+                    coldest = entry;
+                }
+            }
+            return coldest;
+        }
+
+        private synchronized void rotate(long now) {
+            long elapsed = Math.max(1, now - windowStart);
+            List<HotKey> hotKeys = new ArrayList<>(top.size());
+            top.forEach((key, estimate) -> hotKeys.add(new HotKey(key, estimate, estimate * 1000.0 / elapsed)));
+            hotKeys.sort(Comparator.comparingLong(HotKey::getEstimatedReads).reversed());
+            published = List.copyOf(hotKeys);
+            publishedWindowMillis = elapsed;
+            publishedReads = reads.sumThenReset();
+            top.clear();
+            sketch.reset();
+            threshold = 0;
+            windowStart = now;
+        }
+    }
+
+    /**
+     * Clé du top d'une fenêtre : lectures estimées (jamais sous-estimées) et débit correspondant
+     */
+    public static final class HotKey {
+        private final String key;
+        private final long estimatedReads;
+        private final double estimatedQps;
+
+        HotKey(String key, long estimatedReads, double estimatedQps) {
+            this.key = key;
+            this.estimatedReads = estimatedReads;
+            this.estimatedQps = estimatedQps;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getEstimatedReads() {
+            return estimatedReads;
+        }
+
+        public double getEstimatedQps() {
+            return estimatedQps;
+        }
+    }
+}
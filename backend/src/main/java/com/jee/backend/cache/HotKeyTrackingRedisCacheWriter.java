@@ -0,0 +1,135 @@
+package com.jee.backend.cache;
+
+import org.springframework.data.redis.cache.CacheKeyPrefix;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * RedisCacheWriter qui compte chaque lecture (get, chargement synchronisé, retrieve) dans le {@link HotKeyTracker}.
+ * La clé est comptée sans son préfixe ("weather::3::paris" devient "paris"), comme dans le cache local,
+ * pour que les lectures servies par les deux niveaux s'additionnent.
+ */
+public class HotKeyTrackingRedisCacheWriter implements BatchRedisCacheWriter {
+
+    private final RedisCacheWriter delegate;
+    private final HotKeyTracker tracker;
+    private final CacheKeyPrefix keyPrefix;
+
+    public HotKeyTrackingRedisCacheWriter(RedisCacheWriter delegate, HotKeyTracker tracker, CacheKeyPrefix keyPrefix) {
+        this.delegate = delegate;
+        this.tracker = tracker;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        delegate.put(name, key, value, ttl);
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.store(name, key, value, ttl);
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.putIfAbsent(name, key, value, ttl);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Supplier<byte[]> valueLoader, Duration ttl, boolean timeToIdleEnabled) {
+        record(name, key);
+        return delegate.get(name, key, valueLoader, ttl, timeToIdleEnabled);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        record(name, key);
+        return delegate.get(name, key);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        record(name, key);
+        return delegate.get(name, key, ttl);
+    }
+
+    @Override
+    public List<byte[]> getAll(String name, List<byte[]> keys) {
+        keys.forEach(key -> record(name, key));
+        return BatchRedisCacheWriter.getAll(delegate, name, keys);
+    }
+
+    @Override
+    public List<Boolean> putAllIfAbsent(String name, List<Entry> entries) {
+        return BatchRedisCacheWriter.putAllIfAbsent(delegate, name, entries);
+    }
+
+    @Override
+    public void putAll(String name, List<Entry> entries) {
+        BatchRedisCacheWriter.putAll(delegate, name, entries);
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        record(name, key);
+        return delegate.retrieve(name, key, ttl);
+    }
+
+    @Override
+    public void evict(String name, byte[] key) {
+        delegate.evict(name, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(String name, byte[] key) {
+        return delegate.evictIfPresent(name, key);
+    }
+
+    @Override
+    public void clear(String name, byte[] pattern) {
+        delegate.clear(name, pattern);
+    }
+
+    @Override
+    public boolean invalidate(String name, byte[] pattern) {
+        return delegate.invalidate(name, pattern);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+
+    @Override
+    public void clearStatistics(String cacheName) {
+        delegate.clearStatistics(cacheName);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector statisticsCollector) {
+        return new HotKeyTrackingRedisCacheWriter(delegate.withStatisticsCollector(statisticsCollector), tracker,
+                keyPrefix);
+    }
+
+    private void record(String name, byte[] key) {
+        if (!tracker.isEnabled()) {
+            return;
+        }
+        String redisKey = new String(key, StandardCharsets.UTF_8);
+        String prefix = keyPrefix.compute(name);
+        tracker.record(name, redisKey.startsWith(prefix) ? redisKey.substring(prefix.length()) : redisKey);
+    }
+}
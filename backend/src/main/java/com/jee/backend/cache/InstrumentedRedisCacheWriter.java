@@ -0,0 +1,310 @@
+package com.jee.backend.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * RedisCacheWriter placé en tête de la chaîne, qui mesure chaque opération avec Micrometer, par nom de cache :
+ * hits, misses, puts, évictions, vidages, taille des valeurs sérialisées (avant compression) et latences
+ * get/put/clear (mget/mput pour les opérations groupées). Toutes les opérations sont transmises à la chaîne.
+ *
+ * Les meters sont exposés par l'actuator (/actuator/metrics/cacheflow.cache.*). Le log par clé n'est émis
+ * qu'en DEBUG et pour une fraction des opérations (cacheflow.metrics.key-log-sample-rate, 0 par défaut) :
+ * la clé n'est décodée que pour les opérations échantillonnées.
+ */
+public class InstrumentedRedisCacheWriter implements BatchRedisCacheWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstrumentedRedisCacheWriter.class);
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final RedisCacheWriter delegate;
+    private final MeterRegistry meterRegistry;
+    private final double keyLogSampleRate;
+    private final Map<String, CacheMeters> meters;
+
+    public InstrumentedRedisCacheWriter(RedisCacheWriter delegate, MeterRegistry meterRegistry, double keyLogSampleRate) {
+        this(delegate, meterRegistry, keyLogSampleRate, new ConcurrentHashMap<>());
+    }
+
+    private InstrumentedRedisCacheWriter(RedisCacheWriter delegate, MeterRegistry meterRegistry, double keyLogSampleRate,
+                                         Map<String, CacheMeters> meters) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.keyLogSampleRate = keyLogSampleRate;
+        this.meters = meters;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        CacheMeters cacheMeters = metersFor(name);
+        long start = System.nanoTime();
+        byte[] value = delegate.get(name, key);
+        cacheMeters.getLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        recordLookup(cacheMeters, name, key, value);
+        return value;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        CacheMeters cacheMeters = metersFor(name);
+        long start = System.nanoTime();
+        byte[] value = delegate.get(name, key, ttl);
+        cacheMeters.getLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        recordLookup(cacheMeters, name, key, value);
+        return value;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Supplier<byte[]> valueLoader, Duration ttl, boolean timeToIdleEnabled) {
+        // Chargement synchronisé (sync = true) : miss si le chargeur s'exécute ; sa durée n'entre pas dans la latence get
+        CacheMeters cacheMeters = metersFor(name);
+        boolean[] loaded = new boolean[1];
+        long start = System.nanoTime();
+        byte[] value = delegate.get(name, key, () -> {
+            loaded[0] = true;
+            byte[] loadedValue = valueLoader.get();
+            recordPut(cacheMeters, name, key, loadedValue);
+            return loadedValue;
+        }, ttl, timeToIdleEnabled);
+        if (loaded[0]) {
+            cacheMeters.misses.increment();
+            logSampled("MISS", name, key);
+        } else {
+            cacheMeters.getLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            recordLookup(cacheMeters, name, key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public List<byte[]> getAll(String name, List<byte[]> keys) {
+        // Un hit ou un miss par clé ; la latence est celle du lot entier, mesurée à part
+        CacheMeters cacheMeters = metersFor(name);
+        long start = System.nanoTime();
+        List<byte[]> values = BatchRedisCacheWriter.getAll(delegate, name, keys);
+        cacheMeters.batchGetLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        for (int i = 0; i < keys.size(); i++) {
+            recordLookup(cacheMeters, name, keys.get(i), values.get(i));
+        }
+        return values;
+    }
+
+    @Override
+    public List<Boolean> putAllIfAbsent(String name, List<Entry> entries) {
+        CacheMeters cacheMeters = metersFor(name);
+        long start = System.nanoTime();
+        List<Boolean> stored = BatchRedisCacheWriter.putAllIfAbsent(delegate, name, entries);
+        cacheMeters.batchPutLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        for (int i = 0; i < entries.size(); i++) {
+            if (stored.get(i)) {
+                recordPut(cacheMeters, name, entries.get(i).getKey(), entries.get(i).getValue());
+            }
+        }
+        return stored;
+    }
+
+    @Override
+    public void putAll(String name, List<Entry> entries) {
+        CacheMeters cacheMeters = metersFor(name);
+        long start = System.nanoTime();
+        BatchRedisCacheWriter.putAll(delegate, name, entries);
+        cacheMeters.batchPutLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        for (Entry entry : entries) {
+            recordPut(cacheMeters, name, entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        CacheMeters cacheMeters = metersFor(name);
+        long start = System.nanoTime();
+        return delegate.retrieve(name, key, ttl).whenComplete((value, error) -> {
+            if (error == null) {
+                cacheMeters.getLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                recordLookup(cacheMeters, name, key, value);
+            }
+        });
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        CacheMeters cacheMeters = metersFor(name);
+        long start = System.nanoTime();
+        delegate.put(name, key, value, ttl);
+        cacheMeters.putLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        recordPut(cacheMeters, name, key, value);
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        CacheMeters cacheMeters = metersFor(name);
+        long start = System.nanoTime();
+        return delegate.store(name, key, value, ttl).whenComplete((ignored, error) -> {
+            if (error == null) {
+                cacheMeters.putLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                recordPut(cacheMeters, name, key, value);
+            }
+        });
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        CacheMeters cacheMeters = metersFor(name);
+        long start = System.nanoTime();
+        byte[] existing = delegate.putIfAbsent(name, key, value, ttl);
+        cacheMeters.putLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (existing == null) {
+            recordPut(cacheMeters, name, key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(String name, byte[] key) {
+        // Par la chaîne : les writers inférieurs (budgets) voient aussi les suppressions
+        delegate.evict(name, key);
+        metersFor(name).evictions.increment();
+        logSampled("EVICT", name, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(String name, byte[] key) {
+        boolean evicted = delegate.evictIfPresent(name, key);
+        if (evicted) {
+            metersFor(name).evictions.increment();
+            logSampled("EVICT", name, key);
+        }
+        return evicted;
+    }
+
+    @Override
+    public void clear(String name, byte[] pattern) {
+        // Par la chaîne : SCAN + UNLINK en fin de chaîne, les writers inférieurs voient aussi le vidage
+        CacheMeters cacheMeters = metersFor(name);
+        long start = System.nanoTime();
+        delegate.clear(name, pattern);
+        cacheMeters.clearLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        cacheMeters.clears.increment();
+    }
+
+    @Override
+    public boolean invalidate(String name, byte[] pattern) {
+        CacheMeters cacheMeters = metersFor(name);
+        long start = System.nanoTime();
+        boolean invalidated = delegate.invalidate(name, pattern);
+        cacheMeters.clearLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        cacheMeters.clears.increment();
+        return invalidated;
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+
+    @Override
+    public void clearStatistics(String cacheName) {
+        delegate.clearStatistics(cacheName);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector statisticsCollector) {
+        return new InstrumentedRedisCacheWriter(delegate.withStatisticsCollector(statisticsCollector), meterRegistry,
+                keyLogSampleRate, meters);
+    }
+
+    private void recordLookup(CacheMeters cacheMeters, String name, byte[] key, byte[] value) {
+        if (value != null) {
+            cacheMeters.hits.increment();
+            logSampled("HIT", name, key);
+        } else {
+            cacheMeters.misses.increment();
+            logSampled("MISS", name, key);
+        }
+    }
+
+    private void recordPut(CacheMeters cacheMeters, String name, byte[] key, byte[] value) {
+        cacheMeters.puts.increment();
+        if (value != null) {
+            cacheMeters.valueSize.record(value.length);
+        }
+        logSampled("PUT", name, key);
+    }
+
+    private void logSampled(String operation, String name, byte[] key) {
+        if (keyLogSampleRate > 0 && logger.isDebugEnabled()
+                && ThreadLocalRandom.current().nextDouble() < keyLogSampleRate) {
+            logger.debug("Cache {} - Cache: {}, Key: {}", operation, name, new String(key, StandardCharsets.UTF_8));
+        }
+    }
+
+    private CacheMeters metersFor(String name) {
+        CacheMeters cacheMeters = meters.get(name);
+        return cacheMeters != null ? cacheMeters : meters.computeIfAbsent(name, cacheName -> new CacheMeters(meterRegistry, cacheName));
+    }
+
+    /**
+     * Meters d'un cache, créés une fois puis réutilisés pour éviter la recherche dans le registre à chaque opération
+     */
+    private static final class CacheMeters {
+        private final Counter hits;
+        private final Counter misses;
+        private final Counter puts;
+        private final Counter evictions;
+        private final Counter clears;
+        private final DistributionSummary valueSize;
+        private final Timer getLatency;
+        private final Timer putLatency;
+        private final Timer batchGetLatency;
+        private final Timer batchPutLatency;
+        private final Timer clearLatency;
+
+        private CacheMeters(MeterRegistry registry, String cacheName) {
+            hits = Counter.builder("cacheflow.cache.gets").tag("cache", cacheName).tag("result", "hit")
+                    .description("Lectures Redis ayant trouvé une valeur").register(registry);
+            misses = Counter.builder("cacheflow.cache.gets").tag("cache", cacheName).tag("result", "miss")
+                    .description("Lectures Redis sans valeur").register(registry);
+            puts = Counter.builder("cacheflow.cache.puts").tag("cache", cacheName)
+                    .description("Écritures Redis").register(registry);
+            evictions = Counter.builder("cacheflow.cache.evictions").tag("cache", cacheName)
+                    .description("Clés supprimées par éviction").register(registry);
+            clears = Counter.builder("cacheflow.cache.clears").tag("cache", cacheName)
+                    .description("Vidages complets du cache").register(registry);
+            valueSize = DistributionSummary.builder("cacheflow.cache.value.size").tag("cache", cacheName)
+                    .baseUnit("bytes").description("Taille des valeurs sérialisées, avant compression")
+                    .publishPercentiles(PERCENTILES).register(registry);
+            getLatency = Timer.builder("cacheflow.cache.latency").tag("cache", cacheName).tag("operation", "get")
+                    .publishPercentiles(PERCENTILES).register(registry);
+            putLatency = Timer.builder("cacheflow.cache.latency").tag("cache", cacheName).tag("operation", "put")
+                    .publishPercentiles(PERCENTILES).register(registry);
+            batchGetLatency = Timer.builder("cacheflow.cache.latency").tag("cache", cacheName).tag("operation", "mget")
+                    .publishPercentiles(PERCENTILES).register(registry);
+            batchPutLatency = Timer.builder("cacheflow.cache.latency").tag("cache", cacheName).tag("operation", "mput")
+                    .publishPercentiles(PERCENTILES).register(registry);
+            clearLatency = Timer.builder("cacheflow.cache.latency").tag("cache", cacheName).tag("operation", "clear")
+                    .publishPercentiles(PERCENTILES).register(registry);
+        }
+    }
+}
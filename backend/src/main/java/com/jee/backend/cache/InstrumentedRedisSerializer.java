@@ -0,0 +1,66 @@
+package com.jee.backend.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Décorateur qui mesure la taille des entrées et le temps d'encodage/décodage d'un sérialiseur
+ */
+public class InstrumentedRedisSerializer implements RedisSerializer<Object> {
+
+    private final RedisSerializer<Object> delegate;
+    private final SerializationFormat format;
+    private final LongAdder serializeCount = new LongAdder();
+    private final LongAdder serializedBytes = new LongAdder();
+    private final LongAdder serializeNanos = new LongAdder();
+    private final LongAdder deserializeCount = new LongAdder();
+    private final LongAdder deserializedBytes = new LongAdder();
+    private final LongAdder deserializeNanos = new LongAdder();
+
+    public InstrumentedRedisSerializer(RedisSerializer<Object> delegate, SerializationFormat format) {
+        this.delegate = delegate;
+        this.format = format;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        long start = System.nanoTime();
+        byte[] bytes = delegate.serialize(value);
+        serializeNanos.add(System.nanoTime() - start);
+        serializeCount.increment();
+        serializedBytes.add(bytes != null ? bytes.length : 0);
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        long start = System.nanoTime();
+        Object value = delegate.deserialize(bytes);
+        deserializeNanos.add(System.nanoTime() - start);
+        deserializeCount.increment();
+        deserializedBytes.add(bytes != null ? bytes.length : 0);
+        return value;
+    }
+
+    public SerializationFormat getFormat() {
+        return format;
+    }
+
+    public Map<String, Object> getStatistics() {
+        long writes = serializeCount.sum();
+        long reads = deserializeCount.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("format", format.name().toLowerCase());
+        stats.put("writes", writes);
+        stats.put("reads", reads);
+        stats.put("avgBytesPerEntry", writes > 0 ? serializedBytes.sum() / writes : 0);
+        stats.put("avgBytesPerRead", reads > 0 ? deserializedBytes.sum() / reads : 0);
+        stats.put("avgSerializeMicros", writes > 0 ? serializeNanos.sum() / writes / 1000.0 : 0.0);
+        stats.put("avgDeserializeMicros", reads > 0 ? deserializeNanos.sum() / reads / 1000.0 : 0.0);
+        return stats;
+    }
+}
@@ -0,0 +1,145 @@
+package com.jee.backend.cache;
+
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * RedisCacheWriter qui applique le {@link TtlJitter} à chaque écriture (put, store, putIfAbsent, écriture
+ * groupée et chargement synchronisé), avant le bail de reconstruction et l'écriture Redis.
+ */
+public class JitteringRedisCacheWriter implements BatchRedisCacheWriter {
+
+    private final RedisCacheWriter delegate;
+    private final TtlJitter jitter;
+
+    public JitteringRedisCacheWriter(RedisCacheWriter delegate, TtlJitter jitter) {
+        this.delegate = delegate;
+        this.jitter = jitter;
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        delegate.put(name, key, value, jitter.apply(name, ttl));
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.store(name, key, value, jitter.apply(name, ttl));
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.putIfAbsent(name, key, value, jitter.apply(name, ttl));
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Supplier<byte[]> valueLoader, Duration ttl, boolean timeToIdleEnabled) {
+        if (timeToIdleEnabled) {
+            // Le TTL sert aussi à prolonger l'entrée à chaque lecture : pas de jitter
+            return delegate.get(name, key, valueLoader, ttl, true);
+        }
+        // L'écriture n'est comptée que si le chargeur s'exécute : un hit n'est pas une écriture
+        Duration jittered = jitter.draw(name, ttl);
+        return delegate.get(name, key, () -> {
+            byte[] value = valueLoader.get();
+            jitter.record(name, jittered);
+            return value;
+        }, jittered, false);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        return delegate.get(name, key);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        return delegate.get(name, key, ttl);
+    }
+
+    @Override
+    public List<byte[]> getAll(String name, List<byte[]> keys) {
+        return BatchRedisCacheWriter.getAll(delegate, name, keys);
+    }
+
+    @Override
+    public List<Boolean> putAllIfAbsent(String name, List<Entry> entries) {
+        // Un TTL tiré par entrée : les clés écrites ensemble n'expirent pas ensemble ;
+        // seules les entrées réellement écrites sont comptées
+        List<Entry> jittered = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            jittered.add(entry.withTtl(jitter.draw(name, entry.getTtl())));
+        }
+        List<Boolean> stored = BatchRedisCacheWriter.putAllIfAbsent(delegate, name, jittered);
+        for (int i = 0; i < stored.size(); i++) {
+            if (stored.get(i)) {
+                jitter.record(name, jittered.get(i).getTtl());
+            }
+        }
+        return stored;
+    }
+
+    @Override
+    public void putAll(String name, List<Entry> entries) {
+        List<Entry> jittered = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            jittered.add(entry.withTtl(jitter.draw(name, entry.getTtl())));
+        }
+        BatchRedisCacheWriter.putAll(delegate, name, jittered);
+        for (Entry entry : jittered) {
+            jitter.record(name, entry.getTtl());
+        }
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        return delegate.retrieve(name, key, ttl);
+    }
+
+    @Override
+    public void evict(String name, byte[] key) {
+        delegate.evict(name, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(String name, byte[] key) {
+        return delegate.evictIfPresent(name, key);
+    }
+
+    @Override
+    public void clear(String name, byte[] pattern) {
+        delegate.clear(name, pattern);
+    }
+
+    @Override
+    public boolean invalidate(String name, byte[] pattern) {
+        return delegate.invalidate(name, pattern);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+
+    @Override
+    public void clearStatistics(String cacheName) {
+        delegate.clearStatistics(cacheName);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector statisticsCollector) {
+        return new JitteringRedisCacheWriter(delegate.withStatisticsCollector(statisticsCollector), jitter);
+    }
+}
@@ -0,0 +1,171 @@
+package com.jee.backend.cache;
+
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * RedisCacheWriter qui n'autorise qu'un seul nœud du cluster à reconstruire une clé manquante.
+ *
+ * Sur un miss avec chargeur (@Cacheable(sync = true)), le nœud qui obtient le bail {@link CacheRebuildLease}
+ * charge la valeur et l'écrit sous fencing. Les autres interrogent Redis à intervalle régulier jusqu'à ce que
+ * la valeur apparaisse ; passé le délai d'attente, ils chargent eux-mêmes pour ne pas bloquer l'appelant.
+ */
+public class LeasingRedisCacheWriter implements BatchRedisCacheWriter {
+
+    private final RedisCacheWriter delegate;
+    private final CacheRebuildLease lease;
+
+    public LeasingRedisCacheWriter(RedisCacheWriter delegate, CacheRebuildLease lease) {
+        this.delegate = delegate;
+        this.lease = lease;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Supplier<byte[]> valueLoader, Duration ttl, boolean timeToIdleEnabled) {
+        if (!lease.isEnabledFor(name)) {
+            return delegate.get(name, key, valueLoader, ttl, timeToIdleEnabled);
+        }
+        byte[] cached = read(name, key, ttl, timeToIdleEnabled);
+        if (cached != null) {
+            return cached;
+        }
+        long token = lease.tryAcquire(name, key);
+        if (token > 0) {
+            return rebuild(name, key, token, valueLoader, ttl);
+        }
+        long deadline = System.nanoTime() + lease.getWaitTimeout().toNanos();
+        while (System.nanoTime() - deadline < 0) {
+            try {
+                Thread.sleep(lease.getPollInterval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            cached = read(name, key, ttl, timeToIdleEnabled);
+            if (cached != null) {
+                lease.recordServedByOtherNode(name);
+                return cached;
+            }
+            // Le détenteur a pu échouer et libérer le bail : on retente de le prendre
+            token = lease.tryAcquire(name, key);
+            if (token > 0) {
+                return rebuild(name, key, token, valueLoader, ttl);
+            }
+        }
+        lease.recordWaitTimeout(name);
+        byte[] value = valueLoader.get();
+        delegate.put(name, key, value, ttl);
+        return value;
+    }
+
+    private byte[] rebuild(String name, byte[] key, long token, Supplier<byte[]> valueLoader, Duration ttl) {
+        byte[] value;
+        try {
+            value = valueLoader.get();
+        } catch (RuntimeException | Error e) {
+            lease.release(key, token);
+            throw e;
+        }
+        // Refusée si le bail a expiré : si un autre nœud l'a repris, sa valeur plus récente est conservée ;
+        // sinon la valeur chargée est écrite seulement si la clé est toujours absente (SET NX)
+        if (!lease.writeIfHolder(name, key, token, value, ttl)) {
+            delegate.putIfAbsent(name, key, value, ttl);
+        }
+        return value;
+    }
+
+    private byte[] read(String name, byte[] key, Duration ttl, boolean timeToIdleEnabled) {
+        return timeToIdleEnabled ? delegate.get(name, key, ttl) : delegate.get(name, key);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        return delegate.get(name, key);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        return delegate.get(name, key, ttl);
+    }
+
+    @Override
+    public List<byte[]> getAll(String name, List<byte[]> keys) {
+        return BatchRedisCacheWriter.getAll(delegate, name, keys);
+    }
+
+    @Override
+    public List<Boolean> putAllIfAbsent(String name, List<Entry> entries) {
+        return BatchRedisCacheWriter.putAllIfAbsent(delegate, name, entries);
+    }
+
+    @Override
+    public void putAll(String name, List<Entry> entries) {
+        BatchRedisCacheWriter.putAll(delegate, name, entries);
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        return delegate.retrieve(name, key, ttl);
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        delegate.put(name, key, value, ttl);
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.store(name, key, value, ttl);
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.putIfAbsent(name, key, value, ttl);
+    }
+
+    @Override
+    public void evict(String name, byte[] key) {
+        delegate.evict(name, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(String name, byte[] key) {
+        return delegate.evictIfPresent(name, key);
+    }
+
+    @Override
+    public void clear(String name, byte[] pattern) {
+        delegate.clear(name, pattern);
+    }
+
+    @Override
+    public boolean invalidate(String name, byte[] pattern) {
+        return delegate.invalidate(name, pattern);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+
+    @Override
+    public void clearStatistics(String cacheName) {
+        delegate.clearStatistics(cacheName);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector statisticsCollector) {
+        return new LeasingRedisCacheWriter(delegate.withStatisticsCollector(statisticsCollector), lease);
+    }
+}
@@ -0,0 +1,297 @@
+package com.jee.backend.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache local borné pour un nom de cache donné.
+ * Chaque entrée expire après un TTL court afin de ne jamais survivre longtemps à l'entrée Redis.
+ *
+ * En admission {@link NearCacheAdmission#TINYLFU} (W-TinyLFU), une nouvelle entrée entre dans une petite fenêtre
+ * LRU ; à sa sortie de la fenêtre, elle ne remplace l'entrée la moins récente du cache principal que si sa
+ * fréquence de lecture estimée (count-min sketch vieilli par moitié tous les 10 × maxEntries accès) est plus
+ * élevée. Sinon elle est abandonnée : les clés lues une seule fois ne chassent pas les clés réutilisées.
+ * En admission {@link NearCacheAdmission#LRU}, la fenêtre occupe tout le cache (LRU simple).
+ *
+ * Un LRU fantôme (clés et échéances seulement) peut rejouer les mêmes accès pour comparer le taux de hit
+ * obtenu à celui d'un LRU de même taille.
+ *
+ * Un compteur de génération est incrémenté à chaque invalidation : une valeur lue dans Redis
+ * n'est recopiée ici que si aucune invalidation n'est arrivée entre-temps (voir {@link #putIfUnchanged}).
+ */
+public class NearCache {
+
+    private static final int SAMPLE_FACTOR = 10;
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final NearCacheAdmission admission;
+    private final int windowMax;
+    private final int mainMax;
+    private final Map<String, Entry> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Entry> main = new LinkedHashMap<>(16, 0.75f, true);
+    private final CountMinSketch frequencies;
+    private final Map<String, Long> shadowLru;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejectedAdmissions = new LongAdder();
+    private long shadowHits;
+    private long shadowMisses;
+    private long accessesSinceAging;
+    private long generation;
+
+    public NearCache(String name, int maxEntries, Duration ttl) {
+        this(name, maxEntries, ttl, NearCacheAdmission.LRU, 0, false);
+    }
+
+    /**
+     * @param windowRatio part du cache réservée à la fenêtre d'admission (TinyLFU), au moins une entrée
+     * @param shadowLru   rejoue les accès sur un LRU fantôme pour comparer les taux de hit
+     */
+    public NearCache(String name, int maxEntries, Duration ttl, NearCacheAdmission admission, double windowRatio,
+                     boolean shadowLru) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.admission = admission;
+        this.windowMax = admission == NearCacheAdmission.TINYLFU
+                ? Math.min(maxEntries, Math.max(1, (int) (maxEntries * windowRatio)))
+                : maxEntries;
+        this.mainMax = maxEntries - windowMax;
+        // Quatre compteurs par entrée et par ligne : les clés de passage entrent peu en collision avec les clés résidentes
+        this.frequencies = admission == NearCacheAdmission.TINYLFU
+                ? new CountMinSketch(4, Math.max(64, maxEntries * 4))
+                : null;
+        this.shadowLru = shadowLru ? new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > NearCache.this.maxEntries;
+            }
+        } : null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Retourne la valeur locale, ou null si absente ou expirée
+     */
+    public synchronized Object get(String key) {
+        long now = System.nanoTime();
+        recordAccess(key, now);
+        Entry entry = window.get(key);
+        Map<String, Entry> segment = window;
+        if (entry == null) {
+            entry = main.get(key);
+            segment = main;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt - now <= 0) {
+            segment.remove(key);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(String key, Object value) {
+        generation++;
+        insert(key, new Entry(value, System.nanoTime() + ttlNanos));
+    }
+
+    /**
+     * N'insère la valeur que si aucune invalidation n'a eu lieu depuis la lecture de {@code expectedGeneration}
+     */
+    public synchronized boolean putIfUnchanged(String key, Object value, long expectedGeneration) {
+        if (generation != expectedGeneration) {
+            return false;
+        }
+        insert(key, new Entry(value, System.nanoTime() + ttlNanos));
+        return true;
+    }
+
+    /**
+     * Entrée rechargée depuis un instantané : n'écrase pas une valeur plus récente et n'expire jamais
+     * après l'échéance de l'entrée Redis d'origine
+     */
+    public synchronized boolean restore(String key, Object value, Duration remainingTtl) {
+        if (window.containsKey(key) || main.containsKey(key) || remainingTtl.isNegative() || remainingTtl.isZero()) {
+            return false;
+        }
+        insert(key, new Entry(value, System.nanoTime() + Math.min(ttlNanos, remainingTtl.toNanos())));
+        return true;
+    }
+
+    /**
+     * Au plus {@code limit} entrées non expirées, par fréquence estimée décroissante puis de la plus récemment lue
+     * à la plus ancienne (récence seule en LRU)
+     */
+    public synchronized List<Map.Entry<String, Object>> hottest(int limit) {
+        long now = System.nanoTime();
+        List<Map.Entry<String, Object>> hottest = new ArrayList<>();
+        // Ordre d'accès : les entrées les plus récemment lues sont en fin de map ; la fenêtre est plus récente
+        collectLive(main, now, hottest);
+        collectLive(window, now, hottest);
+        Collections.reverse(hottest);
+        if (frequencies != null) {
+            // Tri stable : à fréquence égale, l'ordre de récence est conservé
+            hottest.sort(Comparator.comparingLong((Map.Entry<String, Object> entry) ->
+                    frequencies.estimate(entry.getKey())).reversed());
+        }
+        return hottest.size() > limit ? new ArrayList<>(hottest.subList(0, Math.max(0, limit))) : hottest;
+    }
+
+    public synchronized void invalidate(String key) {
+        generation++;
+        window.remove(key);
+        main.remove(key);
+        if (shadowLru != null) {
+            shadowLru.remove(key);
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        window.clear();
+        main.clear();
+        if (shadowLru != null) {
+            shadowLru.clear();
+        }
+    }
+
+    public synchronized int size() {
+        return window.size() + main.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public NearCacheAdmission getAdmission() {
+        return admission;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Entrées sorties de la fenêtre mais refusées par le cache principal, faute d'être assez fréquentes
+     */
+    public long getRejectedAdmissions() {
+        return rejectedAdmissions.sum();
+    }
+
+    public boolean hasShadowLru() {
+        return shadowLru != null;
+    }
+
+    /**
+     * Hits qu'aurait obtenus un LRU de même taille sur les mêmes accès
+     */
+    public synchronized long getShadowLruHits() {
+        return shadowHits;
+    }
+
+    public synchronized long getShadowLruMisses() {
+        return shadowMisses;
+    }
+
+    private void recordAccess(String key, long now) {
+        if (frequencies != null) {
+            frequencies.add(key);
+            if (++accessesSinceAging >= (long) SAMPLE_FACTOR * maxEntries) {
+                frequencies.age();
+                accessesSinceAging /= 2;
+            }
+        }
+        if (shadowLru != null) {
+            Long expiresAt = shadowLru.get(key);
+            if (expiresAt != null && expiresAt - now > 0) {
+                shadowHits++;
+            } else {
+                shadowMisses++;
+                if (expiresAt != null) {
+                    shadowLru.remove(key);
+                }
+            }
+        }
+    }
+
+    private void insert(String key, Entry entry) {
+        if (shadowLru != null) {
+            shadowLru.put(key, entry.expiresAt);
+        }
+        if (main.containsKey(key)) {
+            // Entrée déjà admise : mise à jour sur place
+            main.put(key, entry);
+            return;
+        }
+        window.put(key, entry);
+        while (window.size() > windowMax) {
+            Iterator<Map.Entry<String, Entry>> eldest = window.entrySet().iterator();
+            Map.Entry<String, Entry> candidate = eldest.next();
+            eldest.remove();
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    /**
+     * Candidat sorti de la fenêtre : admis si le cache principal a de la place, si sa victime a expiré
+     * ou si le candidat est plus fréquent qu'elle
+     */
+    private void admit(String key, Entry candidate) {
+        if (mainMax <= 0) {
+            return;
+        }
+        if (main.size() >= mainMax) {
+            Map.Entry<String, Entry> victim = main.entrySet().iterator().next();
+            boolean victimExpired = victim.getValue().expiresAt - System.nanoTime() <= 0;
+            if (!victimExpired && frequencies.estimate(key) <= frequencies.estimate(victim.getKey())) {
+                rejectedAdmissions.increment();
+                return;
+            }
+            main.remove(victim.getKey());
+        }
+        main.put(key, candidate);
+    }
+
+    private static void collectLive(Map<String, Entry> segment, long now, List<Map.Entry<String, Object>> target) {
+        segment.forEach((key, entry) -> {
+            if (entry.expiresAt - now > 0) {
+                target.add(Map.entry(key, entry.value));
+            }
+        });
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long expiresAt;
+
+        private Entry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.jee.backend.cache;
+
+/**
+ * Politique d'admission et d'éviction d'un {@link NearCache}
+ */
+public enum NearCacheAdmission {
+    /**
+     * LRU simple : toute nouvelle entrée évince la moins récemment lue
+     */
+    LRU,
+    /**
+     * W-TinyLFU : une petite fenêtre LRU, puis une entrée ne remplace une entrée résidente que si sa fréquence
+     * estimée est plus élevée ; les clés lues une seule fois ne polluent pas le cache
+     */
+    TINYLFU
+}
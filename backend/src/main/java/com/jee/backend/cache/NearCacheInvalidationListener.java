@@ -0,0 +1,34 @@
+package com.jee.backend.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+/**
+ * Applique au cache local les invalidations publiées par les autres nœuds
+ */
+public class NearCacheInvalidationListener implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearCacheInvalidationListener.class);
+
+    private final TwoTierCacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+
+    public NearCacheInvalidationListener(TwoTierCacheManager cacheManager, ObjectMapper objectMapper) {
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            CacheInvalidationMessage invalidation =
+                    objectMapper.readValue(message.getBody(), CacheInvalidationMessage.class);
+            cacheManager.applyRemoteInvalidation(invalidation);
+        } catch (Exception e) {
+            logger.warn("Ignoring malformed cache invalidation message: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.jee.backend.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * RedisCacheWriter placé en fin de chaîne, devant le writer Spring : les opérations unitaires lui sont
+ * transmises telles quelles, les lots sont envoyés en un seul MGET, en un seul pipeline de SET NX PX ou en une seule transaction de SET PX
+ * (un aller-retour réseau par lot au lieu d'un par clé). Les vidages parcourent le keyspace par SCAN et
+ * suppriment par lots bornés d'UNLINK, au lieu du KEYS + DEL du writer Spring.
+ */
+public class PipeliningRedisCacheWriter implements BatchRedisCacheWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipeliningRedisCacheWriter.class);
+
+    private final RedisCacheWriter delegate;
+    private final RedisConnectionFactory connectionFactory;
+    private final int clearBatchSize;
+
+    public PipeliningRedisCacheWriter(RedisCacheWriter delegate, RedisConnectionFactory connectionFactory,
+                                      int clearBatchSize) {
+        this.delegate = delegate;
+        this.connectionFactory = connectionFactory;
+        this.clearBatchSize = clearBatchSize;
+    }
+
+    @Override
+    public List<byte[]> getAll(String name, List<byte[]> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        List<byte[]> values;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            values = connection.stringCommands().mGet(keys.toArray(new byte[0][]));
+        }
+        // Liste copiée : les valeurs absentes sont null et la liste peut être modifiée par les writers appelants
+        List<byte[]> result = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            result.add(values != null && i < values.size() ? values.get(i) : null);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Boolean> putAllIfAbsent(String name, List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        List<Object> replies;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            for (Entry entry : entries) {
+                connection.stringCommands().set(entry.getKey(), entry.getValue(), expiration(entry.getTtl()),
+                        RedisStringCommands.SetOption.ifAbsent());
+            }
+            replies = connection.closePipeline();
+        }
+        List<Boolean> stored = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            stored.add(i < replies.size() && Boolean.TRUE.equals(replies.get(i)));
+        }
+        return stored;
+    }
+
+    @Override
+    public void putAll(String name, List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            // MULTI/EXEC dans le pipeline : un seul aller-retour, et les valeurs sont remplacées toutes ensemble
+            connection.openPipeline();
+            connection.multi();
+            for (Entry entry : entries) {
+                connection.stringCommands().set(entry.getKey(), entry.getValue(), expiration(entry.getTtl()),
+                        RedisStringCommands.SetOption.upsert());
+            }
+            connection.exec();
+            connection.closePipeline();
+        }
+    }
+
+    private static Expiration expiration(Duration ttl) {
+        return ttl != null && !ttl.isZero() && !ttl.isNegative() ? Expiration.from(ttl) : Expiration.persistent();
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        return delegate.get(name, key);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        return delegate.get(name, key, ttl);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Supplier<byte[]> valueLoader, Duration ttl, boolean timeToIdleEnabled) {
+        return delegate.get(name, key, valueLoader, ttl, timeToIdleEnabled);
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        return delegate.retrieve(name, key, ttl);
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        delegate.put(name, key, value, ttl);
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.store(name, key, value, ttl);
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.putIfAbsent(name, key, value, ttl);
+    }
+
+    @Override
+    public void evict(String name, byte[] key) {
+        delegate.evict(name, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(String name, byte[] key) {
+        return delegate.evictIfPresent(name, key);
+    }
+
+    @Override
+    public void clear(String name, byte[] pattern) {
+        unlinkMatching(name, pattern);
+    }
+
+    @Override
+    public boolean invalidate(String name, byte[] pattern) {
+        return unlinkMatching(name, pattern) > 0;
+    }
+
+    /**
+     * SCAN + UNLINK par lots : ne bloque pas Redis quelle que soit la taille du keyspace
+     */
+    private long unlinkMatching(String name, byte[] pattern) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            RedisKeyScanner.ClearResult result = RedisKeyScanner.unlinkMatching(connection, pattern, clearBatchSize);
+            logger.info("Cache CLEAR - Cache: {}, Pattern: {}, Keys deleted: {}, Duration: {} ms",
+                    name, new String(pattern, StandardCharsets.UTF_8), result.getKeysDeleted(),
+                    result.getDuration().toMillis());
+            return result.getKeysDeleted();
+        }
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+
+    @Override
+    public void clearStatistics(String cacheName) {
+        delegate.clearStatistics(cacheName);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector statisticsCollector) {
+        return new PipeliningRedisCacheWriter(delegate.withStatisticsCollector(statisticsCollector), connectionFactory,
+                clearBatchSize);
+    }
+}
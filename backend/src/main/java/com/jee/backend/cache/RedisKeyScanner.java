@@ -0,0 +1,68 @@
+package com.jee.backend.cache;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Suppression incrémentale des clés correspondant à un pattern.
+ *
+ * Le keyspace est parcouru avec des curseurs SCAN et les clés sont supprimées par lots bornés avec UNLINK
+ * (libération mémoire en arrière-plan), au lieu d'un KEYS suivi d'un DEL géant qui bloque Redis.
+ */
+public final class RedisKeyScanner {
+
+    private RedisKeyScanner() {
+    }
+
+    public static ClearResult unlinkMatching(RedisConnection connection, byte[] pattern, int batchSize) {
+        long start = System.nanoTime();
+        long deleted = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(batchSize).build();
+        List<byte[]> batch = new ArrayList<>(batchSize);
+        try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= batchSize) {
+                    deleted += unlink(connection, batch);
+                }
+            }
+        }
+        deleted += unlink(connection, batch);
+        return new ClearResult(deleted, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static long unlink(RedisConnection connection, List<byte[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Long removed = connection.keyCommands().unlink(batch.toArray(new byte[0][]));
+        batch.clear();
+        return removed != null ? removed : 0;
+    }
+
+    /**
+     * Nombre de clés supprimées et durée totale du parcours
+     */
+    public static final class ClearResult {
+        private final long keysDeleted;
+        private final Duration duration;
+
+        public ClearResult(long keysDeleted, Duration duration) {
+            this.keysDeleted = keysDeleted;
+            this.duration = duration;
+        }
+
+        public long getKeysDeleted() {
+            return keysDeleted;
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+    }
+}
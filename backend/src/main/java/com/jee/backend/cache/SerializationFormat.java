@@ -0,0 +1,15 @@
+package com.jee.backend.cache;
+
+/**
+ * Format de sérialisation des valeurs d'un cache Redis
+ */
+public enum SerializationFormat {
+    /**
+     * Sérialisation Java standard (descripteurs de classe inclus dans chaque entrée)
+     */
+    JDK,
+    /**
+     * {@link CompactBinaryRedisSerializer}, qui relit aussi les entrées JDK existantes
+     */
+    COMPACT
+}
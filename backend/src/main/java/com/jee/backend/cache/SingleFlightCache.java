@@ -0,0 +1,191 @@
+package com.jee.backend.cache;
+
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Décorateur qui regroupe les chargements concurrents d'une même clé dans la JVM (@Cacheable(sync = true)).
+ *
+ * Le premier appelant qui rate le cache exécute le chargement ; les suivants attendent son résultat
+ * au lieu d'appeler à leur tour l'API météo ou MongoDB. Un appelant qui attend plus que le délai
+ * configuré charge lui-même la valeur.
+ *
+ * Sur le chemin asynchrone (retrieve avec chargeur), les appelants suivants reçoivent le future du premier
+ * chargement au lieu d'en lancer un nouveau ; aucun thread n'est bloqué pendant l'attente.
+ */
+public class SingleFlightCache implements Cache {
+
+    private final Cache delegate;
+    private final long waitTimeoutNanos;
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public SingleFlightCache(Cache delegate, Duration waitTimeout) {
+        this.delegate = delegate;
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        String flightKey = String.valueOf(key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(flightKey, flight);
+        if (leader != null) {
+            coalesced.increment();
+            return (T) await(leader, key, valueLoader);
+        }
+        loads.increment();
+        try {
+            T value = delegate.get(key, valueLoader);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> leader, Object key, Callable<?> valueLoader) {
+        try {
+            return leader.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return delegate.get(key, valueLoader);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            // Même exception que le chargeur : CacheAspectSupport la déballe de la même façon
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return delegate.retrieve(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        // Le chargeur n'est appelé par le délégué qu'après un miss Redis
+        return delegate.retrieve(key, () -> {
+            String flightKey = String.valueOf(key);
+            CompletableFuture<Object> flight = new CompletableFuture<>();
+            CompletableFuture<Object> leader = inFlight.putIfAbsent(flightKey, flight);
+            if (leader != null) {
+                coalesced.increment();
+                return (CompletableFuture<T>) leader;
+            }
+            loads.increment();
+            CompletableFuture<T> load;
+            try {
+                load = valueLoader.get();
+            } catch (RuntimeException | Error e) {
+                inFlight.remove(flightKey, flight);
+                flight.completeExceptionally(e);
+                throw e;
+            }
+            load.whenComplete((value, error) -> {
+                inFlight.remove(flightKey, flight);
+                if (error != null) {
+                    flight.completeExceptionally(error);
+                } else {
+                    flight.complete(value);
+                }
+            });
+            return (CompletableFuture<T>) flight;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+}
@@ -0,0 +1,415 @@
+package com.jee.backend.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Décorateur stale-while-revalidate : TTL souple en plus du TTL Redis (TTL dur).
+ *
+ * Les valeurs sont stockées dans un {@link StampedValue} portant leur date d'écriture. Passé le TTL souple,
+ * la valeur en cache est encore rendue immédiatement et un rafraîchissement est lancé en tâche de fond
+ * (un seul par clé et par nœud). Le TTL dur reste la limite absolue : à son expiration Redis supprime
+ * l'entrée et l'appelant suivant recharge de façon synchrone.
+ *
+ * Avec une {@link EarlyExpirationPolicy}, une lecture peut aussi déclencher un recalcul anticipé avant le
+ * TTL dur : en tâche de fond quand le chargeur est connu (sync = true), sinon en rendant un miss au lecteur
+ * qui recalcule alors lui-même (@Cacheable sans sync).
+ *
+ * Chaque écriture explicite (put, putIfAbsent, évictions, vidage) avance la séquence d'écriture de la clé ;
+ * un rafraîchissement en tâche de fond ne réécrit sa valeur que si cette séquence n'a pas bougé depuis son
+ * lancement, la vérification et l'écriture se faisant sous le même verrou que les écritures.
+ */
+public class StaleWhileRevalidateCache implements Cache {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaleWhileRevalidateCache.class);
+    // Au-delà, le miss n'a pas été suivi de son put (unless, exception, get puis evict) : durée de calcul inconnue
+    private static final long MAX_PENDING_LOAD_NANOS = TimeUnit.SECONDS.toNanos(30);
+    // Verrous et séquences d'écriture répartis par hachage de la clé : taille fixe, quel que soit le nombre de clés
+    private static final int WRITE_STRIPES = 64;
+
+    private final Cache delegate;
+    // Relu à chaque lecture : le TTL souple suit le TTL dur courant (TTL adaptatif)
+    private final Supplier<Duration> softTtl;
+    private final EarlyExpirationPolicy earlyExpiration;
+    private final Executor refreshExecutor;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    // Séquence d'écriture par groupe de clés, lue et avancée sous le verrou du groupe : un rafraîchissement
+    // lancé avant une écriture explicite ne doit pas la remplacer par une donnée plus ancienne
+    private final long[] writeSequences = new long[WRITE_STRIPES];
+    private final Object[] writeLocks = new Object[WRITE_STRIPES];
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder refreshRejected = new LongAdder();
+    private final LongAdder discardedRefreshes = new LongAdder();
+    private final LongAdder earlyRefreshes = new LongAdder();
+    private final LongAdder earlyMisses = new LongAdder();
+    // Début du calcul après un miss sans chargeur : le put qui suit, sur le même thread, en déduit sa durée
+    private final ThreadLocal<PendingLoad> pendingLoad = new ThreadLocal<>();
+
+    public StaleWhileRevalidateCache(Cache delegate, Duration softTtl, Executor refreshExecutor) {
+        this(delegate, () -> softTtl, null, refreshExecutor);
+    }
+
+    /**
+     * @param softTtl TTL souple courant, évalué à chaque lecture, ou null pour n'appliquer que l'expiration anticipée
+     * @param earlyExpiration politique XFetch, ou null
+     */
+    public StaleWhileRevalidateCache(Cache delegate, Supplier<Duration> softTtl, EarlyExpirationPolicy earlyExpiration,
+                                     Executor refreshExecutor) {
+        this.delegate = delegate;
+        this.softTtl = softTtl;
+        this.earlyExpiration = earlyExpiration;
+        this.refreshExecutor = refreshExecutor;
+        for (int i = 0; i < WRITE_STRIPES; i++) {
+            writeLocks[i] = new Object();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object stored = delegate.get(key, () -> stamp(valueLoader));
+        if (stored instanceof StampedValue stamped) {
+            if (isStale(stamped)) {
+                staleHits.increment();
+                scheduleRefresh(key, valueLoader);
+            } else if (expiresEarly(stamped)) {
+                earlyRefreshes.increment();
+                scheduleRefresh(key, valueLoader);
+            }
+            return (T) stamped.getValue();
+        }
+        return (T) stored;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return delegate.retrieve(key, () -> {
+            long start = System.nanoTime();
+            return valueLoader.get().thenApply(value -> (Object) stampLoaded(value, start));
+        }).thenApply(stored -> {
+            if (stored instanceof StampedValue stamped) {
+                if (isStale(stamped)) {
+                    staleHits.increment();
+                    scheduleRefresh(key, () -> valueLoader.get().join());
+                } else if (expiresEarly(stamped)) {
+                    earlyRefreshes.increment();
+                    scheduleRefresh(key, () -> valueLoader.get().join());
+                }
+                return (T) stamped.getValue();
+            }
+            return (T) stored;
+        });
+    }
+
+    boolean isStale(StampedValue stamped) {
+        return softTtl != null && stamped.ageMillis(System.currentTimeMillis()) >= softTtl.get().toMillis();
+    }
+
+    boolean expiresEarly(StampedValue stamped) {
+        return earlyExpiration != null && earlyExpiration.shouldRecompute(stamped, System.currentTimeMillis());
+    }
+
+    private void scheduleRefresh(Object key, Callable<?> valueLoader) {
+        String refreshKey = String.valueOf(key);
+        if (!refreshing.add(refreshKey)) {
+            return;
+        }
+        int stripe = stripe(key);
+        long sequenceAtStart;
+        synchronized (writeLocks[stripe]) {
+            sequenceAtStart = writeSequences[stripe];
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    Object fresh = stamp(valueLoader);
+                    if (fresh != null) {
+                        synchronized (writeLocks[stripe]) {
+                            if (writeSequences[stripe] == sequenceAtStart) {
+                                delegate.put(key, fresh);
+                            } else {
+                                discardedRefreshes.increment();
+                            }
+                        }
+                    }
+                    refreshes.increment();
+                } catch (Exception e) {
+                    // La valeur périmée reste servie jusqu'au TTL dur
+                    refreshFailures.increment();
+                    logger.warn("Background refresh failed - Cache: {}, Key: {}", getName(), key, e);
+                } finally {
+                    refreshing.remove(refreshKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(refreshKey);
+            refreshRejected.increment();
+        }
+    }
+
+    private static Object stamp(Callable<?> valueLoader) throws Exception {
+        long start = System.nanoTime();
+        return stampLoaded(valueLoader.call(), start);
+    }
+
+    private static Object stampLoaded(Object value, long startNanos) {
+        if (value == null) {
+            return null;
+        }
+        long computeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        return new StampedValue(value, System.currentTimeMillis(), computeMillis);
+    }
+
+    private static Object stampNow(Object value) {
+        return value != null ? new StampedValue(value, System.currentTimeMillis(), 0) : null;
+    }
+
+    private static Object unwrapValue(Object stored) {
+        if (stored instanceof ValueWrapper wrapper) {
+            return unwrap(wrapper);
+        }
+        return stored instanceof StampedValue stamped ? stamped.getValue() : stored;
+    }
+
+    private static ValueWrapper unwrap(ValueWrapper wrapper) {
+        if (wrapper != null && wrapper.get() instanceof StampedValue stamped) {
+            return new SimpleValueWrapper(stamped.getValue());
+        }
+        return wrapper;
+    }
+
+    public long getSoftTtlMillis() {
+        return softTtl != null ? softTtl.get().toMillis() : Long.MAX_VALUE;
+    }
+
+    public long getStaleHits() {
+        return staleHits.sum();
+    }
+
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    public long getRefreshFailures() {
+        return refreshFailures.sum();
+    }
+
+    public long getRefreshRejected() {
+        return refreshRejected.sum();
+    }
+
+    /**
+     * Rafraîchissements terminés après une écriture explicite de la même clé (ou d'une clé du même groupe),
+     * abandonnés pour ne pas la remplacer
+     */
+    public long getDiscardedRefreshes() {
+        return discardedRefreshes.sum();
+    }
+
+    public boolean hasSoftTtl() {
+        return softTtl != null;
+    }
+
+    public boolean hasEarlyExpiration() {
+        return earlyExpiration != null;
+    }
+
+    public long getEarlyRefreshes() {
+        return earlyRefreshes.sum();
+    }
+
+    public long getEarlyMisses() {
+        return earlyMisses.sum();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null && wrapper.get() instanceof StampedValue stamped && expiresEarly(stamped)) {
+            // Sans chargeur : le lecteur tiré au sort voit un miss et recalcule, puis réécrit l'entrée
+            earlyMisses.increment();
+            wrapper = null;
+        }
+        if (wrapper == null) {
+            pendingLoad.set(new PendingLoad(key, System.nanoTime()));
+            return null;
+        }
+        return unwrap(wrapper);
+    }
+
+    /**
+     * Lecture sans tirage d'expiration anticipée ni miss enregistré, pour modifier l'entrée en place.
+     * Une entrée ayant dépassé le TTL souple est traitée comme absente : elle doit être rechargée, pas prolongée.
+     */
+    public ValueWrapper peek(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null && wrapper.get() instanceof StampedValue stamped && isStale(stamped)) {
+            return null;
+        }
+        return unwrap(wrapper);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        CompletableFuture<?> result = delegate.retrieve(key);
+        return result != null ? result.thenApply(StaleWhileRevalidateCache::unwrapValue) : null;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        PendingLoad pending = takePendingLoad(key);
+        Object stamped = pending != null && System.nanoTime() - pending.startNanos <= MAX_PENDING_LOAD_NANOS
+                ? stampLoaded(value, pending.startNanos) : stampNow(value);
+        int stripe = stripe(key);
+        synchronized (writeLocks[stripe]) {
+            writeSequences[stripe]++;
+            delegate.put(key, stamped);
+        }
+    }
+
+    /**
+     * Réécrit une entrée modifiée en place : nouvelle date d'écriture, mais temps de calcul de l'entrée remplacée,
+     * pour que l'expiration anticipée continue de s'appliquer jusqu'au prochain rechargement complet
+     */
+    public void replace(Object key, Object value) {
+        takePendingLoad(key);
+        int stripe = stripe(key);
+        synchronized (writeLocks[stripe]) {
+            ValueWrapper current = delegate.get(key);
+            long computeMillis = current != null && current.get() instanceof StampedValue stamped
+                    ? stamped.getComputeMillis() : 0;
+            writeSequences[stripe]++;
+            delegate.put(key, value != null ? new StampedValue(value, System.currentTimeMillis(), computeMillis) : null);
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        takePendingLoad(key);
+        int stripe = stripe(key);
+        synchronized (writeLocks[stripe]) {
+            writeSequences[stripe]++;
+            return unwrap(delegate.putIfAbsent(key, stampNow(value)));
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        takePendingLoad(key);
+        int stripe = stripe(key);
+        synchronized (writeLocks[stripe]) {
+            writeSequences[stripe]++;
+            delegate.evict(key);
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        takePendingLoad(key);
+        int stripe = stripe(key);
+        synchronized (writeLocks[stripe]) {
+            writeSequences[stripe]++;
+            return delegate.evictIfPresent(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        pendingLoad.remove();
+        advanceAllWriteSequences();
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        pendingLoad.remove();
+        advanceAllWriteSequences();
+        return delegate.invalidate();
+    }
+
+    /**
+     * Un rafraîchissement qui vérifie sa séquence après ce point abandonne sa valeur ; un rafraîchissement
+     * qui a déjà écrit voit son entrée supprimée par le vidage qui suit
+     */
+    private void advanceAllWriteSequences() {
+        for (int stripe = 0; stripe < WRITE_STRIPES; stripe++) {
+            synchronized (writeLocks[stripe]) {
+                writeSequences[stripe]++;
+            }
+        }
+    }
+
+    /**
+     * Couche stale-while-revalidate d'un cache rendu par le CacheManager, transactionnel ou non ; null si le cache
+     * n'a ni TTL souple ni expiration anticipée
+     */
+    public static StaleWhileRevalidateCache find(Cache cache) {
+        Cache target = cache instanceof TransactionAwareCacheDecorator decorator ? decorator.getTargetCache() : cache;
+        return target instanceof StaleWhileRevalidateCache staleWhileRevalidate ? staleWhileRevalidate : null;
+    }
+
+    private static int stripe(Object key) {
+        return Math.floorMod(String.valueOf(key).hashCode(), WRITE_STRIPES);
+    }
+
+    /**
+     * Retire du thread courant le miss en attente sur cette clé, s'il y en a un ; les threads des pools de
+     * requêtes sont réutilisés, un miss jamais suivi de son put ne doit pas fausser une écriture ultérieure
+     */
+    private PendingLoad takePendingLoad(Object key) {
+        PendingLoad pending = pendingLoad.get();
+        if (pending == null || !pending.key.equals(key)) {
+            return null;
+        }
+        pendingLoad.remove();
+        return pending;
+    }
+
+    private static final class PendingLoad {
+        private final Object key;
+        private final long startNanos;
+
+        private PendingLoad(Object key, long startNanos) {
+            this.key = key;
+            this.startNanos = startNanos;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.jee.backend.cache;
+
+import java.io.Serializable;
+
+/**
+ * Valeur de cache accompagnée de sa date d'écriture et de la durée de son calcul.
+ *
+ * Stockée telle quelle dans le L1 et dans Redis par {@link StaleWhileRevalidateCache}, qui la déballe
+ * avant de la rendre à l'appelant.
+ */
+public final class StampedValue implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object value;
+    private final long writtenAt;
+    private final long computeMillis;
+
+    public StampedValue(Object value, long writtenAt, long computeMillis) {
+        this.value = value;
+        this.writtenAt = writtenAt;
+        this.computeMillis = computeMillis;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Instant d'écriture en millisecondes epoch (horloge murale, comparable entre nœuds)
+     */
+    public long getWrittenAt() {
+        return writtenAt;
+    }
+
+    public long getComputeMillis() {
+        return computeMillis;
+    }
+
+    public long ageMillis(long now) {
+        return Math.max(0, now - writtenAt);
+    }
+}
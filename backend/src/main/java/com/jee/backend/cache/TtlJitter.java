@@ -0,0 +1,140 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Jitter appliqué au TTL des entrées à l'écriture, pour désynchroniser les expirations de masse.
+ *
+ * Le TTL effectif est tiré uniformément dans [ttl - bande, ttl] : le TTL configuré reste une borne haute,
+ * ce qui préserve le TTL dur du stale-while-revalidate. Les caches en expiration anticipée (XFetch) ne sont
+ * pas jitterés : leurs recalculs sont déjà étalés et visent le TTL nominal. Chaque écriture est comptée dans un histogramme
+ * des expirations à venir par minute, qui rend visibles les cohortes de clés expirant ensemble.
+ */
+public class TtlJitter {
+
+    private final CacheFlowProperties.TtlJitter properties;
+    private final CacheFlowProperties.EarlyExpiration earlyExpiration;
+    private final LongUnaryOperator random;
+    private final Map<String, Statistics> statistics = new ConcurrentHashMap<>();
+
+    public TtlJitter(CacheFlowProperties.TtlJitter properties) {
+        this(properties, new CacheFlowProperties.EarlyExpiration());
+    }
+
+    /**
+     * @param earlyExpiration caches en expiration anticipée, jamais jitterés
+     */
+    public TtlJitter(CacheFlowProperties.TtlJitter properties, CacheFlowProperties.EarlyExpiration earlyExpiration) {
+        this(properties, earlyExpiration, bound -> ThreadLocalRandom.current().nextLong(bound));
+    }
+
+    TtlJitter(CacheFlowProperties.TtlJitter properties, LongUnaryOperator random) {
+        this(properties, new CacheFlowProperties.EarlyExpiration(), random);
+    }
+
+    TtlJitter(CacheFlowProperties.TtlJitter properties, CacheFlowProperties.EarlyExpiration earlyExpiration,
+              LongUnaryOperator random) {
+        this.properties = properties;
+        this.earlyExpiration = earlyExpiration;
+        this.random = random;
+    }
+
+    /**
+     * TTL effectif de l'entrée ; un TTL absent ou non positif (entrée persistante) est laissé tel quel
+     */
+    public Duration apply(String cacheName, Duration ttl) {
+        Duration effective = draw(cacheName, ttl);
+        record(cacheName, effective);
+        return effective;
+    }
+
+    /**
+     * Tire le TTL effectif sans compter d'écriture (voir {@link #record})
+     */
+    public Duration draw(String cacheName, Duration ttl) {
+        if (ttl == null || ttl.isZero() || ttl.isNegative() || isExempt(cacheName)) {
+            return ttl;
+        }
+        long bandMillis = properties.bandFor(cacheName, ttl).toMillis();
+        return bandMillis > 0 ? ttl.minusMillis(random.applyAsLong(bandMillis + 1)) : ttl;
+    }
+
+    /**
+     * XFetch vise l'expiration à writtenAt + TTL nominal : un TTL Redis raccourci par le jitter la précéderait,
+     * et la ruée à l'expiration réelle resterait entière
+     */
+    private boolean isExempt(String cacheName) {
+        return earlyExpiration.isEnabledFor(cacheName);
+    }
+
+    public void record(String cacheName, Duration ttl) {
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+        Statistics stats = statistics.computeIfAbsent(cacheName, name -> new Statistics());
+        stats.writes.increment();
+        long now = System.currentTimeMillis();
+        long expiryMinute = (now + ttl.toMillis()) / 60_000;
+        LongAdder count = stats.expiriesByMinute.get(expiryMinute);
+        if (count == null) {
+            // Nouvelle minute : on en profite pour retirer les minutes écoulées
+            stats.expiriesByMinute.headMap(now / 60_000).clear();
+            count = stats.expiriesByMinute.computeIfAbsent(expiryMinute, minute -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * Par cache : bande de jitter, écritures et nombre d'entrées écrites expirant à chaque minute à venir.
+     * Les entrées réécrites ou évincées entre-temps restent comptées : c'est un majorant des expirations.
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        long currentMinute = System.currentTimeMillis() / 60_000;
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        statistics.forEach((name, stats) -> {
+            // Les minutes écoulées ne sont plus utiles
+            stats.expiriesByMinute.headMap(currentMinute).clear();
+            Map<String, Long> expiries = new LinkedHashMap<>();
+            long peak = 0;
+            for (Map.Entry<Long, LongAdder> entry : stats.expiriesByMinute.entrySet()) {
+                long count = entry.getValue().sum();
+                expiries.put(Instant.ofEpochSecond(entry.getKey() * 60).toString(), count);
+                peak = Math.max(peak, count);
+            }
+            Map<String, Object> cacheStats = new LinkedHashMap<>();
+            cacheStats.put("jitter", isExempt(name)
+                    ? "none (early expiration)" : describe(properties.getCaches().get(name)));
+            cacheStats.put("writes", stats.writes.sum());
+            cacheStats.put("peakExpiriesPerMinute", peak);
+            cacheStats.put("expiriesPerMinute", expiries);
+            result.put(name, cacheStats);
+        });
+        return result;
+    }
+
+    private static String describe(CacheFlowProperties.JitterSpec spec) {
+        if (spec == null) {
+            return "none";
+        }
+        if (spec.getBand() != null) {
+            return spec.getBand().toSeconds() + "s";
+        }
+        return (spec.getPercent() != null ? spec.getPercent() : 0) + "%";
+    }
+
+    private static final class Statistics {
+        private final LongAdder writes = new LongAdder();
+        private final NavigableMap<Long, LongAdder> expiriesByMinute = new ConcurrentSkipListMap<>();
+    }
+}
@@ -0,0 +1,209 @@
+package com.jee.backend.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Cache à deux niveaux : un {@link NearCache} en mémoire (L1) devant le cache Redis (L2).
+ *
+ * Les lectures sont servies par L1 quand c'est possible ; un miss L1 lit Redis puis recopie la valeur localement.
+ * Toute écriture passe d'abord par Redis, met à jour L1 et publie une invalidation pour les autres nœuds.
+ * Les valeurs de L1 sont partagées par référence entre les appelants, comme avec ConcurrentMapCache.
+ */
+public class TwoTierCache implements Cache {
+
+    private final Cache redisCache;
+    private final NearCache nearCache;
+    private final CacheInvalidationPublisher publisher;
+    private final HotKeyTracker hotKeys;
+
+    public TwoTierCache(Cache redisCache, NearCache nearCache, CacheInvalidationPublisher publisher) {
+        this(redisCache, nearCache, publisher, null);
+    }
+
+    /**
+     * @param hotKeys compte les hits L1, qui n'atteignent pas le writer Redis ; null pour ne pas les compter
+     */
+    public TwoTierCache(Cache redisCache, NearCache nearCache, CacheInvalidationPublisher publisher,
+                        HotKeyTracker hotKeys) {
+        this.redisCache = redisCache;
+        this.nearCache = nearCache;
+        this.publisher = publisher;
+        this.hotKeys = hotKeys;
+    }
+
+    @Override
+    public String getName() {
+        return redisCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisCache.getNativeCache();
+    }
+
+    public Cache getRedisCache() {
+        return redisCache;
+    }
+
+    public NearCache getNearCache() {
+        return nearCache;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Object local = nearCache.get(localKey);
+        if (local != null) {
+            recordLocalHit(localKey);
+            return new SimpleValueWrapper(local);
+        }
+        long generation = nearCache.generation();
+        ValueWrapper wrapper = redisCache.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            nearCache.putIfUnchanged(localKey, wrapper.get(), generation);
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        Object local = nearCache.get(localKey);
+        if (local != null) {
+            recordLocalHit(localKey);
+            return (T) local;
+        }
+        long generation = nearCache.generation();
+        T value = redisCache.get(key, valueLoader);
+        if (value != null) {
+            nearCache.putIfUnchanged(localKey, value, generation);
+        }
+        return value;
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        String localKey = localKey(key);
+        Object local = nearCache.get(localKey);
+        if (local != null) {
+            recordLocalHit(localKey);
+            return CompletableFuture.completedFuture(new SimpleValueWrapper(local));
+        }
+        long generation = nearCache.generation();
+        return redisCache.retrieve(key).thenApply(result -> {
+            Object value = result instanceof ValueWrapper wrapper ? wrapper.get() : result;
+            if (value != null) {
+                nearCache.putIfUnchanged(localKey, value, generation);
+            }
+            return result;
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        String localKey = localKey(key);
+        Object local = nearCache.get(localKey);
+        if (local != null) {
+            recordLocalHit(localKey);
+            return CompletableFuture.completedFuture((T) local);
+        }
+        long generation = nearCache.generation();
+        return redisCache.retrieve(key, valueLoader).thenApply(value -> {
+            if (value != null) {
+                nearCache.putIfUnchanged(localKey, value, generation);
+            }
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        redisCache.put(key, value);
+        String localKey = localKey(key);
+        if (value != null) {
+            nearCache.put(localKey, value);
+        } else {
+            nearCache.invalidate(localKey);
+        }
+        publisher.publishEvict(getName(), localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = redisCache.putIfAbsent(key, value);
+        String localKey = localKey(key);
+        if (existing == null) {
+            if (value != null) {
+                nearCache.put(localKey, value);
+            }
+            publisher.publishEvict(getName(), localKey);
+        } else if (existing.get() != null) {
+            nearCache.put(localKey, existing.get());
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        redisCache.evict(key);
+        String localKey = localKey(key);
+        nearCache.invalidate(localKey);
+        publisher.publishEvict(getName(), localKey);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = redisCache.evictIfPresent(key);
+        String localKey = localKey(key);
+        nearCache.invalidate(localKey);
+        publisher.publishEvict(getName(), localKey);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        redisCache.clear();
+        nearCache.clear();
+        publisher.publishClear(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = redisCache.invalidate();
+        nearCache.clear();
+        publisher.publishClear(getName());
+        return invalidated;
+    }
+
+    private void recordLocalHit(String localKey) {
+        if (hotKeys != null) {
+            hotKeys.record(getName(), localKey);
+        }
+    }
+
+    /**
+     * Même représentation textuelle que la clé Redis, pour que les invalidations distantes ciblent la bonne entrée
+     */
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
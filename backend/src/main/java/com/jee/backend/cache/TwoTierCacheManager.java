@@ -0,0 +1,290 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * CacheManager qui place un cache local borné (L1) devant chaque cache du RedisCacheManager (L2).
+ * Les invalidations sont propagées entre nœuds par Redis pub/sub (voir {@link NearCacheInvalidationListener}).
+ * Les caches configurés pour le single-flight sont en plus enveloppés dans un {@link SingleFlightCache},
+ * et ceux configurés en stale-while-revalidate ou en expiration anticipée dans un {@link StaleWhileRevalidateCache}.
+ * Les caches à TTL adaptatif sont observés par un {@link AdaptiveTtlCache}.
+ */
+public class TwoTierCacheManager implements CacheManager, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCacheManager.class);
+
+    private final CacheManager redisCacheManager;
+    private final CacheFlowProperties.Near nearProperties;
+    private final CacheFlowProperties.SingleFlight singleFlightProperties;
+    private final CacheFlowProperties.StaleWhileRevalidate staleWhileRevalidateProperties;
+    private final CacheFlowProperties.EarlyExpiration earlyExpirationProperties;
+    private final CacheInvalidationPublisher publisher;
+    private final AdaptiveTtlPolicy adaptiveTtl;
+    private final CacheGenerations generations;
+    private final HotKeyTracker hotKeys;
+    private final boolean transactionAware;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+    private final Map<String, NearCache> nearCaches = new ConcurrentHashMap<>();
+    private final Map<String, SingleFlightCache> singleFlightCaches = new ConcurrentHashMap<>();
+    private final Map<String, StaleWhileRevalidateCache> staleWhileRevalidateCaches = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor refreshExecutor;
+
+    public TwoTierCacheManager(CacheManager redisCacheManager, CacheFlowProperties properties,
+                               CacheInvalidationPublisher publisher, AdaptiveTtlPolicy adaptiveTtl,
+                               CacheGenerations generations, HotKeyTracker hotKeys, boolean transactionAware) {
+        this.redisCacheManager = redisCacheManager;
+        this.nearProperties = properties.getNear();
+        this.singleFlightProperties = properties.getSingleFlight();
+        this.staleWhileRevalidateProperties = properties.getStaleWhileRevalidate();
+        this.earlyExpirationProperties = properties.getEarlyExpiration();
+        this.publisher = publisher;
+        this.adaptiveTtl = adaptiveTtl;
+        this.generations = generations;
+        this.hotKeys = hotKeys;
+        this.transactionAware = transactionAware;
+        this.refreshExecutor = createRefreshExecutor(staleWhileRevalidateProperties);
+    }
+
+    /**
+     * Pool borné des rafraîchissements en tâche de fond ; une file pleine fait simplement ignorer le rafraîchissement
+     */
+    private static ThreadPoolExecutor createRefreshExecutor(CacheFlowProperties.StaleWhileRevalidate properties) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(properties.getRefreshThreads(), properties.getRefreshThreads(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(properties.getRefreshQueueCapacity()), runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache redisCache = redisCacheManager.getCache(name);
+        if (redisCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, cacheName -> decorate(redisCache));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    public CacheManager getRedisCacheManager() {
+        return redisCacheManager;
+    }
+
+    /**
+     * Cache local (L1) d'un cache déjà utilisé, ou null
+     */
+    public NearCache getNearCache(String name) {
+        return nearCaches.get(name);
+    }
+
+    public Collection<String> getNearCacheNames() {
+        return nearCaches.keySet();
+    }
+
+    /**
+     * Vrai si les valeurs du cache sont stockées dans un {@link StampedValue} (stale-while-revalidate ou
+     * expiration anticipée)
+     */
+    public boolean storesStampedValues(String name) {
+        return staleWhileRevalidateCaches.containsKey(name);
+    }
+
+    /**
+     * Statistiques du cache local par nom de cache (taille, hits, misses)
+     */
+    public Map<String, Map<String, Object>> getNearCacheStatistics() {
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        nearCaches.forEach((name, nearCache) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("size", nearCache.size());
+            stats.put("maxEntries", nearCache.getMaxEntries());
+            stats.put("admission", nearCache.getAdmission());
+            stats.put("hits", nearCache.getHits());
+            stats.put("misses", nearCache.getMisses());
+            stats.put("hitRatio", hitRatio(nearCache.getHits(), nearCache.getMisses()));
+            stats.put("rejectedAdmissions", nearCache.getRejectedAdmissions());
+            if (nearCache.hasShadowLru()) {
+                // Même suite d'accès rejouée sur un LRU de même taille
+                stats.put("lruHitRatio", hitRatio(nearCache.getShadowLruHits(), nearCache.getShadowLruMisses()));
+            }
+            statistics.put(name, stats);
+        });
+        return statistics;
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : Math.round(hits * 10000.0 / total) / 10000.0;
+    }
+
+    /**
+     * Chargements effectués et requêtes regroupées sur un chargement en cours, par nom de cache
+     */
+    public Map<String, Map<String, Object>> getSingleFlightStatistics() {
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        singleFlightCaches.forEach((name, cache) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("loads", cache.getLoads());
+            stats.put("coalesced", cache.getCoalesced());
+            stats.put("timeouts", cache.getTimeouts());
+            stats.put("inFlight", cache.getInFlight());
+            statistics.put(name, stats);
+        });
+        return statistics;
+    }
+
+    /**
+     * Valeurs périmées servies, recalculs anticipés et rafraîchissements en tâche de fond, par nom de cache
+     */
+    public Map<String, Map<String, Object>> getStaleWhileRevalidateStatistics() {
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        staleWhileRevalidateCaches.forEach((name, cache) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            if (cache.hasSoftTtl()) {
+                stats.put("softTtlSeconds", cache.getSoftTtlMillis() / 1000);
+                stats.put("staleHits", cache.getStaleHits());
+            }
+            if (cache.hasEarlyExpiration()) {
+                stats.put("earlyRefreshes", cache.getEarlyRefreshes());
+                stats.put("earlyMisses", cache.getEarlyMisses());
+            }
+            stats.put("refreshes", cache.getRefreshes());
+            stats.put("refreshFailures", cache.getRefreshFailures());
+            stats.put("refreshRejected", cache.getRefreshRejected());
+            stats.put("discardedRefreshes", cache.getDiscardedRefreshes());
+            statistics.put(name, stats);
+        });
+        return statistics;
+    }
+
+    /**
+     * Invalide une clé dans le L1 des autres nœuds, pour une écriture faite hors du cache décoré (écriture groupée)
+     */
+    public void publishEvict(String name, String key) {
+        publisher.publishEvict(name, key);
+    }
+
+    /**
+     * Invalide une clé dans le L1 de ce nœud et des autres, pour une suppression faite sous le cache décoré
+     * (éviction par budget)
+     */
+    public void evictNearCaches(String name, String key) {
+        NearCache nearCache = nearCaches.get(name);
+        if (nearCache != null) {
+            nearCache.invalidate(key);
+        }
+        publisher.publishEvict(name, key);
+    }
+
+    /**
+     * Applique une invalidation reçue d'un autre nœud ; les messages émis par ce nœud sont ignorés
+     */
+    public void applyRemoteInvalidation(CacheInvalidationMessage message) {
+        if (publisher.getNodeId().equals(message.getOrigin())) {
+            return;
+        }
+        if (message.isClear() && generations != null) {
+            // Le nœud émetteur a incrémenté la génération : les lectures suivantes doivent utiliser le nouveau préfixe
+            generations.reload(message.getCacheName());
+        }
+        NearCache nearCache = nearCaches.get(message.getCacheName());
+        if (nearCache == null) {
+            return;
+        }
+        if (message.isClear()) {
+            nearCache.clear();
+            logger.debug("Near cache CLEAR from node {} - Cache: {}", message.getOrigin(), message.getCacheName());
+        } else {
+            nearCache.invalidate(message.getKey());
+            logger.debug("Near cache EVICT from node {} - Cache: {}, Key: {}",
+                    message.getOrigin(), message.getCacheName(), message.getKey());
+        }
+    }
+
+    private Cache decorate(Cache redisCache) {
+        Cache cache = redisCache;
+        String name = redisCache.getName();
+        int maxEntries = nearProperties.maxEntriesFor(name);
+        if (nearProperties.isEnabled() && maxEntries > 0) {
+            NearCache nearCache = new NearCache(name, maxEntries, nearProperties.ttlFor(name),
+                    nearProperties.getAdmission(), nearProperties.getWindowRatio(), nearProperties.isShadowLru());
+            nearCaches.put(name, nearCache);
+            cache = new TwoTierCache(redisCache, nearCache, publisher, hotKeys);
+            logger.info("Near cache enabled - Cache: {}, Max entries: {}, TTL: {}s, Admission: {}",
+                    name, maxEntries, nearProperties.ttlFor(name).toSeconds(), nearProperties.getAdmission());
+        }
+        if (adaptiveTtl != null && adaptiveTtl.isRegistered(name)) {
+            // Sous le single-flight : un chargement partagé n'est compté qu'une fois
+            cache = new AdaptiveTtlCache(cache, adaptiveTtl);
+        }
+        if (singleFlightProperties.isEnabledFor(name)) {
+            SingleFlightCache singleFlightCache = new SingleFlightCache(cache, singleFlightProperties.getWaitTimeout());
+            singleFlightCaches.put(name, singleFlightCache);
+            cache = singleFlightCache;
+        }
+        // TTL souple et expiration anticipée n'ont de sens que rapportés au TTL dur du cache Redis
+        boolean staleWhileRevalidate = staleWhileRevalidateProperties.isEnabledFor(name);
+        boolean earlyExpiration = earlyExpirationProperties.isEnabledFor(name);
+        if ((staleWhileRevalidate || earlyExpiration) && redisCache instanceof RedisCache rc) {
+            RedisCacheWriter.TtlFunction ttlFunction = rc.getCacheConfiguration().getTtlFunction();
+            Duration hardTtl = ttlFunction.getTimeToLive(name, null);
+            if (hardTtl != null && !hardTtl.isZero() && !hardTtl.isNegative()) {
+                // Le TTL dur est relu à chaque décision : un ajustement du TTL adaptatif déplace aussi
+                // le TTL souple et l'horizon de l'expiration anticipée
+                Supplier<Duration> currentHardTtl = () -> {
+                    Duration ttl = ttlFunction.getTimeToLive(name, null);
+                    return ttl != null && !ttl.isZero() && !ttl.isNegative() ? ttl : hardTtl;
+                };
+                Supplier<Duration> softTtl = staleWhileRevalidate
+                        ? () -> staleWhileRevalidateProperties.softTtlFor(name, currentHardTtl.get()) : null;
+                EarlyExpirationPolicy policy = earlyExpiration
+                        ? new EarlyExpirationPolicy(earlyExpirationProperties.getBeta(), currentHardTtl) : null;
+                StaleWhileRevalidateCache staleWhileRevalidateCache =
+                        new StaleWhileRevalidateCache(cache, softTtl, policy, refreshExecutor);
+                staleWhileRevalidateCaches.put(name, staleWhileRevalidateCache);
+                cache = staleWhileRevalidateCache;
+                logger.info("Refresh policy enabled - Cache: {}, Soft TTL: {}, Early expiration: {}, Hard TTL: {}s",
+                        name, softTtl != null ? softTtl.get().toSeconds() + "s" : "none", earlyExpiration,
+                        hardTtl.toSeconds());
+            }
+        }
+        // Le décorateur transactionnel enveloppe les deux niveaux : L1 et Redis ne sont modifiés qu'après commit
+        return transactionAware ? new TransactionAwareCacheDecorator(cache) : cache;
+    }
+}
@@ -0,0 +1,160 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compression des valeurs de cache au-delà d'un seuil de taille (cacheflow.compression).
+ *
+ * Une valeur compressée commence par l'octet {@link #COMPRESSED_MARKER}, suivi de sa taille d'origine en varint
+ * puis du flux Deflate (niveau BEST_SPEED). Les autres valeurs sont stockées telles quelles : aucun sérialiseur
+ * ne produit ce premier octet, les petites entrées et les entrées existantes restent donc lisibles sans en-tête.
+ */
+public class ValueCompressor {
+
+    static final byte COMPRESSED_MARKER = (byte) 0xDF;
+
+    private final CacheFlowProperties.Compression properties;
+    private final Map<String, Statistics> statistics = new ConcurrentHashMap<>();
+
+    public ValueCompressor(CacheFlowProperties.Compression properties) {
+        this.properties = properties;
+    }
+
+    public byte[] compress(String cacheName, byte[] value) {
+        if (value == null || !properties.isEnabled() || value.length < properties.thresholdFor(cacheName)) {
+            return value;
+        }
+        Statistics stats = statisticsFor(cacheName);
+        long start = System.nanoTime();
+        byte[] compressed = deflate(value);
+        stats.compressNanos.add(System.nanoTime() - start);
+        // Une valeur peu compressible reste stockée en clair
+        if (compressed.length >= value.length) {
+            stats.incompressible.increment();
+            return value;
+        }
+        stats.compressed.increment();
+        stats.rawBytes.add(value.length);
+        stats.compressedBytes.add(compressed.length);
+        return compressed;
+    }
+
+    public byte[] decompress(String cacheName, byte[] value) {
+        if (value == null || value.length == 0 || value[0] != COMPRESSED_MARKER) {
+            return value;
+        }
+        Statistics stats = statisticsFor(cacheName);
+        long start = System.nanoTime();
+        byte[] raw = inflate(value);
+        stats.decompressNanos.add(System.nanoTime() - start);
+        stats.decompressed.increment();
+        return raw;
+    }
+
+    /**
+     * Ratio de compression et temps passé à compresser/décompresser, par cache
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        statistics.forEach((name, stats) -> {
+            long compressed = stats.compressed.sum();
+            long decompressed = stats.decompressed.sum();
+            long compressedBytes = stats.compressedBytes.sum();
+            Map<String, Object> cacheStats = new LinkedHashMap<>();
+            cacheStats.put("thresholdBytes", properties.thresholdFor(name));
+            cacheStats.put("compressed", compressed);
+            cacheStats.put("incompressible", stats.incompressible.sum());
+            cacheStats.put("decompressed", decompressed);
+            cacheStats.put("ratio", compressedBytes > 0 ? (double) stats.rawBytes.sum() / compressedBytes : 1.0);
+            cacheStats.put("compressMillis", stats.compressNanos.sum() / 1_000_000.0);
+            cacheStats.put("decompressMillis", stats.decompressNanos.sum() / 1_000_000.0);
+            cacheStats.put("avgDecompressMicros", decompressed > 0 ? stats.decompressNanos.sum() / decompressed / 1000.0 : 0.0);
+            result.put(name, cacheStats);
+        });
+        return result;
+    }
+
+    private Statistics statisticsFor(String cacheName) {
+        return statistics.computeIfAbsent(cacheName, name -> new Statistics());
+    }
+
+    private static byte[] deflate(byte[] value) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(value);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(value.length / 2 + 16);
+            out.write(COMPRESSED_MARKER);
+            int length = value.length;
+            while ((length & ~0x7F) != 0) {
+                out.write((length & 0x7F) | 0x80);
+                length >>>= 7;
+            }
+            out.write(length);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] value) {
+        int position = 1;
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (position >= value.length || shift > 28) {
+                throw new SerializationException("Malformed compressed cache value header");
+            }
+            byte b = value[position++];
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(value, position, value.length - position);
+            byte[] raw = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int count = inflater.inflate(raw, read, length - read);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += count;
+            }
+            if (read != length) {
+                throw new SerializationException("Truncated compressed cache value");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new SerializationException("Corrupted compressed cache value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static final class Statistics {
+        private final LongAdder compressed = new LongAdder();
+        private final LongAdder incompressible = new LongAdder();
+        private final LongAdder decompressed = new LongAdder();
+        private final LongAdder rawBytes = new LongAdder();
+        private final LongAdder compressedBytes = new LongAdder();
+        private final LongAdder compressNanos = new LongAdder();
+        private final LongAdder decompressNanos = new LongAdder();
+    }
+}
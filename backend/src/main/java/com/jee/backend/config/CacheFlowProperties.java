@@ -0,0 +1,1058 @@
+package com.jee.backend.config;
+
+import com.jee.backend.cache.NearCacheAdmission;
+import com.jee.backend.cache.SerializationFormat;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Paramètres de la couche de cache (préfixe "cacheflow" dans application.yml)
+ */
+@ConfigurationProperties(prefix = "cacheflow")
+public class CacheFlowProperties {
+
+    private final Near near = new Near();
+    private final Clear clear = new Clear();
+    private final Serialization serialization = new Serialization();
+    private final Compression compression = new Compression();
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final Lease lease = new Lease();
+    private final StaleWhileRevalidate staleWhileRevalidate = new StaleWhileRevalidate();
+    private final EarlyExpiration earlyExpiration = new EarlyExpiration();
+    private final TtlJitter ttlJitter = new TtlJitter();
+    private final Metrics metrics = new Metrics();
+    private final Async async = new Async();
+    private final AdaptiveTtl adaptiveTtl = new AdaptiveTtl();
+    private final Generations generations = new Generations();
+    private final Warmup warmup = new Warmup();
+    private final Snapshot snapshot = new Snapshot();
+    private final HotKeys hotKeys = new HotKeys();
+    private final Budget budget = new Budget();
+
+    public Near getNear() {
+        return near;
+    }
+
+    public Clear getClear() {
+        return clear;
+    }
+
+    public Serialization getSerialization() {
+        return serialization;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    public Lease getLease() {
+        return lease;
+    }
+
+    public StaleWhileRevalidate getStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    public EarlyExpiration getEarlyExpiration() {
+        return earlyExpiration;
+    }
+
+    public TtlJitter getTtlJitter() {
+        return ttlJitter;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public AdaptiveTtl getAdaptiveTtl() {
+        return adaptiveTtl;
+    }
+
+    public Generations getGenerations() {
+        return generations;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public HotKeys getHotKeys() {
+        return hotKeys;
+    }
+
+    public Budget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Cache local (L1) placé devant Redis (L2)
+     */
+    public static class Near {
+
+        private boolean enabled = true;
+        private int maxEntries = 1000;
+        private Duration ttl = Duration.ofSeconds(30);
+        private String invalidationChannel = "cache-invalidation";
+        private NearCacheAdmission admission = NearCacheAdmission.TINYLFU;
+        private double windowRatio = 0.01;
+        private boolean shadowLru = true;
+        private Map<String, NearCacheSpec> caches = new HashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public String getInvalidationChannel() {
+            return invalidationChannel;
+        }
+
+        public void setInvalidationChannel(String invalidationChannel) {
+            this.invalidationChannel = invalidationChannel;
+        }
+
+        public NearCacheAdmission getAdmission() {
+            return admission;
+        }
+
+        public void setAdmission(NearCacheAdmission admission) {
+            this.admission = admission;
+        }
+
+        public double getWindowRatio() {
+            return windowRatio;
+        }
+
+        public void setWindowRatio(double windowRatio) {
+            this.windowRatio = windowRatio;
+        }
+
+        public boolean isShadowLru() {
+            return shadowLru;
+        }
+
+        public void setShadowLru(boolean shadowLru) {
+            this.shadowLru = shadowLru;
+        }
+
+        public Map<String, NearCacheSpec> getCaches() {
+            return caches;
+        }
+
+        public void setCaches(Map<String, NearCacheSpec> caches) {
+            this.caches = caches;
+        }
+
+        public int maxEntriesFor(String cacheName) {
+            NearCacheSpec spec = caches.get(cacheName);
+            return spec != null && spec.getMaxEntries() != null ? spec.getMaxEntries() : maxEntries;
+        }
+
+        public Duration ttlFor(String cacheName) {
+            NearCacheSpec spec = caches.get(cacheName);
+            return spec != null && spec.getTtl() != null ? spec.getTtl() : ttl;
+        }
+    }
+
+    /**
+     * Vidage d'un cache par SCAN + UNLINK
+     */
+    public static class Clear {
+
+        private int batchSize = 500;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    /**
+     * Format des valeurs stockées dans Redis, global ou par nom de cache
+     */
+    public static class Serialization {
+
+        private SerializationFormat format = SerializationFormat.COMPACT;
+        private Map<String, SerializationFormat> caches = new HashMap<>();
+
+        public SerializationFormat getFormat() {
+            return format;
+        }
+
+        public void setFormat(SerializationFormat format) {
+            this.format = format;
+        }
+
+        public Map<String, SerializationFormat> getCaches() {
+            return caches;
+        }
+
+        public void setCaches(Map<String, SerializationFormat> caches) {
+            this.caches = caches;
+        }
+
+        public SerializationFormat formatFor(String cacheName) {
+            return caches.getOrDefault(cacheName, format);
+        }
+    }
+
+    /**
+     * Compression des valeurs dont la taille dépasse le seuil, global ou par nom de cache
+     */
+    public static class Compression {
+
+        private boolean enabled = true;
+        private DataSize threshold = DataSize.ofKilobytes(1);
+        private Map<String, DataSize> caches = new HashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public DataSize getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(DataSize threshold) {
+            this.threshold = threshold;
+        }
+
+        public Map<String, DataSize> getCaches() {
+            return caches;
+        }
+
+        public void setCaches(Map<String, DataSize> caches) {
+            this.caches = caches;
+        }
+
+        public long thresholdFor(String cacheName) {
+            return caches.getOrDefault(cacheName, threshold).toBytes();
+        }
+    }
+
+    /**
+     * Regroupement des chargements concurrents d'une même clé, pour les caches listés
+     */
+    public static class SingleFlight {
+
+        private boolean enabled = true;
+        private Set<String> caches = new HashSet<>(Set.of("products", "weather", "currency"));
+        private Duration waitTimeout = Duration.ofSeconds(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Set<String> getCaches() {
+            return caches;
+        }
+
+        public void setCaches(Set<String> caches) {
+            this.caches = caches;
+        }
+
+        public Duration getWaitTimeout() {
+            return waitTimeout;
+        }
+
+        public void setWaitTimeout(Duration waitTimeout) {
+            this.waitTimeout = waitTimeout;
+        }
+
+        public boolean isEnabledFor(String cacheName) {
+            return enabled && caches.contains(cacheName);
+        }
+    }
+
+    /**
+     * Surcharge par nom de cache ; une valeur absente reprend le réglage global
+     */
+    public static class Lease {
+
+        private boolean enabled = true;
+        private Set<String> caches = new HashSet<>(Set.of("products", "weather"));
+        private Duration leaseTtl = Duration.ofSeconds(10);
+        private Duration waitTimeout = Duration.ofSeconds(3);
+        private Duration pollInterval = Duration.ofMillis(50);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Set<String> getCaches() {
+            return caches;
+        }
+
+        public void setCaches(Set<String> caches) {
+            this.caches = caches;
+        }
+
+        public Duration getLeaseTtl() {
+            return leaseTtl;
+        }
+
+        public void setLeaseTtl(Duration leaseTtl) {
+            this.leaseTtl = leaseTtl;
+        }
+
+        public Duration getWaitTimeout() {
+            return waitTimeout;
+        }
+
+        public void setWaitTimeout(Duration waitTimeout) {
+            this.waitTimeout = waitTimeout;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public boolean isEnabledFor(String cacheName) {
+            return enabled && caches.contains(cacheName);
+        }
+    }
+
+    public static class StaleWhileRevalidate {
+
+        private boolean enabled = true;
+        private Set<String> caches = new HashSet<>(Set.of("weather", "currency"));
+        private double softTtlRatio = 0.75;
+        private Map<String, Duration> softTtls = new HashMap<>();
+        private int refreshThreads = 2;
+        private int refreshQueueCapacity = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Set<String> getCaches() {
+            return caches;
+        }
+
+        public void setCaches(Set<String> caches) {
+            this.caches = caches;
+        }
+
+        public double getSoftTtlRatio() {
+            return softTtlRatio;
+        }
+
+        public void setSoftTtlRatio(double softTtlRatio) {
+            this.softTtlRatio = softTtlRatio;
+        }
+
+        public Map<String, Duration> getSoftTtls() {
+            return softTtls;
+        }
+
+        public void setSoftTtls(Map<String, Duration> softTtls) {
+            this.softTtls = softTtls;
+        }
+
+        public int getRefreshThreads() {
+            return refreshThreads;
+        }
+
+        public void setRefreshThreads(int refreshThreads) {
+            this.refreshThreads = refreshThreads;
+        }
+
+        public int getRefreshQueueCapacity() {
+            return refreshQueueCapacity;
+        }
+
+        public void setRefreshQueueCapacity(int refreshQueueCapacity) {
+            this.refreshQueueCapacity = refreshQueueCapacity;
+        }
+
+        public boolean isEnabledFor(String cacheName) {
+            return enabled && caches.contains(cacheName);
+        }
+
+        /**
+         * TTL souple du cache : valeur explicite ou fraction du TTL dur, toujours bornée par ce dernier
+         */
+        public Duration softTtlFor(String cacheName, Duration hardTtl) {
+            Duration softTtl = softTtls.get(cacheName);
+            if (softTtl == null) {
+                softTtl = Duration.ofMillis((long) (hardTtl.toMillis() * softTtlRatio));
+            }
+            return softTtl.compareTo(hardTtl) < 0 ? softTtl : hardTtl;
+        }
+    }
+
+    public static class EarlyExpiration {
+
+        private boolean enabled = true;
+        private Set<String> caches = new HashSet<>();
+        private double beta = 1.0;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Set<String> getCaches() {
+            return caches;
+        }
+
+        public void setCaches(Set<String> caches) {
+            this.caches = caches;
+        }
+
+        public double getBeta() {
+            return beta;
+        }
+
+        public void setBeta(double beta) {
+            this.beta = beta;
+        }
+
+        public boolean isEnabledFor(String cacheName) {
+            return enabled && caches.contains(cacheName);
+        }
+    }
+
+    public static class TtlJitter {
+
+        private boolean enabled = true;
+        private Map<String, JitterSpec> caches = new HashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Map<String, JitterSpec> getCaches() {
+            return caches;
+        }
+
+        public void setCaches(Map<String, JitterSpec> caches) {
+            this.caches = caches;
+        }
+
+        /**
+         * Largeur de la bande de jitter pour ce TTL : bande absolue ou pourcentage du TTL, au plus la moitié du TTL
+         */
+        public Duration bandFor(String cacheName, Duration ttl) {
+            JitterSpec spec = caches.get(cacheName);
+            if (!enabled || spec == null) {
+                return Duration.ZERO;
+            }
+            Duration band = spec.getBand() != null
+                    ? spec.getBand()
+                    : Duration.ofMillis(ttl.toMillis() * (spec.getPercent() != null ? spec.getPercent() : 0) / 100);
+            Duration max = ttl.dividedBy(2);
+            return band.compareTo(max) < 0 ? band : max;
+        }
+    }
+
+    public static class JitterSpec {
+
+        private Integer percent;
+        private Duration band;
+
+        public Integer getPercent() {
+            return percent;
+        }
+
+        public void setPercent(Integer percent) {
+            this.percent = percent;
+        }
+
+        public Duration getBand() {
+            return band;
+        }
+
+        public void setBand(Duration band) {
+            this.band = band;
+        }
+    }
+
+    public static class Metrics {
+
+        private double keyLogSampleRate = 0.0;
+
+        public double getKeyLogSampleRate() {
+            return keyLogSampleRate;
+        }
+
+        public void setKeyLogSampleRate(double keyLogSampleRate) {
+            this.keyLogSampleRate = keyLogSampleRate;
+        }
+    }
+
+    /**
+     * Pool des chargements déclenchés par les lectures asynchrones (miss sur les variantes CompletableFuture)
+     */
+    public static class Async {
+
+        private int loaderThreads = 8;
+        private int queueCapacity = 200;
+
+        public int getLoaderThreads() {
+            return loaderThreads;
+        }
+
+        public void setLoaderThreads(int loaderThreads) {
+            this.loaderThreads = loaderThreads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    /**
+     * TTL ajusté à l'exécution, par cache, selon la volatilité observée des valeurs et le taux de hit
+     */
+    public static class AdaptiveTtl {
+
+        private boolean enabled = true;
+        private Duration interval = Duration.ofMinutes(1);
+        private int minSamples = 5;
+        private double volatileChangeRatio = 0.5;
+        private double stableChangeRatio = 0.1;
+        private double targetHitRatio = 0.95;
+        private double increaseFactor = 1.25;
+        private double decreaseFactor = 0.5;
+        private int maxTrackedKeys = 10000;
+        private Map<String, AdaptiveTtlSpec> caches = new HashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        public double getVolatileChangeRatio() {
+            return volatileChangeRatio;
+        }
+
+        public void setVolatileChangeRatio(double volatileChangeRatio) {
+            this.volatileChangeRatio = volatileChangeRatio;
+        }
+
+        public double getStableChangeRatio() {
+            return stableChangeRatio;
+        }
+
+        public void setStableChangeRatio(double stableChangeRatio) {
+            this.stableChangeRatio = stableChangeRatio;
+        }
+
+        public double getTargetHitRatio() {
+            return targetHitRatio;
+        }
+
+        public void setTargetHitRatio(double targetHitRatio) {
+            this.targetHitRatio = targetHitRatio;
+        }
+
+        public double getIncreaseFactor() {
+            return increaseFactor;
+        }
+
+        public void setIncreaseFactor(double increaseFactor) {
+            this.increaseFactor = increaseFactor;
+        }
+
+        public double getDecreaseFactor() {
+            return decreaseFactor;
+        }
+
+        public void setDecreaseFactor(double decreaseFactor) {
+            this.decreaseFactor = decreaseFactor;
+        }
+
+        public int getMaxTrackedKeys() {
+            return maxTrackedKeys;
+        }
+
+        public void setMaxTrackedKeys(int maxTrackedKeys) {
+            this.maxTrackedKeys = maxTrackedKeys;
+        }
+
+        public Map<String, AdaptiveTtlSpec> getCaches() {
+            return caches;
+        }
+
+        public void setCaches(Map<String, AdaptiveTtlSpec> caches) {
+            this.caches = caches;
+        }
+
+        public boolean isEnabledFor(String cacheName) {
+            return enabled && caches.containsKey(cacheName);
+        }
+    }
+
+    /**
+     * Génération par cache intégrée au préfixe des clés : vider un cache = un INCR
+     */
+    public static class Generations {
+
+        private boolean enabled = true;
+        private Set<String> caches = new HashSet<>(Set.of("products", "product", "weather", "currency", "currencies"));
+        private Duration refreshInterval = Duration.ofSeconds(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Set<String> getCaches() {
+            return caches;
+        }
+
+        public void setCaches(Set<String> caches) {
+            this.caches = caches;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public boolean isEnabledFor(String cacheName) {
+            return enabled && caches.contains(cacheName);
+        }
+    }
+
+    /**
+     * Préchargement des caches au démarrage, qui conditionne la readiness
+     */
+    public static class Warmup {
+
+        private boolean enabled = true;
+        private int concurrency = 4;
+        private List<String> cities = new ArrayList<>(List.of("Paris", "London", "New York", "Tokyo"));
+        private int learnedCities = 10;
+        private int trackedCities = 500;
+        private Duration cityFlushInterval = Duration.ofMinutes(1);
+        private double readinessFraction = 0.8;
+        private Duration readinessTimeout = Duration.ofMinutes(2);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public List<String> getCities() {
+            return cities;
+        }
+
+        public void setCities(List<String> cities) {
+            this.cities = cities;
+        }
+
+        public int getLearnedCities() {
+            return learnedCities;
+        }
+
+        public void setLearnedCities(int learnedCities) {
+            this.learnedCities = learnedCities;
+        }
+
+        public int getTrackedCities() {
+            return trackedCities;
+        }
+
+        public void setTrackedCities(int trackedCities) {
+            this.trackedCities = trackedCities;
+        }
+
+        public Duration getCityFlushInterval() {
+            return cityFlushInterval;
+        }
+
+        public void setCityFlushInterval(Duration cityFlushInterval) {
+            this.cityFlushInterval = cityFlushInterval;
+        }
+
+        public double getReadinessFraction() {
+            return readinessFraction;
+        }
+
+        public void setReadinessFraction(double readinessFraction) {
+            this.readinessFraction = readinessFraction;
+        }
+
+        public Duration getReadinessTimeout() {
+            return readinessTimeout;
+        }
+
+        public void setReadinessTimeout(Duration readinessTimeout) {
+            this.readinessTimeout = readinessTimeout;
+        }
+    }
+
+    /**
+     * Instantané local des entrées les plus chaudes, rechargé au redémarrage
+     */
+    public static class Snapshot {
+
+        private boolean enabled = true;
+        private String path = "data/cache-snapshot.bin";
+        private Duration interval = Duration.ofMinutes(1);
+        private int maxEntriesPerCache = 200;
+        private DataSize maxSize = DataSize.ofMegabytes(16);
+        private Duration minRemainingTtl = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public int getMaxEntriesPerCache() {
+            return maxEntriesPerCache;
+        }
+
+        public void setMaxEntriesPerCache(int maxEntriesPerCache) {
+            this.maxEntriesPerCache = maxEntriesPerCache;
+        }
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getMinRemainingTtl() {
+            return minRemainingTtl;
+        }
+
+        public void setMinRemainingTtl(Duration minRemainingTtl) {
+            this.minRemainingTtl = minRemainingTtl;
+        }
+    }
+
+    /**
+     * Détection des clés les plus lues par count-min sketch, sur des fenêtres fixes
+     */
+    public static class HotKeys {
+
+        private boolean enabled = true;
+        private int topK = 20;
+        private int sketchDepth = 4;
+        private int sketchWidth = 2048;
+        private Duration window = Duration.ofSeconds(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getTopK() {
+            return topK;
+        }
+
+        public void setTopK(int topK) {
+            this.topK = topK;
+        }
+
+        public int getSketchDepth() {
+            return sketchDepth;
+        }
+
+        public void setSketchDepth(int sketchDepth) {
+            this.sketchDepth = sketchDepth;
+        }
+
+        public int getSketchWidth() {
+            return sketchWidth;
+        }
+
+        public void setSketchWidth(int sketchWidth) {
+            this.sketchWidth = sketchWidth;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+    }
+
+    /**
+     * Budget en entrées et/ou en octets par cache Redis, les entrées les moins récemment lues étant évincées en premier
+     */
+    public static class Budget {
+
+        private boolean enabled = true;
+        private Duration accessFlushInterval = Duration.ofSeconds(1);
+        private Duration pruneInterval = Duration.ofSeconds(30);
+        private int pruneBatchSize = 100;
+        private int maxEvictionsPerWrite = 16;
+        private int registerThreads = 2;
+        private int registerQueueCapacity = 1000;
+        private Map<String, BudgetSpec> caches = new HashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getAccessFlushInterval() {
+            return accessFlushInterval;
+        }
+
+        public void setAccessFlushInterval(Duration accessFlushInterval) {
+            this.accessFlushInterval = accessFlushInterval;
+        }
+
+        public Duration getPruneInterval() {
+            return pruneInterval;
+        }
+
+        public void setPruneInterval(Duration pruneInterval) {
+            this.pruneInterval = pruneInterval;
+        }
+
+        public int getPruneBatchSize() {
+            return pruneBatchSize;
+        }
+
+        public void setPruneBatchSize(int pruneBatchSize) {
+            this.pruneBatchSize = pruneBatchSize;
+        }
+
+        public int getMaxEvictionsPerWrite() {
+            return maxEvictionsPerWrite;
+        }
+
+        public void setMaxEvictionsPerWrite(int maxEvictionsPerWrite) {
+            this.maxEvictionsPerWrite = maxEvictionsPerWrite;
+        }
+
+        public int getRegisterThreads() {
+            return registerThreads;
+        }
+
+        public void setRegisterThreads(int registerThreads) {
+            this.registerThreads = registerThreads;
+        }
+
+        public int getRegisterQueueCapacity() {
+            return registerQueueCapacity;
+        }
+
+        public void setRegisterQueueCapacity(int registerQueueCapacity) {
+            this.registerQueueCapacity = registerQueueCapacity;
+        }
+
+        public Map<String, BudgetSpec> getCaches() {
+            return caches;
+        }
+
+        public void setCaches(Map<String, BudgetSpec> caches) {
+            this.caches = caches;
+        }
+
+        public boolean isEnabledFor(String cacheName) {
+            return enabled && caches.containsKey(cacheName);
+        }
+    }
+
+    public static class BudgetSpec {
+
+        private Integer maxEntries;
+        private DataSize maxSize;
+
+        public Integer getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(Integer maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    public static class AdaptiveTtlSpec {
+
+        private Duration minTtl;
+        private Duration maxTtl;
+
+        public Duration getMinTtl() {
+            return minTtl;
+        }
+
+        public void setMinTtl(Duration minTtl) {
+            this.minTtl = minTtl;
+        }
+
+        public Duration getMaxTtl() {
+            return maxTtl;
+        }
+
+        public void setMaxTtl(Duration maxTtl) {
+            this.maxTtl = maxTtl;
+        }
+    }
+
+    public static class NearCacheSpec {
+
+        private Integer maxEntries;
+        private Duration ttl;
+
+        public Integer getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(Integer maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.jee.backend.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jee.backend.cache.CacheSerializers;
+import com.jee.backend.cache.RedisKeyScanner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -18,6 +22,7 @@ import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactor
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
@@ -26,6 +31,8 @@ import java.time.Duration;
 @EnableCaching
 public class RedisConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(RedisConfig.class);
+
     @Bean
     public ObjectMapper objectMapper() {
         return new ObjectMapper();
@@ -61,12 +68,11 @@ public class RedisConfig {
     // Note: Le CacheManager principal est maintenant défini dans SeasonalCacheConfig
     // Ce bean est conservé pour compatibilité mais n'est plus utilisé comme bean principal
     @Bean(name = "legacyCacheManager")
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        // Utiliser JdkSerializationRedisSerializer pour la sérialisation des objets
-        // Compatible avec Spring Boot 4.0 (les sérialiseurs Jackson sont dépréciés)
-        // Note: Les classes doivent implémenter Serializable
-        JdkSerializationRedisSerializer serializer = new JdkSerializationRedisSerializer(
-            Thread.currentThread().getContextClassLoader()
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, CacheFlowProperties properties) {
+        // Même format de valeurs que le CacheManager principal (cacheflow.serialization.format)
+        // Le format compact relit aussi les entrées JDK existantes
+        RedisSerializer<Object> serializer = CacheSerializers.create(
+            properties.getSerialization().getFormat(), Thread.currentThread().getContextClassLoader()
         );
         
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
@@ -75,9 +81,10 @@ public class RedisConfig {
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer))
                 .disableCachingNullValues();
 
-        // Créer un RedisCacheWriter personnalisé qui utilise DEL au lieu de UNLINK
+        // Créer un RedisCacheWriter personnalisé qui utilise DEL au lieu de UNLINK pour les évictions unitaires
         RedisCacheWriter defaultWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory);
-        RedisCacheWriter cacheWriter = new DelRedisCacheWriter(defaultWriter, connectionFactory);
+        RedisCacheWriter cacheWriter = new DelRedisCacheWriter(defaultWriter, connectionFactory,
+                properties.getClear().getBatchSize());
 
         return RedisCacheManager.builder(cacheWriter)
                 .cacheDefaults(config)
@@ -87,15 +94,19 @@ public class RedisConfig {
 
     /**
      * RedisCacheWriter personnalisé qui utilise DEL au lieu de UNLINK
-     * pour que les opérations @CacheEvict apparaissent clairement dans les logs Redis
+     * pour que les opérations @CacheEvict apparaissent clairement dans les logs Redis.
+     * Le vidage complet (allEntries = true) parcourt les clés par SCAN et les supprime par lots avec UNLINK.
      */
     private static class DelRedisCacheWriter implements RedisCacheWriter {
         private final RedisCacheWriter delegate;
         private final RedisConnectionFactory connectionFactory;
+        private final int clearBatchSize;
 
-        public DelRedisCacheWriter(RedisCacheWriter delegate, RedisConnectionFactory connectionFactory) {
+        public DelRedisCacheWriter(RedisCacheWriter delegate, RedisConnectionFactory connectionFactory,
+                                   int clearBatchSize) {
             this.delegate = delegate;
             this.connectionFactory = connectionFactory;
+            this.clearBatchSize = clearBatchSize;
         }
 
         @Override
@@ -136,13 +147,12 @@ public class RedisConfig {
 
         @Override
         public void clear(String name, byte[] pattern) {
-            // Utiliser DEL au lieu de UNLINK pour apparaître dans les logs
+            // SCAN + UNLINK par lots plutôt que KEYS + DEL, qui bloque Redis sur un gros keyspace
             RedisConnection connection = connectionFactory.getConnection();
             try {
-                byte[][] keys = connection.keys(pattern).toArray(new byte[0][]);
-                if (keys.length > 0) {
-                    connection.del(keys);
-                }
+                RedisKeyScanner.ClearResult result = RedisKeyScanner.unlinkMatching(connection, pattern, clearBatchSize);
+                logger.info("Cache CLEAR - Cache: {}, Keys deleted: {}, Duration: {} ms",
+                        name, result.getKeysDeleted(), result.getDuration().toMillis());
             } finally {
                 connection.close();
             }
@@ -160,7 +170,8 @@ public class RedisConfig {
 
         @Override
         public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector statisticsCollector) {
-            return new DelRedisCacheWriter(delegate.withStatisticsCollector(statisticsCollector), connectionFactory);
+            return new DelRedisCacheWriter(delegate.withStatisticsCollector(statisticsCollector), connectionFactory,
+                    clearBatchSize);
         }
     }
 }
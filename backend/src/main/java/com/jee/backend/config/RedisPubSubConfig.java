@@ -1,5 +1,8 @@
 package com.jee.backend.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jee.backend.cache.NearCacheInvalidationListener;
+import com.jee.backend.cache.TwoTierCacheManager;
 import com.jee.backend.service.RedisMessageSubscriber;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -15,6 +18,15 @@ public class RedisPubSubConfig {
     @Autowired
     private RedisMessageSubscriber redisMessageSubscriber;
 
+    @Autowired
+    private TwoTierCacheManager seasonalCacheManager;
+
+    @Autowired
+    private CacheFlowProperties cacheFlowProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Bean
     public MessageListenerAdapter messageListener() {
         return new MessageListenerAdapter(redisMessageSubscriber);
@@ -30,6 +42,9 @@ public class RedisPubSubConfig {
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
         container.addMessageListener(messageListener(), topic());
+        // Invalidations du cache local (L1) émises par les autres nœuds
+        container.addMessageListener(new NearCacheInvalidationListener(seasonalCacheManager, objectMapper),
+                new ChannelTopic(cacheFlowProperties.getNear().getInvalidationChannel()));
         return container;
     }
 }
@@ -1,33 +1,62 @@
 package com.jee.backend.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jee.backend.cache.AdaptiveTtlPolicy;
+import com.jee.backend.cache.BudgetedRedisCacheWriter;
+import com.jee.backend.cache.CacheBatchLoader;
+import com.jee.backend.cache.CacheBudgets;
+import com.jee.backend.cache.CacheGenerations;
+import com.jee.backend.cache.CacheInvalidationPublisher;
+import com.jee.backend.cache.CacheLoadExecutor;
+import com.jee.backend.cache.CacheRebuildLease;
+import com.jee.backend.cache.CacheSerializers;
+import com.jee.backend.cache.CompressingRedisCacheWriter;
+import com.jee.backend.cache.GenerationalRedisCacheWriter;
+import com.jee.backend.cache.HotKeySnapshot;
+import com.jee.backend.cache.HotKeyTracker;
+import com.jee.backend.cache.HotKeyTrackingRedisCacheWriter;
+import com.jee.backend.cache.InstrumentedRedisCacheWriter;
+import com.jee.backend.cache.JitteringRedisCacheWriter;
+import com.jee.backend.cache.LeasingRedisCacheWriter;
+import com.jee.backend.cache.PipeliningRedisCacheWriter;
+import com.jee.backend.cache.TtlJitter;
+import com.jee.backend.cache.TwoTierCacheManager;
+import com.jee.backend.cache.ValueCompressor;
+import com.jee.backend.model.Weather;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.CacheManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
-import org.springframework.data.redis.cache.CacheStatistics;
-import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.CacheKeyPrefix;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.cache.RedisCacheWriter;
-import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.Month;
-import java.util.concurrent.CompletableFuture;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheFlowProperties.class)
 public class SeasonalCacheConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(SeasonalCacheConfig.class);
+    private static final String DEFAULT_CACHE = "default";
+    private static final String PRODUCTS_CACHE = "products";
+    private static final String PRODUCT_CACHE = "product";
     private static final String WEATHER_CACHE = "weather";
     private static final String CURRENCY_CACHE = "currency";
     private static final String CURRENCIES_CACHE = "currencies";
@@ -63,153 +92,173 @@ public class SeasonalCacheConfig {
         return ttl;
     }
 
+    @Bean
+    public CacheSerializers cacheSerializers(CacheFlowProperties properties) {
+        return new CacheSerializers(properties.getSerialization(), Thread.currentThread().getContextClassLoader());
+    }
+
+    @Bean
+    public ValueCompressor valueCompressor(CacheFlowProperties properties) {
+        return new ValueCompressor(properties.getCompression());
+    }
+
+    @Bean
+    public CacheRebuildLease cacheRebuildLease(RedisConnectionFactory connectionFactory, CacheFlowProperties properties) {
+        return new CacheRebuildLease(connectionFactory, properties.getLease());
+    }
+
+    @Bean
+    public CacheBudgets cacheBudgets(RedisConnectionFactory connectionFactory, CacheFlowProperties properties) {
+        return new CacheBudgets(connectionFactory, properties.getBudget());
+    }
+
+    @Bean
+    public CacheLoadExecutor cacheLoadExecutor(CacheFlowProperties properties) {
+        return new CacheLoadExecutor(properties.getAsync().getLoaderThreads(), properties.getAsync().getQueueCapacity());
+    }
+
+    @Bean
+    public AdaptiveTtlPolicy adaptiveTtlPolicy(CacheFlowProperties properties) {
+        return new AdaptiveTtlPolicy(properties.getAdaptiveTtl());
+    }
+
+    @Bean
+    public CacheGenerations cacheGenerations(RedisConnectionFactory connectionFactory, CacheFlowProperties properties) {
+        return new CacheGenerations(connectionFactory, properties.getGenerations());
+    }
+
+    @Bean
+    public HotKeySnapshot hotKeySnapshot(TwoTierCacheManager cacheManager, RedisConnectionFactory connectionFactory,
+                                         CacheGenerations cacheGenerations, CacheFlowProperties properties) {
+        return new HotKeySnapshot(cacheManager, connectionFactory, cacheGenerations, properties.getSnapshot());
+    }
+
+    @Bean
+    public CacheBatchLoader cacheBatchLoader(TwoTierCacheManager cacheManager, HotKeyTracker hotKeyTracker) {
+        return new CacheBatchLoader(cacheManager, hotKeyTracker);
+    }
+
+    @Bean
+    public HotKeyTracker hotKeyTracker(CacheFlowProperties properties) {
+        return new HotKeyTracker(properties.getHotKeys());
+    }
+
+    @Bean
+    public TtlJitter ttlJitter(CacheFlowProperties properties) {
+        return new TtlJitter(properties.getTtlJitter(), properties.getEarlyExpiration());
+    }
+
     @Bean
     @Primary
-    public CacheManager seasonalCacheManager(RedisConnectionFactory connectionFactory) {
-        JdkSerializationRedisSerializer serializer = new JdkSerializationRedisSerializer(
-                Thread.currentThread().getContextClassLoader()
-        );
-
-        // Configuration par défaut pour les autres caches (products, product)
-        RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10))
-                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer))
-                .disableCachingNullValues();
+    public TwoTierCacheManager seasonalCacheManager(RedisConnectionFactory connectionFactory,
+                                                    CacheFlowProperties properties,
+                                                    CacheSerializers cacheSerializers,
+                                                    ValueCompressor valueCompressor,
+                                                    CacheRebuildLease cacheRebuildLease,
+                                                    CacheBudgets cacheBudgets,
+                                                    TtlJitter ttlJitter,
+                                                    AdaptiveTtlPolicy adaptiveTtlPolicy,
+                                                    CacheGenerations cacheGenerations,
+                                                    HotKeyTracker hotKeyTracker,
+                                                    MeterRegistry meterRegistry,
+                                                    ObjectMapper objectMapper) {
+        // Préfixe "nom::génération::" : vider un cache incrémente sa génération au lieu de supprimer ses clés
+        CacheKeyPrefix keyPrefix = cacheGenerations.keyPrefix();
+
+        // Configuration par défaut pour les caches créés à l'exécution
+        RedisCacheConfiguration defaultConfig = cacheConfig(Duration.ofMinutes(10), cacheSerializers.forCache(DEFAULT_CACHE),
+                keyPrefix);
+
+        // Caches produits avec TTL de 10 minutes
+        RedisCacheConfiguration productsConfig = cacheConfig(Duration.ofMinutes(10), cacheSerializers.forCache(PRODUCTS_CACHE),
+                keyPrefix);
+        RedisCacheConfiguration productConfig = cacheConfig(Duration.ofMinutes(10), cacheSerializers.forCache(PRODUCT_CACHE),
+                keyPrefix);
 
-        // Configuration spécifique pour le cache météo avec TTL dynamique par saison
+        // Configuration spécifique pour le cache météo avec TTL dynamique par saison ;
+        // la saison ne donne que le TTL initial si le cache est en TTL adaptatif
         Duration weatherTtl = getSeasonalTtl();
-        RedisCacheConfiguration weatherConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(weatherTtl)
-                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer))
-                .disableCachingNullValues();
+        RedisCacheConfiguration weatherConfig = cacheConfig(adaptiveTtl(adaptiveTtlPolicy, WEATHER_CACHE, weatherTtl,
+                value -> value instanceof Weather weather
+                        ? Objects.hash(weather.getTemp(), weather.getHumidity())
+                        : Objects.hashCode(value)), cacheSerializers.forCache(WEATHER_CACHE), keyPrefix);
 
         // Configuration spécifique pour le cache des devises avec TTL de 1 heure
         Duration currencyTtl = Duration.ofHours(1); // 1 hour = 3600 seconds
-        RedisCacheConfiguration currencyConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(currencyTtl)
-                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer))
-                .disableCachingNullValues();
+        RedisCacheConfiguration currencyConfig = cacheConfig(adaptiveTtl(adaptiveTtlPolicy, CURRENCY_CACHE, currencyTtl,
+                value -> value instanceof BigDecimal rate
+                        ? rate.stripTrailingZeros().hashCode()
+                        : Objects.hashCode(value)), cacheSerializers.forCache(CURRENCY_CACHE), keyPrefix);
+        RedisCacheConfiguration currenciesConfig = cacheConfig(currencyTtl, cacheSerializers.forCache(CURRENCIES_CACHE),
+                keyPrefix);
 
-        // Créer un RedisCacheWriter personnalisé avec logging des hits/misses
+        // Créer un RedisCacheWriter personnalisé avec métriques par cache (hits/misses, tailles, latences)
+        // et compression des valeurs volumineuses (ex. liste complète des produits) ;
+        // un seul nœud du cluster reconstruit une clé manquante (bail distribué) ;
+        // les caches budgétés évincent leurs entrées les plus froides au-delà de leur budget ;
+        // le TTL de chaque écriture est légèrement réduit au hasard pour étaler les expirations ;
+        // le vidage complet d'un cache générationnel se limite à un INCR ;
+        // chaque lecture alimente la détection des clés chaudes ;
+        // les lectures et écritures groupées partent en un seul MGET ou un seul pipeline
         RedisCacheWriter defaultWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory);
-        RedisCacheWriter cacheWriter = new LoggingRedisCacheWriter(defaultWriter, connectionFactory);
+        RedisCacheWriter pipeliningWriter = new PipeliningRedisCacheWriter(defaultWriter, connectionFactory,
+                properties.getClear().getBatchSize());
+        RedisCacheWriter leasingWriter = new LeasingRedisCacheWriter(pipeliningWriter, cacheRebuildLease);
+        RedisCacheWriter budgetedWriter = new BudgetedRedisCacheWriter(leasingWriter, cacheBudgets, keyPrefix);
+        RedisCacheWriter compressingWriter = new CompressingRedisCacheWriter(budgetedWriter, valueCompressor);
+        RedisCacheWriter jitteringWriter = new JitteringRedisCacheWriter(compressingWriter, ttlJitter);
+        RedisCacheWriter instrumentedWriter = new InstrumentedRedisCacheWriter(jitteringWriter, meterRegistry,
+                properties.getMetrics().getKeyLogSampleRate());
+        RedisCacheWriter generationalWriter = new GenerationalRedisCacheWriter(instrumentedWriter, cacheGenerations);
+        RedisCacheWriter cacheWriter = new HotKeyTrackingRedisCacheWriter(generationalWriter, hotKeyTracker, keyPrefix);
 
         logger.info("Currency cache configured with TTL: {} minutes", currencyTtl.toMinutes());
 
-        return RedisCacheManager.builder(cacheWriter)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(cacheWriter)
                 .cacheDefaults(defaultConfig)
+                .withCacheConfiguration(PRODUCTS_CACHE, productsConfig)
+                .withCacheConfiguration(PRODUCT_CACHE, productConfig)
                 .withCacheConfiguration(WEATHER_CACHE, weatherConfig)
                 .withCacheConfiguration(CURRENCY_CACHE, currencyConfig)
-                .withCacheConfiguration(CURRENCIES_CACHE, currencyConfig)
-                .transactionAware()
+                .withCacheConfiguration(CURRENCIES_CACHE, currenciesConfig)
                 .build();
+        // Non exposé comme bean : on initialise nous-mêmes les caches configurés
+        redisCacheManager.afterPropertiesSet();
+
+        // Cache local (L1) devant Redis, invalidé entre nœuds par pub/sub
+        CacheInvalidationPublisher publisher = new CacheInvalidationPublisher(connectionFactory, objectMapper,
+                properties.getNear().getInvalidationChannel(), UUID.randomUUID().toString());
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(redisCacheManager, properties, publisher,
+                adaptiveTtlPolicy, cacheGenerations, hotKeyTracker, true);
+        // Les entrées évincées par budget sont aussi retirées des L1
+        cacheBudgets.setEvictionListener(cacheManager::evictNearCaches);
+        return cacheManager;
     }
 
     /**
-     * RedisCacheWriter personnalisé qui log les hits et misses du cache
+     * TTL réglé à l'exécution si le cache est configuré en TTL adaptatif, sinon TTL fixe
+     *
+     * @param fingerprint champs de la valeur dont le changement d'un rechargement à l'autre mesure la volatilité
      */
-    private static class LoggingRedisCacheWriter implements RedisCacheWriter {
-        private final RedisCacheWriter delegate;
-        private final RedisConnectionFactory connectionFactory;
-
-        public LoggingRedisCacheWriter(RedisCacheWriter delegate, RedisConnectionFactory connectionFactory) {
-            this.delegate = delegate;
-            this.connectionFactory = connectionFactory;
-        }
-
-        @Override
-        public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
-            return delegate.store(name, key, value, ttl);
-        }
-
-        @Override
-        public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
-            return delegate.retrieve(name, key, ttl);
-        }
-
-        @Override
-        public byte[] get(String name, byte[] key) {
-            byte[] value = delegate.get(name, key);
-            if (WEATHER_CACHE.equals(name) || CURRENCY_CACHE.equals(name) || CURRENCIES_CACHE.equals(name)) {
-                if (value != null) {
-                    logger.info("Cache HIT - Cache: {}, Key: {}", name, new String(key));
-                } else {
-                    logger.info("Cache MISS - Cache: {}, Key: {}", name, new String(key));
-                }
-            }
-            return value;
-        }
-
-        @Override
-        public void put(String name, byte[] key, byte[] value, Duration ttl) {
-            delegate.put(name, key, value, ttl);
-            if (WEATHER_CACHE.equals(name) || CURRENCY_CACHE.equals(name) || CURRENCIES_CACHE.equals(name)) {
-                logger.info("Cache PUT - Cache: {}, Key: {}, TTL: {} minutes", 
-                        name, new String(key), ttl != null ? ttl.toMinutes() : "default");
-            }
-        }
-
-        @Override
-        public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
-            byte[] result = delegate.putIfAbsent(name, key, value, ttl);
-            if (WEATHER_CACHE.equals(name) || CURRENCY_CACHE.equals(name) || CURRENCIES_CACHE.equals(name)) {
-                if (result == null) {
-                    logger.info("Cache PUT (if absent) - Cache: {}, Key: {}, TTL: {} minutes", 
-                            name, new String(key), ttl != null ? ttl.toMinutes() : "default");
-                } else {
-                    logger.info("Cache SKIP (already exists) - Cache: {}, Key: {}", name, new String(key));
-                }
-            }
-            return result;
-        }
-
-        @Override
-        public void evict(String name, byte[] key) {
-            RedisConnection connection = connectionFactory.getConnection();
-            try {
-                connection.del(key);
-                if (WEATHER_CACHE.equals(name) || CURRENCY_CACHE.equals(name) || CURRENCIES_CACHE.equals(name)) {
-                    logger.info("Cache EVICT - Cache: {}, Key: {}", name, new String(key));
-                }
-            } finally {
-                connection.close();
-            }
-        }
-
-        @Override
-        public void clear(String name, byte[] pattern) {
-            RedisConnection connection = connectionFactory.getConnection();
-            try {
-                byte[][] keys = connection.keys(pattern).toArray(new byte[0][]);
-                if (keys.length > 0) {
-                    connection.del(keys);
-                    if (WEATHER_CACHE.equals(name) || CURRENCY_CACHE.equals(name) || CURRENCIES_CACHE.equals(name)) {
-                        logger.info("Cache CLEAR - Cache: {}, Pattern: {}, Keys deleted: {}", 
-                                name, new String(pattern), keys.length);
-                    }
-                }
-            } finally {
-                connection.close();
-            }
-        }
-
-        @Override
-        public CacheStatistics getCacheStatistics(String cacheName) {
-            return delegate.getCacheStatistics(cacheName);
-        }
+    private RedisCacheWriter.TtlFunction adaptiveTtl(AdaptiveTtlPolicy policy, String cacheName, Duration ttl,
+                                                     ToIntFunction<Object> fingerprint) {
+        return policy.isEnabledFor(cacheName)
+                ? policy.register(cacheName, ttl, fingerprint)
+                : RedisCacheWriter.TtlFunction.just(ttl);
+    }
 
-        @Override
-        public void clearStatistics(String cacheName) {
-            delegate.clearStatistics(cacheName);
-        }
+    private RedisCacheConfiguration cacheConfig(Duration ttl, RedisSerializer<Object> valueSerializer,
+                                                CacheKeyPrefix keyPrefix) {
+        return cacheConfig(RedisCacheWriter.TtlFunction.just(ttl), valueSerializer, keyPrefix);
+    }
 
-        @Override
-        public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector statisticsCollector) {
-            return new LoggingRedisCacheWriter(delegate.withStatisticsCollector(statisticsCollector), connectionFactory);
-        }
+    private RedisCacheConfiguration cacheConfig(RedisCacheWriter.TtlFunction ttl, RedisSerializer<Object> valueSerializer,
+                                                CacheKeyPrefix keyPrefix) {
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(ttl)
+                .computePrefixWith(keyPrefix)
+                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer))
+                .disableCachingNullValues();
     }
 }
-
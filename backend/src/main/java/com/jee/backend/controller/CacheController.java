@@ -1,6 +1,20 @@
 package com.jee.backend.controller;
 
+import com.jee.backend.cache.AdaptiveTtlPolicy;
+import com.jee.backend.cache.CacheBatchLoader;
+import com.jee.backend.cache.CacheBudgets;
+import com.jee.backend.cache.CacheGenerations;
+import com.jee.backend.cache.CacheRebuildLease;
+import com.jee.backend.cache.CacheSerializers;
+import com.jee.backend.cache.HotKeySnapshot;
+import com.jee.backend.cache.HotKeyTracker;
+import com.jee.backend.cache.TtlJitter;
+import com.jee.backend.cache.TwoTierCacheManager;
+import com.jee.backend.cache.ValueCompressor;
+import com.jee.backend.service.CacheWarmupService;
+import com.jee.backend.service.CurrencyService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.ResponseEntity;
@@ -9,7 +23,6 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Set;
 
 @RestController
 @RequestMapping("/api/cache")
@@ -22,6 +35,42 @@ public class CacheController {
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private CacheSerializers cacheSerializers;
+
+    @Autowired
+    private ValueCompressor valueCompressor;
+
+    @Autowired
+    private CacheRebuildLease cacheRebuildLease;
+
+    @Autowired
+    private TtlJitter ttlJitter;
+
+    @Autowired
+    private AdaptiveTtlPolicy adaptiveTtlPolicy;
+
+    @Autowired
+    private CacheGenerations cacheGenerations;
+
+    @Autowired
+    private CacheWarmupService cacheWarmupService;
+
+    @Autowired
+    private HotKeySnapshot hotKeySnapshot;
+
+    @Autowired
+    private HotKeyTracker hotKeyTracker;
+
+    @Autowired
+    private CacheBudgets cacheBudgets;
+
+    @Autowired
+    private CacheBatchLoader cacheBatchLoader;
+
+    @Autowired
+    private CurrencyService currencyService;
+
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getCacheStats() {
         Map<String, Object> stats = new HashMap<>();
@@ -41,6 +90,43 @@ public class CacheController {
         } catch (Exception e) {
             stats.put("error", "Could not retrieve Redis stats");
         }
+
+        // Taille moyenne des entrées et coût d'encodage/décodage par cache
+        stats.put("serialization", cacheSerializers.getStatistics());
+        // Ratio de compression et temps de compression/décompression par cache
+        stats.put("compression", valueCompressor.getStatistics());
+        if (cacheManager instanceof TwoTierCacheManager twoTierCacheManager) {
+            // Taux de hit du cache local, comparé à celui d'un LRU de même taille sur les mêmes accès
+            stats.put("nearCache", twoTierCacheManager.getNearCacheStatistics());
+            // Requêtes regroupées sur un chargement déjà en cours (protection contre les cache stampedes)
+            stats.put("singleFlight", twoTierCacheManager.getSingleFlightStatistics());
+            // Valeurs servies après le TTL souple pendant leur rafraîchissement
+            stats.put("staleWhileRevalidate", twoTierCacheManager.getStaleWhileRevalidateStatistics());
+        }
+        // Reconstructions coordonnées entre nœuds par bail Redis
+        stats.put("rebuildLease", cacheRebuildLease.getStatistics());
+        // Répartition des expirations à venir par minute (cohortes de clés expirant ensemble)
+        stats.put("ttlJitter", ttlJitter.getStatistics());
+        // TTL courant des caches adaptatifs, ajusté selon la volatilité des valeurs et le taux de hit
+        stats.put("adaptiveTtl", adaptiveTtlPolicy.getStatistics());
+        // Génération courante par cache (préfixe des clés) et vidages par incrément
+        stats.put("generations", cacheGenerations.getStatistics());
+        // Progression du dernier préchargement des caches
+        stats.put("warmup", cacheWarmupService.getStatus());
+        // Instantané local des entrées chaudes : dernière écriture et entrées rechargées au démarrage
+        stats.put("snapshot", hotKeySnapshot.getStatistics());
+        // Clés les plus lues par cache sur la dernière fenêtre (aussi via /actuator/hotkeys)
+        stats.put("hotKeys", hotKeyTracker.getStatistics());
+        try {
+            // Usage de chaque cache budgété (entrées, octets stockés) rapporté à son budget
+            stats.put("budgets", cacheBudgets.getStatistics());
+        } catch (Exception e) {
+            stats.put("budgets", "Could not retrieve cache budgets");
+        }
+        // Lots : clés servies par le L1, par le MGET Redis, chargées puis recopiées, ou réécrites en bloc
+        stats.put("batch", cacheBatchLoader.getStatistics());
+        // Matrice des taux de change en mémoire, remplacée en bloc à chaque rafraîchissement
+        stats.put("rateMatrix", currencyService.getRateMatrixStatistics());
         
         return ResponseEntity.ok(stats);
     }
@@ -56,10 +142,23 @@ public class CacheController {
     
     @PostMapping("/clear-all")
     public ResponseEntity<?> clearAllCaches() {
-        Set<String> keys = redisTemplate.keys("*");
-        if (keys != null && !keys.isEmpty()) {
-            redisTemplate.delete(keys);
+        // Vidage cache par cache : un INCR de génération par cache, sans KEYS sur tout le keyspace ;
+        // les compteurs de génération et les baux de reconstruction sont conservés
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
         }
-        return ResponseEntity.ok().body(Map.of("message", "All Redis keys cleared"));
+        return ResponseEntity.ok().body(Map.of("message", "All caches cleared", "caches", cacheManager.getCacheNames()));
+    }
+
+    /**
+     * Relance le préchargement des caches, par exemple après un vidage de Redis
+     */
+    @PostMapping("/warmup")
+    public ResponseEntity<?> warmUpCaches() {
+        cacheWarmupService.start();
+        return ResponseEntity.accepted().body(cacheWarmupService.getStatus());
     }
 }
@@ -1,5 +1,16 @@
 package com.jee.backend.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.jee.backend.dto.ConversionRequest;
+import com.jee.backend.dto.ConversionResult;
 import com.jee.backend.model.Currency;
 import com.jee.backend.service.CurrencyService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,16 +20,25 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/api/currencies")
@@ -28,16 +48,25 @@ public class CurrencyController {
 
     private static final Logger logger = LoggerFactory.getLogger(CurrencyController.class);
 
+    // Résultats poussés vers le client toutes les N lignes converties
+    private static final int BULK_FLUSH_INTERVAL = 256;
+
     private final CurrencyService currencyService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter resultWriter;
 
-    public CurrencyController(CurrencyService currencyService) {
+    public CurrencyController(CurrencyService currencyService, ObjectMapper objectMapper) {
         this.currencyService = currencyService;
+        this.objectMapper = objectMapper;
+        // Le flush est géré par lots, pas après chaque ligne
+        this.resultWriter = objectMapper.writerFor(ConversionResult.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @Operation(
             summary = "Récupérer le taux de change entre deux devises",
             description = "Récupère le taux de change entre deux devises. " +
-                    "Utilise le cache Redis distribué avec clé '#from+#to' et TTL de 1 heure. " +
+                    "Lu dans la matrice des taux en mémoire, reconstruite au démarrage et à chaque rafraîchissement. " +
                     "Les taux sont automatiquement rafraîchis toutes les heures."
     )
     @ApiResponses(value = {
@@ -67,13 +96,14 @@ public class CurrencyController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
             }
 
-            BigDecimal rate = currencyService.getExchangeRate(from, to);
-            
+            // Lecture dans la matrice des taux en mémoire : ni MongoDB ni Redis
+            BigDecimal rate = currencyService.lookupExchangeRate(from, to);
+
             Map<String, Object> response = new HashMap<>();
             response.put("from", from.toUpperCase());
             response.put("to", to.toUpperCase());
             response.put("rate", rate);
-            
+
             logger.info("GET /api/currencies/{}/{} - Success: rate={}", from, to, rate);
             return ResponseEntity.ok(response);
 
@@ -95,7 +125,7 @@ public class CurrencyController {
     @Operation(
             summary = "Convertir un montant d'une devise à une autre",
             description = "Convertit un montant d'une devise source vers une devise cible. " +
-                    "Utilise le cache Redis distribué avec clé '#from+#to' et TTL de 1 heure."
+                    "Le taux est lu dans la matrice des taux en mémoire."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -133,17 +163,18 @@ public class CurrencyController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
             }
 
-            BigDecimal convertedAmount = currencyService.convert(from, to, amount);
-            BigDecimal rate = currencyService.getExchangeRate(from, to);
-            
+            // Un seul accès au taux pour le montant converti et le taux renvoyé
+            ConversionResult conversion = currencyService.convertWithRate(from, to, amount);
+            BigDecimal convertedAmount = conversion.getConvertedAmount();
+
             Map<String, Object> response = new HashMap<>();
-            response.put("from", from.toUpperCase());
-            response.put("to", to.toUpperCase());
+            response.put("from", conversion.getFrom());
+            response.put("to", conversion.getTo());
             response.put("amount", amount);
             response.put("convertedAmount", convertedAmount);
-            response.put("rate", rate);
-            
-            logger.info("GET /api/currencies/{}/{}/{} - Success: {} {} = {} {}", 
+            response.put("rate", conversion.getRate());
+
+            logger.info("GET /api/currencies/{}/{}/{} - Success: {} {} = {} {}",
                     from, to, amount, amount, from.toUpperCase(), convertedAmount, to.toUpperCase());
             return ResponseEntity.ok(response);
 
@@ -162,6 +193,148 @@ public class CurrencyController {
         }
     }
 
+    @Operation(
+            summary = "Convertir des montants en masse (streaming)",
+            description = "Accepte un flux NDJSON (application/x-ndjson) ou un tableau JSON de lignes " +
+                    "{\"from\", \"to\", \"amount\"}. Les résultats sont renvoyés au fil du calcul, dans le même format " +
+                    "que la requête, sans jamais charger tout le lot en mémoire. Chaque paire n'est résolue qu'une fois ; " +
+                    "une ligne invalide produit un résultat avec \"error\" sans interrompre le lot."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Flux des résultats, un par ligne reçue, avec leur index",
+                    content = @Content(schema = @Schema(implementation = ConversionResult.class))
+            )
+    })
+    @PostMapping(value = "/convert/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public void convertBulk(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body,
+                            HttpServletResponse response) throws IOException {
+        boolean ndjson = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType);
+        logger.info("POST /api/currencies/convert/bulk - Request received ({})", ndjson ? "NDJSON" : "JSON array");
+
+        response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (JsonParser parser = objectMapper.getFactory().createParser(body);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            if (ndjson) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+            } else {
+                generator.writeStartArray();
+            }
+            long[] written = {0};
+            try {
+                long lines = currencyService.convertAll(new ConversionRequestReader(parser), result -> {
+                    writeResult(generator, result);
+                    if (++written[0] % BULK_FLUSH_INTERVAL == 0) {
+                        flush(generator);
+                    }
+                });
+                logger.info("POST /api/currencies/convert/bulk - Success: {} lines", lines);
+            } catch (UncheckedIOException e) {
+                if (!(e.getCause() instanceof JsonProcessingException malformed)) {
+                    // Écriture impossible (client déconnecté) : rien de plus à envoyer
+                    throw e.getCause();
+                }
+                // Le statut 200 est déjà parti : l'erreur devient la dernière ligne du flux
+                logger.warn("POST /api/currencies/convert/bulk - Stopped after {} lines: {}", written[0], malformed.getOriginalMessage());
+                generator.writeStartObject();
+                generator.writeNumberField("index", written[0]);
+                generator.writeStringField("error", "Malformed input: " + malformed.getOriginalMessage());
+                generator.writeBooleanField("success", false);
+                generator.writeEndObject();
+            }
+            if (!ndjson) {
+                generator.writeEndArray();
+            } else {
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private void writeResult(JsonGenerator generator, ConversionResult result) {
+        try {
+            resultWriter.writeValue(generator, result);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void flush(JsonGenerator generator) {
+        try {
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Lit les lignes de conversion une à une, depuis un flux NDJSON ou un tableau JSON
+     * Chaque ligne est lue en arbre : un champ mal typé donne une ligne en erreur sans désynchroniser le parseur
+     */
+    private static class ConversionRequestReader implements Iterator<ConversionRequest> {
+
+        private final JsonParser parser;
+        private Boolean array;
+        private JsonNode next;
+
+        ConversionRequestReader(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            try {
+                JsonToken token = parser.nextToken();
+                if (array == null) {
+                    array = token == JsonToken.START_ARRAY;
+                    if (array) {
+                        token = parser.nextToken();
+                    }
+                }
+                if (token == null || (array && token == JsonToken.END_ARRAY)) {
+                    return false;
+                }
+                next = parser.readValueAsTree();
+                return next != null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public ConversionRequest next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            JsonNode line = next;
+            next = null;
+            return new ConversionRequest(text(line, "from"), text(line, "to"), amount(line.get("amount")));
+        }
+
+        private static String text(JsonNode line, String field) {
+            JsonNode value = line.get(field);
+            return value != null && value.isTextual() ? value.asText() : null;
+        }
+
+        private static BigDecimal amount(JsonNode value) {
+            if (value == null) {
+                return null;
+            }
+            if (value.isNumber()) {
+                return value.decimalValue();
+            }
+            try {
+                return value.isTextual() ? new BigDecimal(value.asText()) : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
     @Operation(
             summary = "Récupérer toutes les devises",
             description = "Récupère la liste de toutes les devises disponibles avec leurs taux de change. " +
@@ -197,7 +370,7 @@ public class CurrencyController {
     @Operation(
             summary = "Forcer la mise à jour des taux de change",
             description = "Force la mise à jour des taux de change en rafraîchissant les données " +
-                    "et en invalidant le cache Redis. " +
+                    "et en réécrivant les entrées du cache Redis (sans les invalider). " +
                     "Cette opération simule un appel à une API externe et met à jour les taux. " +
                     "Le cache sera automatiquement rafraîchi toutes les heures."
     )
@@ -218,9 +391,9 @@ public class CurrencyController {
             Map<String, String> response = new HashMap<>();
             response.put("status", "success");
             response.put("message", "Exchange rates refreshed successfully");
-            response.put("cache", "cleared");
+            response.put("cache", "repopulated");
             
-            logger.info("POST /api/currencies/refresh - Success: Rates refreshed and cache cleared");
+            logger.info("POST /api/currencies/refresh - Success: Rates refreshed and cache repopulated");
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
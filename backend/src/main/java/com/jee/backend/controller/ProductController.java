@@ -9,6 +9,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,12 +19,20 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/products")
 @Tag(name = "Products", description = "API de gestion des produits avec cache Redis")
 public class ProductController {
 
+    private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
+
+    // Borne la taille du MGET et du findAllById d'une seule requête
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final ProductService productService;
 
     public ProductController(ProductService productService) {
@@ -33,26 +43,38 @@ public class ProductController {
     @ApiResponse(responseCode = "200", description = "Liste des produits récupérée avec succès",
             content = @Content(schema = @Schema(implementation = Product.class)))
     @GetMapping
-    public ResponseEntity<?> getAllProducts() {
+    public CompletableFuture<ResponseEntity<?>> getAllProducts() {
+        // Lecture Redis non bloquante ; sur un miss, la requête MongoDB s'exécute dans le pool de chargement
+        CompletableFuture<List<Product>> products;
         try {
-            List<Product> products = productService.getAllProducts();
-            // Toujours retourner une liste, même si elle est vide
-            if (products == null) {
-                products = java.util.Collections.emptyList();
-            }
-            return ResponseEntity.ok(products);
+            products = productService.getAllProductsAsync();
         } catch (Exception e) {
-            System.err.println("Error in getAllProducts controller: " + e.getMessage());
-            e.printStackTrace();
-            Map<String, Object> error = new HashMap<>();
-            error.put("error", e.getClass().getSimpleName());
-            error.put("message", "Failed to retrieve products");
-            error.put("details", e.getMessage());
-            if (e.getCause() != null) {
-                error.put("cause", e.getCause().getMessage());
-            }
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            return CompletableFuture.completedFuture(productsError(e));
+        }
+        return products.<ResponseEntity<?>>thenApply(result -> {
+            // Toujours retourner une liste, même si elle est vide
+            return ResponseEntity.ok(result != null ? result : java.util.Collections.emptyList());
+        }).exceptionally(this::productsError);
+    }
+
+    private ResponseEntity<?> productsError(Throwable failure) {
+        Throwable e = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (e instanceof RejectedExecutionException) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Service Unavailable");
+            error.put("message", "Too many concurrent cache loads, retry later");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+        }
+        System.err.println("Error in getAllProducts controller: " + e.getMessage());
+        e.printStackTrace();
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", e.getClass().getSimpleName());
+        error.put("message", "Failed to retrieve products");
+        error.put("details", e.getMessage());
+        if (e.getCause() != null) {
+            error.put("cause", e.getCause().getMessage());
         }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
     
     @GetMapping("/test")
@@ -113,6 +135,44 @@ public class ProductController {
         }
     }
 
+    @Operation(summary = "Récupérer plusieurs produits par ID", description = "Récupère jusqu'à " + MAX_BATCH_SIZE
+            + " produits en une requête, dans l'ordre des IDs (IDs inconnus ignorés). Un seul MGET Redis, "
+            + "un seul findAllById pour les produits absents du cache, remis en cache en un seul pipeline.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Produits trouvés",
+                    content = @Content(schema = @Schema(implementation = Product.class))),
+            @ApiResponse(responseCode = "400", description = "Liste d'IDs absente, vide ou trop longue")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<?> getProductsByIds(
+            @Parameter(description = "IDs des produits", required = true) @RequestBody(required = false) List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Bad Request");
+            error.put("message", "A non-empty list of product ids is required");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+        if (ids.size() > MAX_BATCH_SIZE) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Bad Request");
+            error.put("message", "At most " + MAX_BATCH_SIZE + " product ids per request");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+        try {
+            return ResponseEntity.ok(productService.getProductsByIds(ids));
+        } catch (Exception e) {
+            logger.error("POST /api/products/batch - Unexpected error: {}", e.getMessage(), e);
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getClass().getSimpleName());
+            error.put("message", "Failed to retrieve products");
+            error.put("details", e.getMessage());
+            if (e.getCause() != null) {
+                error.put("cause", e.getCause().getMessage());
+            }
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     @Operation(summary = "Créer un nouveau produit", description = "Crée un nouveau produit et invalide le cache Redis.")
     @ApiResponse(responseCode = "201", description = "Produit créé avec succès",
             content = @Content(schema = @Schema(implementation = Product.class)))
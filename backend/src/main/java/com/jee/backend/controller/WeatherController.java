@@ -1,6 +1,8 @@
 package com.jee.backend.controller;
 
+import com.jee.backend.dto.WeatherBatchResponse;
 import com.jee.backend.model.Weather;
+import com.jee.backend.service.CacheWarmupService;
 import com.jee.backend.service.WeatherService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -16,7 +18,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/weather")
@@ -25,11 +31,15 @@ import java.util.Map;
 public class WeatherController {
 
     private static final Logger logger = LoggerFactory.getLogger(WeatherController.class);
+    // Borne la taille du MGET et le nombre d'appels à l'API d'une seule requête
+    private static final int MAX_BATCH_CITIES = 50;
 
     private final WeatherService weatherService;
+    private final CacheWarmupService cacheWarmupService;
 
-    public WeatherController(WeatherService weatherService) {
+    public WeatherController(WeatherService weatherService, CacheWarmupService cacheWarmupService) {
         this.weatherService = weatherService;
+        this.cacheWarmupService = cacheWarmupService;
     }
 
     @Operation(
@@ -60,39 +70,106 @@ public class WeatherController {
             )
     })
     @GetMapping("/{city}")
-    public ResponseEntity<?> getWeather(
+    public CompletableFuture<ResponseEntity<?>> getWeather(
             @Parameter(description = "Nom de la ville", required = true, example = "Paris")
             @PathVariable String city) {
-        try {
-            logger.info("GET /api/weather/{} - Request received", city);
+        logger.info("GET /api/weather/{} - Request received", city);
 
-            if (city == null || city.trim().isEmpty()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Bad Request");
-                error.put("message", "City name cannot be null or empty");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
-            }
+        if (city == null || city.trim().isEmpty()) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Bad Request");
+            error.put("message", "City name cannot be null or empty");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error));
+        }
 
-            Weather weather = weatherService.getWeather(city);
-            
-            logger.info("GET /api/weather/{} - Success: temp={}°C, humidity={}%", 
-                    city, weather.getTemp(), weather.getHumidity());
-            
-            return ResponseEntity.ok(weather);
+        // Lecture Redis non bloquante ; sur un miss, l'appel à l'API s'exécute dans le pool de chargement
+        CompletableFuture<Weather> weather;
+        try {
+            weather = weatherService.getWeatherAsync(city);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(weatherError(city, e));
+        }
+        return weather.<ResponseEntity<?>>thenApply(result -> {
+            logger.info("GET /api/weather/{} - Success: temp={}°C, humidity={}%",
+                    city, result.getTemp(), result.getHumidity());
+            // Villes les plus demandées : préchargées au prochain démarrage ; une ville inconnue n'est pas comptée
+            cacheWarmupService.recordCityRequest(city);
+            return ResponseEntity.ok(result);
+        }).exceptionally(e -> weatherError(city, e));
+    }
 
-        } catch (IllegalArgumentException e) {
+    @Operation(
+            summary = "Récupérer la météo de plusieurs villes",
+            description = "Récupère la météo de jusqu'à " + MAX_BATCH_CITIES + " villes (ex. ?cities=Paris,London,Tokyo). " +
+                    "Les villes en cache sont lues en un seul MGET Redis ; les autres sont demandées à l'API " +
+                    "en parallèle, avec une concurrence bornée et une échéance par requête (weather.batch.*). " +
+                    "Les villes non chargées à temps sont listées dans 'unavailable' et la réponse est marquée 'partial'."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Météo des villes chargées, éventuellement partielle",
+                    content = @Content(schema = @Schema(implementation = WeatherBatchResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Liste de villes absente, vide ou trop longue"
+            )
+    })
+    @GetMapping(params = "cities")
+    public ResponseEntity<?> getWeatherBatch(
+            @Parameter(description = "Villes séparées par des virgules", required = true, example = "Paris,London,Tokyo")
+            @RequestParam List<String> cities) {
+        List<String> requested = cities.stream().filter(city -> city != null && !city.trim().isEmpty()).toList();
+        if (requested.isEmpty()) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Bad Request");
+            error.put("message", "At least one city is required");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+        if (requested.size() > MAX_BATCH_CITIES) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Bad Request");
+            error.put("message", "At most " + MAX_BATCH_CITIES + " cities per request");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+        logger.info("GET /api/weather?cities - Request received for {} cities", requested.size());
+        try {
+            WeatherBatchResponse response = weatherService.getWeatherBatch(requested);
+            response.getWeather().keySet().forEach(cacheWarmupService::recordCityRequest);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("GET /api/weather?cities - Unexpected error: {}", e.getMessage(), e);
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Internal Server Error");
+            error.put("message", "An unexpected error occurred: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    private ResponseEntity<?> weatherError(String city, Throwable failure) {
+        Throwable e = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (e instanceof IllegalArgumentException) {
             logger.error("GET /api/weather/{} - Validation error: {}", city, e.getMessage());
             Map<String, String> error = new HashMap<>();
             error.put("error", "Bad Request");
             error.put("message", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
-        } catch (RuntimeException e) {
+        }
+        if (e instanceof RejectedExecutionException) {
+            logger.warn("GET /api/weather/{} - Loader pool saturated", city);
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Service Unavailable");
+            error.put("message", "Too many concurrent cache loads, retry later");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+        }
+        if (e instanceof RuntimeException) {
             logger.error("GET /api/weather/{} - Error: {}", city, e.getMessage());
-            
+
             Map<String, Object> error = new HashMap<>();
             error.put("error", e.getClass().getSimpleName());
             error.put("message", e.getMessage());
-            
+
             // Déterminer le code HTTP approprié selon le type d'erreur
             HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
             if (e.getMessage() != null && e.getMessage().contains("not found")) {
@@ -100,15 +177,14 @@ public class WeatherController {
             } else if (e.getMessage() != null && e.getMessage().contains("authentication")) {
                 status = HttpStatus.UNAUTHORIZED;
             }
-            
+
             return ResponseEntity.status(status).body(error);
-        } catch (Exception e) {
-            logger.error("GET /api/weather/{} - Unexpected error: {}", city, e.getMessage(), e);
-            Map<String, Object> error = new HashMap<>();
-            error.put("error", "Internal Server Error");
-            error.put("message", "An unexpected error occurred: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
+        logger.error("GET /api/weather/{} - Unexpected error: {}", city, e.getMessage(), e);
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", "Internal Server Error");
+        error.put("message", "An unexpected error occurred: " + e.getMessage());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
 
     @Operation(
@@ -0,0 +1,46 @@
+package com.jee.backend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO d'une ligne de conversion en masse : {"from": "USD", "to": "EUR", "amount": 100}
+ */
+public class ConversionRequest {
+
+    private String from;
+    private String to;
+    private BigDecimal amount;
+
+    public ConversionRequest() {
+    }
+
+    public ConversionRequest(String from, String to, BigDecimal amount) {
+        this.from = from;
+        this.to = to;
+        this.amount = amount;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,76 @@
+package com.jee.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO du résultat d'une ligne de conversion en masse
+ * Une ligne en erreur ne porte que son index, les champs reçus et le message d'erreur
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ConversionResult {
+
+    private final long index;
+    private final String from;
+    private final String to;
+    private final BigDecimal amount;
+    private final BigDecimal convertedAmount;
+    private final BigDecimal rate;
+    private final String error;
+
+    private ConversionResult(long index, String from, String to, BigDecimal amount,
+                             BigDecimal convertedAmount, BigDecimal rate, String error) {
+        this.index = index;
+        this.from = from;
+        this.to = to;
+        this.amount = amount;
+        this.convertedAmount = convertedAmount;
+        this.rate = rate;
+        this.error = error;
+    }
+
+    public static ConversionResult success(long index, String from, String to, BigDecimal amount,
+                                           BigDecimal convertedAmount, BigDecimal rate) {
+        return new ConversionResult(index, from, to, amount, convertedAmount, rate, null);
+    }
+
+    public static ConversionResult error(long index, ConversionRequest request, String error) {
+        return new ConversionResult(index, request.getFrom(), request.getTo(), request.getAmount(), null, null, error);
+    }
+
+    /**
+     * Position de la ligne dans la requête, à partir de 0
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public BigDecimal getConvertedAmount() {
+        return convertedAmount;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.jee.backend.dto;
+
+import com.jee.backend.model.Weather;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * DTO de la météo de plusieurs villes
+ * Résultat partiel : les villes non chargées avant l'échéance du lot ou en erreur sont listées à part
+ */
+public class WeatherBatchResponse {
+
+    private final Map<String, Weather> weather = new LinkedHashMap<>();
+    private final Map<String, String> unavailable = new LinkedHashMap<>();
+
+    /**
+     * Météo par ville demandée, dans l'ordre de la requête
+     */
+    public Map<String, Weather> getWeather() {
+        return weather;
+    }
+
+    /**
+     * Raison par ville sans météo ("timeout" ou message d'erreur)
+     */
+    public Map<String, String> getUnavailable() {
+        return unavailable;
+    }
+
+    public boolean isPartial() {
+        return !unavailable.isEmpty();
+    }
+}
@@ -7,11 +7,16 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface CurrencyRepository extends MongoRepository<Currency, String> {
+public interface CurrencyRepository extends MongoRepository<Currency, String>, CurrencyRepositoryCustom {
     
     /**
      * Find currency by code (e.g., "USD", "EUR")
      */
     Optional<Currency> findByCode(String code);
+
+    /**
+     * Most recently updated currency, used to detect rates refreshed by another node
+     */
+    Optional<Currency> findFirstByOrderByLastUpdateDesc();
 }
 
@@ -0,0 +1,18 @@
+package com.jee.backend.repository;
+
+import com.jee.backend.model.Currency;
+
+import java.util.Collection;
+
+/**
+ * Bulk operations on currencies not covered by the derived queries of {@link CurrencyRepository}
+ */
+public interface CurrencyRepositoryCustom {
+
+    /**
+     * Update rate and lastUpdate of existing currencies with a single unordered bulk write
+     *
+     * @return number of documents modified
+     */
+    int updateRates(Collection<Currency> currencies);
+}
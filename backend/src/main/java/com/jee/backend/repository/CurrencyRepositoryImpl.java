@@ -0,0 +1,36 @@
+package com.jee.backend.repository;
+
+import com.jee.backend.model.Currency;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+
+/**
+ * Implementation of {@link CurrencyRepositoryCustom}, picked up by Spring Data through the "Impl" suffix
+ */
+public class CurrencyRepositoryImpl implements CurrencyRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public CurrencyRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public int updateRates(Collection<Currency> currencies) {
+        if (currencies.isEmpty()) {
+            return 0;
+        }
+        // One round trip for all currencies, where saveAll() on existing documents saves them one by one
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Currency.class);
+        for (Currency currency : currencies) {
+            bulk.updateOne(Query.query(Criteria.where("_id").is(currency.getId())),
+                    new Update().set("rate", currency.getRate()).set("lastUpdate", currency.getLastUpdate()));
+        }
+        return bulk.execute().getModifiedCount();
+    }
+}
@@ -0,0 +1,252 @@
+package com.jee.backend.service;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Préchargement des caches au démarrage (après un déploiement ou un vidage de Redis) :
+ * liste des produits, liste des devises, toutes les paires de devises et les villes météo les plus demandées.
+ *
+ * Les chargements passent par les méthodes @Cacheable des services, exécutés en parallèle avec une
+ * concurrence bornée ; une entrée déjà en cache n'est donc pas rechargée. Les villes préchargées sont celles
+ * configurées, complétées des villes les plus demandées, comptées localement puis cumulées dans un sorted set Redis
+ * borné aux villes les plus demandées.
+ * La readiness reste refusée tant que la fraction configurée du préchargement n'est pas terminée
+ * (voir CacheWarmupHealthIndicator).
+ */
+@Service
+public class CacheWarmupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmupService.class);
+    private static final String POPULAR_CITIES_KEY = "cacheflow:warmup:weather-cities";
+
+    private final ProductService productService;
+    private final CurrencyService currencyService;
+    private final WeatherService weatherService;
+    private final StringRedisTemplate redisTemplate;
+    private final CacheFlowProperties.Warmup properties;
+    private final Map<String, LongAdder> cityRequests = new ConcurrentHashMap<>();
+    private volatile WarmupRun currentRun;
+    private volatile long readySinceMillis;
+
+    public CacheWarmupService(ProductService productService, CurrencyService currencyService,
+                              WeatherService weatherService, StringRedisTemplate redisTemplate,
+                              CacheFlowProperties properties) {
+        this.productService = productService;
+        this.currencyService = currencyService;
+        this.weatherService = weatherService;
+        this.redisTemplate = redisTemplate;
+        this.properties = properties.getWarmup();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        readySinceMillis = System.currentTimeMillis();
+        if (properties.isEnabled()) {
+            start();
+        }
+    }
+
+    /**
+     * Lance un préchargement, ou retourne celui en cours
+     */
+    public synchronized CompletableFuture<Void> start() {
+        WarmupRun run = currentRun;
+        if (run != null && !run.completion.isDone()) {
+            return run.completion;
+        }
+        Map<String, Runnable> tasks = planTasks();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, properties.getConcurrency()), runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        WarmupRun newRun = new WarmupRun(tasks.size());
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
+        tasks.forEach((name, task) -> loads.add(CompletableFuture.runAsync(() -> execute(newRun, name, task), executor)));
+        newRun.completion = CompletableFuture.allOf(loads.toArray(new CompletableFuture[0]))
+                .whenComplete((ignored, error) -> {
+                    executor.shutdown();
+                    newRun.finishedAtMillis = System.currentTimeMillis();
+                    logger.info("Cache warm-up finished - Tasks: {}, Failed: {}, Duration: {} ms", newRun.total,
+                            newRun.failed.get(), newRun.finishedAtMillis - newRun.startedAtMillis);
+                });
+        currentRun = newRun;
+        logger.info("Cache warm-up started - Tasks: {}, Concurrency: {}", newRun.total, properties.getConcurrency());
+        return newRun.completion;
+    }
+
+    private void execute(WarmupRun run, String name, Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            // Un échec ne bloque pas la readiness : la clé sera chargée à la première requête
+            run.failed.incrementAndGet();
+            logger.warn("Cache warm-up task failed - Task: {}, Error: {}", name, e.getMessage());
+        } finally {
+            run.completed.incrementAndGet();
+        }
+    }
+
+    private Map<String, Runnable> planTasks() {
+        Map<String, Runnable> tasks = new LinkedHashMap<>();
+        tasks.put("products", productService::getAllProducts);
+        tasks.put("currencies", currencyService::getAllCurrencies);
+        Set<String> codes = currencyService.getSupportedCurrencies();
+        for (String from : codes) {
+            for (String to : codes) {
+                tasks.put("currency:" + from + "+" + to, () -> currencyService.getExchangeRate(from, to));
+            }
+        }
+        for (String city : citiesToWarm()) {
+            tasks.put("weather:" + city, () -> weatherService.getWeather(city));
+        }
+        return tasks;
+    }
+
+    /**
+     * Villes configurées puis villes les plus demandées (clé du cache météo : nom en minuscules)
+     */
+    private Set<String> citiesToWarm() {
+        Set<String> cities = new LinkedHashSet<>();
+        properties.getCities().forEach(city -> cities.add(city.trim().toLowerCase(Locale.ROOT)));
+        if (properties.getLearnedCities() > 0) {
+            try {
+                Set<String> popular = redisTemplate.opsForZSet()
+                        .reverseRange(POPULAR_CITIES_KEY, 0, properties.getLearnedCities() - 1);
+                if (popular != null) {
+                    cities.addAll(popular);
+                }
+            } catch (Exception e) {
+                logger.warn("Could not read popular weather cities for warm-up: {}", e.getMessage());
+            }
+        }
+        cities.remove("");
+        return cities;
+    }
+
+    /**
+     * Compte une demande de météo réussie pour une ville ; cumulé dans Redis par {@link #flushCityRequests()}.
+     * Entre deux envois, au plus tracked-cities villes sont comptées : les nouvelles villes au-delà sont ignorées.
+     */
+    public void recordCityRequest(String city) {
+        if (city == null || city.isBlank() || properties.getLearnedCities() <= 0) {
+            return;
+        }
+        String key = city.trim().toLowerCase(Locale.ROOT);
+        LongAdder count = cityRequests.get(key);
+        if (count == null) {
+            if (cityRequests.size() >= properties.getTrackedCities()) {
+                return;
+            }
+            count = cityRequests.computeIfAbsent(key, ignored -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${cacheflow.warmup.city-flush-interval:1m}")
+    public void flushCityRequests() {
+        if (cityRequests.isEmpty()) {
+            return;
+        }
+        Map<String, Long> counts = new HashMap<>();
+        cityRequests.forEach((city, count) -> {
+            long requests = count.sumThenReset();
+            if (requests > 0) {
+                counts.put(city, requests);
+            }
+        });
+        cityRequests.entrySet().removeIf(entry -> entry.getValue().sum() == 0);
+        if (counts.isEmpty()) {
+            return;
+        }
+        byte[] key = POPULAR_CITIES_KEY.getBytes(StandardCharsets.UTF_8);
+        long tracked = Math.max(properties.getTrackedCities(), properties.getLearnedCities());
+        try {
+            // Un seul aller-retour pour toutes les villes demandées depuis le dernier envoi ;
+            // seules les villes les plus demandées sont gardées, les villes demandées une fois finissent par sortir
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                counts.forEach((city, requests) ->
+                        connection.zSetCommands().zIncrBy(key, requests, city.getBytes(StandardCharsets.UTF_8)));
+                connection.zSetCommands().zRemRange(key, 0, -tracked - 1);
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("Could not record popular weather cities: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Vrai quand la fraction configurée du préchargement est terminée, ou quand le délai de readiness est dépassé
+     */
+    public boolean isReady() {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        WarmupRun run = currentRun;
+        if (run != null && (run.total == 0 || (double) run.completed.get() / run.total >= properties.getReadinessFraction())) {
+            return true;
+        }
+        Duration timeout = properties.getReadinessTimeout();
+        return readySinceMillis > 0 && System.currentTimeMillis() - readySinceMillis >= timeout.toMillis();
+    }
+
+    /**
+     * Progression du dernier préchargement
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", properties.isEnabled());
+        WarmupRun run = currentRun;
+        if (run == null) {
+            status.put("state", "pending");
+            return status;
+        }
+        status.put("state", run.completion.isDone() ? "finished" : "running");
+        status.put("tasks", run.total);
+        status.put("completed", run.completed.get());
+        status.put("failed", run.failed.get());
+        status.put("readinessFraction", properties.getReadinessFraction());
+        long end = run.finishedAtMillis > 0 ? run.finishedAtMillis : System.currentTimeMillis();
+        status.put("durationMs", end - run.startedAtMillis);
+        return status;
+    }
+
+    private static final class WarmupRun {
+        private final int total;
+        private final long startedAtMillis = System.currentTimeMillis();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile long finishedAtMillis;
+        private CompletableFuture<Void> completion;
+
+        private WarmupRun(int total) {
+            this.total = total;
+        }
+    }
+}
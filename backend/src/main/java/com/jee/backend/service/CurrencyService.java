@@ -1,11 +1,19 @@
 package com.jee.backend.service;
 
+import com.jee.backend.cache.CacheBatchLoader;
+import com.jee.backend.cache.StaleWhileRevalidateCache;
+import com.jee.backend.dto.ConversionRequest;
+import com.jee.backend.dto.ConversionResult;
 import com.jee.backend.model.Currency;
 import com.jee.backend.repository.CurrencyRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.SimpleKey;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -14,6 +22,10 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
 
 @Service
 public class CurrencyService {
@@ -23,6 +35,20 @@ public class CurrencyService {
     private static final String CURRENCIES_CACHE = "currencies";
 
     private final CurrencyRepository currencyRepository;
+    private final CacheManager cacheManager;
+    private final CacheBatchLoader cacheBatchLoader;
+
+    // Relative change below which a refreshed rate is not rewritten
+    @Value("${currency.refresh.min-change:0.001}")
+    private double minChange;
+
+    // Simulated relative move of a rate on refresh, between -1% and +1%
+    private static final DoubleSupplier RANDOM_RATE_VARIATION = () -> Math.random() * 0.02 - 0.01;
+
+    private final DoubleSupplier rateVariation;
+
+    // Cross rates of every currency pair, replaced as a whole on refresh so readers never see a half-built table
+    private final AtomicReference<ExchangeRateMatrix> rateMatrix = new AtomicReference<>();
 
     // Mock exchange rates relative to USD (base currency)
     private static final Map<String, BigDecimal> MOCK_RATES = new HashMap<>();
@@ -38,8 +64,21 @@ public class CurrencyService {
         MOCK_RATES.put("CNY", new BigDecimal("7.20"));  // 1 USD = 7.20 CNY
     }
 
-    public CurrencyService(CurrencyRepository currencyRepository) {
+    @Autowired
+    public CurrencyService(CurrencyRepository currencyRepository, CacheManager cacheManager,
+                           CacheBatchLoader cacheBatchLoader) {
+        this(currencyRepository, cacheManager, cacheBatchLoader, RANDOM_RATE_VARIATION);
+    }
+
+    /**
+     * @param rateVariation relative move applied to each rate by refreshRates(), e.g. 0.005 for +0.5%
+     */
+    CurrencyService(CurrencyRepository currencyRepository, CacheManager cacheManager,
+                    CacheBatchLoader cacheBatchLoader, DoubleSupplier rateVariation) {
         this.currencyRepository = currencyRepository;
+        this.cacheManager = cacheManager;
+        this.cacheBatchLoader = cacheBatchLoader;
+        this.rateVariation = rateVariation;
     }
 
     /**
@@ -69,58 +108,139 @@ public class CurrencyService {
             logger.warn("MongoDB not available for currency initialization. Currency service will use mock rates: {}", e.getMessage());
             logger.info("Currency service will continue to work with mock exchange rates");
         }
+        rateMatrix.set(loadRateMatrix());
     }
 
     /**
      * Get exchange rate between two currencies
      * Uses @Cacheable with key "#from+#to" for distributed caching
+     * sync = true lets concurrent misses for the same pair share a single load
+     * A miss is answered by the in-memory rate matrix, without any MongoDB query
      */
-    @Cacheable(value = CURRENCY_CACHE, key = "#from.toUpperCase() + '+' + #to.toUpperCase()", unless = "#result == null")
+    @Cacheable(value = CURRENCY_CACHE, key = "#from.toUpperCase() + '+' + #to.toUpperCase()", sync = true)
     public BigDecimal getExchangeRate(String from, String to) {
         logger.info("Cache MISS - Fetching exchange rate from {} to {}", from, to);
-        
+        return lookupExchangeRate(from, to);
+    }
+
+    /**
+     * Non-blocking variant of getExchangeRate sharing the same cache entry:
+     * Redis is read asynchronously and a miss is answered by the in-memory rate matrix
+     */
+    @Cacheable(value = CURRENCY_CACHE, key = "#from.toUpperCase() + '+' + #to.toUpperCase()", sync = true)
+    public CompletableFuture<BigDecimal> getExchangeRateAsync(String from, String to) {
+        logger.info("Cache MISS - Fetching exchange rate asynchronously from {} to {}", from, to);
+        return CompletableFuture.completedFuture(lookupExchangeRate(from, to));
+    }
+
+    /**
+     * Exchange rate read from the in-memory rate matrix
+     * Neither MongoDB nor Redis is touched: the matrix is rebuilt from the repository on startup and on every refresh
+     */
+    public BigDecimal lookupExchangeRate(String from, String to) {
         if (from == null || to == null) {
             throw new IllegalArgumentException("Currency codes cannot be null");
         }
-        
-        String fromUpper = from.toUpperCase();
-        String toUpper = to.toUpperCase();
-        
-        if (fromUpper.equals(toUpper)) {
+        if (from.equalsIgnoreCase(to)) {
             return BigDecimal.ONE;
         }
-        
-        // Get rates relative to USD
-        BigDecimal fromRate = getRateForCurrency(fromUpper);
-        BigDecimal toRate = getRateForCurrency(toUpper);
-        
-        // Convert: toRate / fromRate
-        // Example: EUR to GBP = (GBP/USD) / (EUR/USD) = 0.79 / 0.91 = 0.868
-        BigDecimal exchangeRate = toRate.divide(fromRate, 6, RoundingMode.HALF_UP);
-        
-        logger.info("Exchange rate from {} to {}: {}", fromUpper, toUpper, exchangeRate);
-        return exchangeRate;
+        // Example: EUR to GBP = (GBP/USD) / (EUR/USD) = 0.79 / 0.91 = 0.868132
+        return currentRateMatrix().rate(from, to);
+    }
+
+    /**
+     * Same rate as lookupExchangeRate, as a long with FixedPointConverter.RATE_SCALE decimals
+     */
+    public long lookupScaledExchangeRate(String from, String to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Currency codes cannot be null");
+        }
+        if (from.equalsIgnoreCase(to)) {
+            return FixedPointConverter.SCALED_ONE;
+        }
+        return currentRateMatrix().scaledRate(from, to);
     }
 
     /**
      * Convert amount from one currency to another
-     * Uses cached exchange rate from getExchangeRate method
+     * Uses the in-memory rate matrix, so a conversion never waits on MongoDB or Redis,
+     * and fixed-point arithmetic rounding HALF_UP at scale 2, like amount × rate in BigDecimal
      */
     public BigDecimal convert(String from, String to, BigDecimal amount) {
         logger.info("Converting {} {} to {}", amount, from, to);
-        
+
         if (amount == null || amount.compareTo(BigDecimal.ZERO) < 0) {
             throw new IllegalArgumentException("Amount must be positive");
         }
-        
-        // This will use the cached rate from getExchangeRate
-        BigDecimal exchangeRate = getExchangeRate(from, to);
-        BigDecimal convertedAmount = amount.multiply(exchangeRate).setScale(2, RoundingMode.HALF_UP);
+
+        BigDecimal convertedAmount = FixedPointConverter.convert(amount, lookupScaledExchangeRate(from, to));
         
         logger.info("Converted {} {} to {} {}", amount, from.toUpperCase(), convertedAmount, to.toUpperCase());
         return convertedAmount;
     }
 
+    /**
+     * Convert amount and return it with the rate used, from a single rate lookup
+     */
+    public ConversionResult convertWithRate(String from, String to, BigDecimal amount) {
+        ConversionResult result = convertRecord(0, new ConversionRequest(from, to, amount), new HashMap<>());
+        if (!result.isSuccess()) {
+            throw new IllegalArgumentException(result.getError());
+        }
+        logger.info("Converted {} {} to {} {}", amount, result.getFrom(), result.getConvertedAmount(), result.getTo());
+        return result;
+    }
+
+    /**
+     * Convert a stream of amounts, handing each result to the consumer as soon as it is computed
+     * Requests are pulled one at a time, so the batch is never held in memory. Each distinct pair is
+     * resolved once: the whole batch uses the same rates even if a refresh happens meanwhile.
+     * An invalid line produces an error result and does not stop the batch.
+     *
+     * @return number of lines converted or rejected
+     */
+    public long convertAll(Iterator<ConversionRequest> requests, Consumer<ConversionResult> results) {
+        Map<String, Map<String, Long>> pairRates = new HashMap<>();
+        long index = 0;
+        long errors = 0;
+        while (requests.hasNext()) {
+            ConversionResult result = convertRecord(index++, requests.next(), pairRates);
+            if (!result.isSuccess()) {
+                errors++;
+            }
+            results.accept(result);
+        }
+        logger.info("Bulk conversion completed - Lines: {}, Errors: {}, Distinct pairs: {}", index, errors,
+                pairRates.values().stream().mapToInt(Map::size).sum());
+        return index;
+    }
+
+    private ConversionResult convertRecord(long index, ConversionRequest request, Map<String, Map<String, Long>> pairRates) {
+        if (request.getFrom() == null || request.getTo() == null) {
+            return ConversionResult.error(index, request, "Currency codes cannot be null");
+        }
+        if (request.getAmount() == null || request.getAmount().signum() < 0) {
+            return ConversionResult.error(index, request, "Amount must be positive");
+        }
+        String from = request.getFrom().toUpperCase();
+        String to = request.getTo().toUpperCase();
+
+        // Only supported pairs are remembered, so the map stays within N×N entries whatever the input
+        Map<String, Long> fromRates = pairRates.get(from);
+        Long scaledRate = fromRates != null ? fromRates.get(to) : null;
+        if (scaledRate == null) {
+            try {
+                scaledRate = lookupScaledExchangeRate(from, to);
+            } catch (IllegalArgumentException e) {
+                return ConversionResult.error(index, request, e.getMessage());
+            }
+            pairRates.computeIfAbsent(from, code -> new HashMap<>()).put(to, scaledRate);
+        }
+        return ConversionResult.success(index, from, to, request.getAmount(),
+                FixedPointConverter.convert(request.getAmount(), scaledRate),
+                BigDecimal.valueOf(scaledRate, FixedPointConverter.RATE_SCALE));
+    }
+
     /**
      * Get all currencies with their rates
      * Cached for the /currencies/all endpoint
@@ -135,33 +255,103 @@ public class CurrencyService {
 
     /**
      * Refresh exchange rates (simulates fetching from external API)
-     * Clears cache and updates rates
+     * All new rates are computed first, rates moving less than the threshold are skipped, and the changed
+     * ones are saved with a single bulk write. Cached pairs and the currency list are then overwritten
+     * in place instead of evicted, so readers never hit an empty cache after a refresh.
      */
-    @CacheEvict(value = {CURRENCY_CACHE, CURRENCIES_CACHE}, allEntries = true)
     public void refreshRates() {
-        logger.info("Refreshing exchange rates - Clearing cache");
-        
+        logger.info("Refreshing exchange rates");
+
         // In a real scenario, this would fetch rates from an external API
-        // For demo purposes, we'll just update the lastUpdate timestamp
         List<Currency> currencies = currencyRepository.findAll();
         LocalDateTime now = LocalDateTime.now();
-        
+        List<Currency> changed = new ArrayList<>();
+
         for (Currency currency : currencies) {
-            // Simulate slight rate variation for demo (add small random variation)
+            // Simulate slight rate variation for demo, relative to the rate so JPY moves as much as EUR
             BigDecimal currentRate = currency.getRate();
-            BigDecimal variation = new BigDecimal(Math.random() * 0.02 - 0.01); // ±1% variation
-            BigDecimal newRate = currentRate.add(variation).setScale(2, RoundingMode.HALF_UP);
-            
-            // Ensure rate stays within reasonable bounds
-            if (newRate.compareTo(BigDecimal.ZERO) > 0) {
+            BigDecimal variation = BigDecimal.valueOf(rateVariation.getAsDouble()); // ±1% variation
+            BigDecimal newRate = currentRate.multiply(BigDecimal.ONE.add(variation)).setScale(2, RoundingMode.HALF_UP);
+
+            // Ensure rate stays within reasonable bounds and moved enough to be worth rewriting
+            if (newRate.compareTo(BigDecimal.ZERO) > 0 && isSignificantChange(currentRate, newRate)) {
                 currency.setRate(newRate);
                 currency.setLastUpdate(now);
-                currencyRepository.save(currency);
+                changed.add(currency);
                 logger.info("Updated rate for {}: {} (was {})", currency.getCode(), newRate, currentRate);
             }
         }
-        
-        logger.info("Exchange rates refreshed successfully");
+
+        // Rebuilt even when nothing moved here: the stored rates may have been changed by another node
+        ExchangeRateMatrix matrix = buildRateMatrix(currencies);
+        if (changed.isEmpty()) {
+            rateMatrix.set(matrix);
+            logger.info("Exchange rates refreshed - No rate moved by at least {}", minChange);
+            return;
+        }
+        int modified = currencyRepository.updateRates(changed);
+
+        // The saved currencies already hold the new rates: no need to read them back
+        rateMatrix.set(matrix);
+        repopulateCaches(matrix, currencies, changed);
+        logger.info("Exchange rates refreshed successfully - Changed: {}, Saved: {}, Skipped: {}",
+                changed.size(), modified, currencies.size() - changed.size());
+    }
+
+    private boolean isSignificantChange(BigDecimal currentRate, BigDecimal newRate) {
+        if (currentRate == null || currentRate.signum() <= 0) {
+            return true;
+        }
+        double relativeChange = newRate.subtract(currentRate).abs().doubleValue() / currentRate.doubleValue();
+        return relativeChange > 0 && relativeChange >= minChange;
+    }
+
+    /**
+     * Overwrite the cached pairs involving a changed currency in one Redis transaction, then the cached list
+     * Falls back to eviction if the overwrite fails, so stale rates are never served until their TTL
+     */
+    private void repopulateCaches(ExchangeRateMatrix matrix, List<Currency> currencies, List<Currency> changed) {
+        Set<String> changedCodes = new HashSet<>();
+        changed.forEach(currency -> changedCodes.add(currency.getCode().toUpperCase()));
+        Map<String, BigDecimal> pairs = new LinkedHashMap<>();
+        for (String from : matrix.codes()) {
+            for (String to : matrix.codes()) {
+                if (changedCodes.contains(from) || changedCodes.contains(to)) {
+                    pairs.put(from + "+" + to, lookupExchangeRate(from, to));
+                }
+            }
+        }
+
+        try {
+            cacheBatchLoader.putAll(CURRENCY_CACHE, pairs);
+            logger.info("Currency cache repopulated - Pairs: {}", pairs.size());
+        } catch (Exception e) {
+            logger.warn("Could not repopulate currency cache, evicting it instead: {}", e.getMessage());
+            evictQuietly(CURRENCY_CACHE);
+        }
+
+        try {
+            // Same key as @Cacheable on the no-argument getAllCurrencies()
+            Cache currenciesCache = cacheManager.getCache(CURRENCIES_CACHE);
+            StaleWhileRevalidateCache staleWhileRevalidate = StaleWhileRevalidateCache.find(currenciesCache);
+            if (staleWhileRevalidate != null) {
+                // Keeps the load time of the list, so early expiration still applies to it
+                staleWhileRevalidate.replace(SimpleKey.EMPTY, currencies);
+            } else {
+                currenciesCache.put(SimpleKey.EMPTY, currencies);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not repopulate currencies cache, evicting it instead: {}", e.getMessage());
+            evictQuietly(CURRENCIES_CACHE);
+        }
+    }
+
+    private void evictQuietly(String cacheName) {
+        try {
+            cacheManager.getCache(cacheName).clear();
+        } catch (Exception e) {
+            logger.warn("Could not evict cache {}: {}", cacheName, e.getMessage());
+        }
     }
 
     /**
@@ -179,23 +369,90 @@ public class CurrencyService {
     }
 
     /**
-     * Get rate for a specific currency code
-     * Returns rate relative to USD
+     * Reload the rate matrix when another node has saved newer rates
+     * Reads a single currency, the most recently updated one, and only reloads all rates when it is newer
+     * than the rates the matrix was built from
      */
-    private BigDecimal getRateForCurrency(String code) {
-        Optional<Currency> currency = currencyRepository.findByCode(code);
-        if (currency.isPresent()) {
-            return currency.get().getRate();
+    @Scheduled(fixedDelayString = "${currency.matrix.check-interval:30s}", initialDelayString = "${currency.matrix.check-interval:30s}")
+    public void reloadRateMatrixIfStale() {
+        ExchangeRateMatrix matrix = rateMatrix.get();
+        if (matrix == null) {
+            return;
         }
-        
-        // Fallback to mock rates if not in database
-        BigDecimal rate = MOCK_RATES.get(code);
-        if (rate != null) {
-            logger.warn("Currency {} not found in database, using mock rate: {}", code, rate);
-            return rate;
+        try {
+            LocalDateTime stored = currencyRepository.findFirstByOrderByLastUpdateDesc()
+                    .map(Currency::getLastUpdate)
+                    .orElse(null);
+            if (stored != null && (matrix.getLastUpdate() == null || stored.isAfter(matrix.getLastUpdate()))) {
+                // A local refresh in the meantime wins over this reload
+                if (rateMatrix.compareAndSet(matrix, loadRateMatrix())) {
+                    logger.info("Rate matrix reloaded - Rates updated at {} by another node", stored);
+                }
+            }
+        } catch (Exception e) {
+            logger.debug("Could not check rate matrix freshness: {}", e.getMessage());
         }
-        
-        throw new IllegalArgumentException("Currency code not supported: " + code);
+    }
+
+    /**
+     * Rate matrix in use, built on first use if initializeRates() has not run yet
+     */
+    private ExchangeRateMatrix currentRateMatrix() {
+        ExchangeRateMatrix matrix = rateMatrix.get();
+        if (matrix != null) {
+            return matrix;
+        }
+        // A concurrent refresh wins over this initial build
+        rateMatrix.compareAndSet(null, loadRateMatrix());
+        return rateMatrix.get();
+    }
+
+    /**
+     * Build the rate matrix from all currencies stored in MongoDB
+     * Falls back to mock rates only when MongoDB is not available
+     */
+    private ExchangeRateMatrix loadRateMatrix() {
+        try {
+            return buildRateMatrix(currencyRepository.findAll());
+        } catch (Exception e) {
+            logger.warn("MongoDB not available for the rate matrix, using mock rates: {}", e.getMessage());
+            return buildRateMatrix(List.of());
+        }
+    }
+
+    /**
+     * Rates relative to USD: stored currencies override mock rates, missing ones fall back to mock rates
+     */
+    private ExchangeRateMatrix buildRateMatrix(List<Currency> currencies) {
+        Map<String, BigDecimal> usdRates = new HashMap<>(MOCK_RATES);
+        LocalDateTime lastUpdate = null;
+        for (Currency currency : currencies) {
+            if (currency.getCode() != null && currency.getRate() != null && currency.getRate().signum() > 0) {
+                usdRates.put(currency.getCode().toUpperCase(), currency.getRate());
+            }
+            if (currency.getLastUpdate() != null && (lastUpdate == null || currency.getLastUpdate().isAfter(lastUpdate))) {
+                lastUpdate = currency.getLastUpdate();
+            }
+        }
+        ExchangeRateMatrix matrix = ExchangeRateMatrix.of(usdRates, lastUpdate);
+        logger.info("Rate matrix built - Currencies: {}, Pairs: {}", matrix.size(), matrix.size() * matrix.size());
+        return matrix;
+    }
+
+    /**
+     * Size and build time of the rate matrix in use
+     */
+    public Map<String, Object> getRateMatrixStatistics() {
+        ExchangeRateMatrix matrix = rateMatrix.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("built", matrix != null);
+        if (matrix != null) {
+            stats.put("currencies", matrix.size());
+            stats.put("pairs", matrix.size() * matrix.size());
+            stats.put("builtAt", matrix.getBuiltAt().toString());
+            stats.put("ratesUpdatedAt", matrix.getLastUpdate() != null ? matrix.getLastUpdate().toString() : null);
+        }
+        return stats;
     }
 
     /**
@@ -0,0 +1,113 @@
+package com.jee.backend.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable N×N table of cross rates between all known currencies
+ * Every pair is divided once when the matrix is built, so a lookup is two map reads and an array access
+ */
+public final class ExchangeRateMatrix {
+
+    private final Map<String, Integer> index;
+    private final BigDecimal[][] rates;
+    private final long[][] scaledRates;
+    private final Instant builtAt;
+    private final LocalDateTime lastUpdate;
+
+    private ExchangeRateMatrix(Map<String, Integer> index, BigDecimal[][] rates, long[][] scaledRates, Instant builtAt,
+                               LocalDateTime lastUpdate) {
+        this.index = index;
+        this.rates = rates;
+        this.scaledRates = scaledRates;
+        this.builtAt = builtAt;
+        this.lastUpdate = lastUpdate;
+    }
+
+    /**
+     * Build the matrix from rates relative to USD, keyed by upper-case currency code
+     * Cross rates use the same precision as the former per-request computation: toRate / fromRate, scale 6, HALF_UP
+     */
+    public static ExchangeRateMatrix of(Map<String, BigDecimal> usdRates) {
+        return of(usdRates, null);
+    }
+
+    /**
+     * Same as {@link #of(Map)}, remembering the newest update time of the stored rates it was built from
+     */
+    public static ExchangeRateMatrix of(Map<String, BigDecimal> usdRates, LocalDateTime lastUpdate) {
+        Map<String, Integer> index = new HashMap<>();
+        BigDecimal[] base = new BigDecimal[usdRates.size()];
+        int position = 0;
+        for (Map.Entry<String, BigDecimal> entry : usdRates.entrySet()) {
+            base[position] = entry.getValue();
+            index.put(entry.getKey(), position++);
+        }
+
+        int size = base.length;
+        BigDecimal[][] rates = new BigDecimal[size][size];
+        long[][] scaledRates = new long[size][size];
+        for (int from = 0; from < size; from++) {
+            for (int to = 0; to < size; to++) {
+                rates[from][to] = from == to ? BigDecimal.ONE
+                        : base[to].divide(base[from], FixedPointConverter.RATE_SCALE, RoundingMode.HALF_UP);
+                scaledRates[from][to] = FixedPointConverter.toScaledRate(rates[from][to]);
+            }
+        }
+        return new ExchangeRateMatrix(Map.copyOf(index), rates, scaledRates, Instant.now(), lastUpdate);
+    }
+
+    /**
+     * Rate to convert one unit of {@code from} into {@code to}
+     *
+     * @throws IllegalArgumentException if either code is not in the matrix
+     */
+    public BigDecimal rate(String from, String to) {
+        return rates[indexOf(from)][indexOf(to)];
+    }
+
+    /**
+     * Same rate as {@link #rate(String, String)}, as a long with {@link FixedPointConverter#RATE_SCALE} decimals
+     *
+     * @throws IllegalArgumentException if either code is not in the matrix
+     */
+    public long scaledRate(String from, String to) {
+        return scaledRates[indexOf(from)][indexOf(to)];
+    }
+
+    public boolean supports(String code) {
+        return index.containsKey(code.toUpperCase());
+    }
+
+    public Set<String> codes() {
+        return index.keySet();
+    }
+
+    public int size() {
+        return rates.length;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    /**
+     * Newest lastUpdate of the stored currencies, null when built from mock rates only
+     */
+    public LocalDateTime getLastUpdate() {
+        return lastUpdate;
+    }
+
+    private int indexOf(String code) {
+        Integer position = index.get(code.toUpperCase());
+        if (position == null) {
+            throw new IllegalArgumentException("Currency code not supported: " + code.toUpperCase());
+        }
+        return position;
+    }
+}
@@ -0,0 +1,90 @@
+package com.jee.backend.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Currency conversion on scaled longs
+ * Rates carry 6 decimals and results 2, rounded HALF_UP: the result is always equal to
+ * {@code amount.multiply(rate).setScale(2, RoundingMode.HALF_UP)}, without the intermediate BigDecimal objects
+ */
+public final class FixedPointConverter {
+
+    public static final int RATE_SCALE = 6;
+    public static final int AMOUNT_SCALE = 2;
+    // Rate of 1 (same currency) at RATE_SCALE
+    public static final long SCALED_ONE = 1_000_000L;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private FixedPointConverter() {
+    }
+
+    /**
+     * Rate as a long with {@link #RATE_SCALE} decimals
+     *
+     * @throws ArithmeticException if the rate has more than 6 decimals or does not fit in a long
+     */
+    public static long toScaledRate(BigDecimal rate) {
+        return rate.setScale(RATE_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Convert an amount given as {@code unscaledAmount × 10^-amountScale}
+     * Returns the converted amount in hundredths, rounded HALF_UP; no object is allocated
+     *
+     * @throws ArithmeticException if an intermediate product does not fit in a long
+     */
+    public static long convert(long unscaledAmount, int amountScale, long scaledRate) {
+        long product = Math.multiplyExact(unscaledAmount, scaledRate);
+        int shift = amountScale + RATE_SCALE - AMOUNT_SCALE;
+        if (shift <= 0) {
+            return Math.multiplyExact(product, powerOfTen(-shift));
+        }
+        return divideHalfUp(product, powerOfTen(shift));
+    }
+
+    /**
+     * Convert a BigDecimal amount, at scale {@link #AMOUNT_SCALE}
+     * Amounts too large for the long path are converted with BigDecimal, with the same result
+     */
+    public static BigDecimal convert(BigDecimal amount, long scaledRate) {
+        if (amount.precision() <= 18) {
+            try {
+                // scaleByPowerOfTen keeps the compact long of the amount, where unscaledValue() would build a BigInteger
+                long unscaledAmount = amount.scaleByPowerOfTen(amount.scale()).longValue();
+                return BigDecimal.valueOf(convert(unscaledAmount, amount.scale(), scaledRate), AMOUNT_SCALE);
+            } catch (ArithmeticException e) {
+                // Falls through to the exact path
+            }
+        }
+        return amount.multiply(BigDecimal.valueOf(scaledRate, RATE_SCALE)).setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Integer division rounding half away from zero, like RoundingMode.HALF_UP
+     */
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        // |remainder| < divisor <= 10^18, so doubling it cannot overflow
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+
+    private static long powerOfTen(int exponent) {
+        if (exponent >= POWERS_OF_TEN.length) {
+            throw new ArithmeticException("Scale out of range for fixed-point conversion: 10^" + exponent);
+        }
+        return POWERS_OF_TEN[exponent];
+    }
+}
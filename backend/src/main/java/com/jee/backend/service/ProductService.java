@@ -1,26 +1,76 @@
 package com.jee.backend.service;
 
+import com.jee.backend.cache.CacheBatchLoader;
+import com.jee.backend.cache.CacheLoadExecutor;
+import com.jee.backend.cache.CacheRebuildLease;
+import com.jee.backend.cache.StaleWhileRevalidateCache;
 import com.jee.backend.model.Product;
 import com.jee.backend.repository.ProductRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.SimpleKey;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Service
 public class ProductService {
 
+    private static final String PRODUCTS_CACHE = "products";
+    private static final String PRODUCT_CACHE = "product";
+    // Bail Redis tenu le temps de modifier la liste en cache, partagé par tous les nœuds
+    private static final byte[] PRODUCTS_PATCH_LOCK = "products::patch".getBytes(StandardCharsets.UTF_8);
+
     private final ProductRepository productRepository;
+    private final CacheLoadExecutor cacheLoadExecutor;
+    private final CacheManager cacheManager;
+    private final CacheBatchLoader cacheBatchLoader;
+    private final CacheRebuildLease cacheRebuildLease;
+    // Sérialise les mises à jour de la liste en cache sur ce nœud (lecture, modification, réécriture)
+    private final Object productsCacheLock = new Object();
 
-    public ProductService(ProductRepository productRepository) {
+    /**
+     * @param cacheBatchLoader lectures groupées MGET/pipeline
+     * @param cacheRebuildLease bail partagé entre nœuds pour modifier la liste en cache ; null pour un seul nœud
+     */
+    public ProductService(ProductRepository productRepository, CacheLoadExecutor cacheLoadExecutor,
+                          CacheManager cacheManager, CacheBatchLoader cacheBatchLoader,
+                          CacheRebuildLease cacheRebuildLease) {
         this.productRepository = productRepository;
+        this.cacheLoadExecutor = cacheLoadExecutor;
+        this.cacheManager = cacheManager;
+        this.cacheBatchLoader = cacheBatchLoader;
+        this.cacheRebuildLease = cacheRebuildLease;
     }
 
-    @Cacheable(value = "products", unless = "#result == null")
+    @Cacheable(value = "products", sync = true)
     public List<Product> getAllProducts() {
+        return loadAllProducts();
+    }
+
+    /**
+     * Variante non bloquante : même entrée de cache que getAllProducts(), lue avec RedisCacheWriter.retrieve() ;
+     * sur un miss, la requête MongoDB s'exécute dans le CacheLoadExecutor
+     */
+    @Cacheable(value = "products", sync = true)
+    public CompletableFuture<List<Product>> getAllProductsAsync() {
+        return cacheLoadExecutor.supply(this::loadAllProducts);
+    }
+
+    private List<Product> loadAllProducts() {
         try {
             List<Product> products = productRepository.findAll();
             // S'assurer de retourner une liste non-null
@@ -47,7 +97,33 @@ public class ProductService {
         }
     }
 
-    @CacheEvict(value = {"products", "product"}, allEntries = true)
+    /**
+     * Produits demandés, dans l'ordre des ids (ids inconnus et doublons ignorés), mis en cache sous la même clé
+     * que getProductById() : un seul MGET Redis pour les ids absents du cache local, un seul findAllById
+     * pour les ids absents de Redis, recopiés dans Redis en un seul pipeline
+     */
+    public List<Product> getProductsByIds(Collection<String> ids) {
+        Set<String> validIds = new LinkedHashSet<>();
+        if (ids != null) {
+            ids.stream().filter(id -> id != null && !id.trim().isEmpty()).forEach(validIds::add);
+        }
+        if (validIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(cacheBatchLoader.getAll(PRODUCT_CACHE, validIds, Product.class,
+                this::loadProductsById).values());
+    }
+
+    private Map<String, Product> loadProductsById(Set<String> ids) {
+        Map<String, Product> products = new HashMap<>();
+        productRepository.findAllById(ids).forEach(product -> products.put(product.getId(), product));
+        return products;
+    }
+
+    /**
+     * Crée le produit, le met en cache et l'ajoute à la liste en cache : les autres entrées restent valides
+     */
+    @CachePut(value = "product", key = "#result.id")
     public Product createProduct(Product product) {
         try {
             if (product == null) {
@@ -55,7 +131,9 @@ public class ProductService {
             }
             // S'assurer que l'ID est null pour la création (MongoDB générera un nouvel ID)
             product.setId(null);
-            return productRepository.save(product);
+            Product created = productRepository.save(product);
+            patchCachedProducts(products -> products.add(created));
+            return created;
         } catch (Exception e) {
             System.err.println("Error in createProduct: " + e.getMessage());
             e.printStackTrace();
@@ -63,7 +141,10 @@ public class ProductService {
         }
     }
 
-    @CacheEvict(value = {"products", "product"}, allEntries = true)
+    /**
+     * Met à jour le produit, remplace son entrée en cache et sa place dans la liste en cache
+     */
+    @CachePut(value = "product", key = "#id")
     public Product updateProduct(String id, Product product) {
         try {
             if (id == null || id.trim().isEmpty()) {
@@ -78,7 +159,9 @@ public class ProductService {
                 throw new RuntimeException("Product with id " + id + " not found");
             }
             product.setId(id);
-            return productRepository.save(product);
+            Product updated = productRepository.save(product);
+            patchCachedProducts(products -> products.replaceAll(cached -> id.equals(cached.getId()) ? updated : cached));
+            return updated;
         } catch (Exception e) {
             System.err.println("Error in updateProduct: " + e.getMessage());
             e.printStackTrace();
@@ -86,7 +169,10 @@ public class ProductService {
         }
     }
 
-    @CacheEvict(value = {"products", "product"}, allEntries = true)
+    /**
+     * Supprime le produit, son entrée en cache et sa ligne dans la liste en cache
+     */
+    @CacheEvict(value = "product", key = "#id")
     public void deleteProduct(String id) {
         try {
             if (id == null || id.trim().isEmpty()) {
@@ -97,10 +183,62 @@ public class ProductService {
                 throw new RuntimeException("Product with id " + id + " not found");
             }
             productRepository.deleteById(id);
+            patchCachedProducts(products -> products.removeIf(cached -> id.equals(cached.getId())));
         } catch (Exception e) {
             System.err.println("Error in deleteProduct: " + e.getMessage());
             e.printStackTrace();
             throw new RuntimeException("Failed to delete product: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Applique la modification à la liste de getAllProducts() en cache, sans la recharger depuis MongoDB.
+     * La lecture, la modification et la réécriture se font sous un bail Redis : deux nœuds ne peuvent pas
+     * réécrire la liste chacun avec sa seule modification. Si le bail est tenu par un autre nœud, si Redis
+     * ne répond pas ou si la liste ne peut pas être lue, elle est évincée : le lecteur suivant la recharge
+     * plutôt que de servir une liste qui ignorerait l'écriture.
+     */
+    @SuppressWarnings("unchecked")
+    private void patchCachedProducts(Consumer<List<Product>> patch) {
+        Cache cache = cacheManager.getCache(PRODUCTS_CACHE);
+        if (cache == null) {
+            return;
+        }
+        synchronized (productsCacheLock) {
+            long token = 0;
+            try {
+                if (cacheRebuildLease != null) {
+                    token = cacheRebuildLease.tryAcquire(PRODUCTS_CACHE, PRODUCTS_PATCH_LOCK);
+                    if (token == 0) {
+                        cache.evict(SimpleKey.EMPTY);
+                        return;
+                    }
+                }
+                StaleWhileRevalidateCache staleWhileRevalidate = StaleWhileRevalidateCache.find(cache);
+                // Lecture sans tirage XFetch : une écriture ne doit pas évincer la liste parce que l'expiration
+                // anticipée aurait désigné ce lecteur pour la recalculer
+                Cache.ValueWrapper cached = staleWhileRevalidate != null
+                        ? staleWhileRevalidate.peek(SimpleKey.EMPTY) : cache.get(SimpleKey.EMPTY);
+                if (cached == null || !(cached.get() instanceof List<?> current)) {
+                    cache.evict(SimpleKey.EMPTY);
+                    return;
+                }
+                List<Product> patched = new ArrayList<>((List<Product>) current);
+                patch.accept(patched);
+                if (staleWhileRevalidate != null) {
+                    // Garde le temps de chargement de la liste : l'expiration anticipée reste active
+                    staleWhileRevalidate.replace(SimpleKey.EMPTY, patched);
+                } else {
+                    cache.put(SimpleKey.EMPTY, patched);
+                }
+            } catch (RuntimeException e) {
+                cache.evict(SimpleKey.EMPTY);
+            } finally {
+                if (token > 0) {
+                    cacheRebuildLease.release(PRODUCTS_PATCH_LOCK, token);
+                }
+            }
+        }
+    }
+
 }
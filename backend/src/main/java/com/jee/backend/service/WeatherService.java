@@ -1,10 +1,15 @@
 package com.jee.backend.service;
 
+import com.jee.backend.cache.CacheBatchLoader;
+import com.jee.backend.cache.CacheLoadExecutor;
 import com.jee.backend.dto.OpenWeatherResponse;
+import com.jee.backend.dto.WeatherBatchResponse;
 import com.jee.backend.model.Weather;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpStatus;
@@ -15,7 +20,18 @@ import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class WeatherService {
@@ -24,6 +40,9 @@ public class WeatherService {
     private static final String CACHE_NAME = "weather";
 
     private final RestTemplate restTemplate;
+    private final CacheLoadExecutor cacheLoadExecutor;
+    private final CacheManager cacheManager;
+    private final CacheBatchLoader cacheBatchLoader;
 
     @Value("${weather.api.url:https://api.openweathermap.org/data/2.5/weather}")
     private String weatherApiUrl;
@@ -34,20 +53,121 @@ public class WeatherService {
     @Value("${weather.api.demo-mode:true}")
     private boolean demoMode;
 
-    public WeatherService(RestTemplate restTemplate) {
+    // Appels simultanés à l'API météo pour un même lot de villes
+    @Value("${weather.batch.concurrency:4}")
+    private int batchConcurrency;
+
+    // Au-delà, le lot est rendu avec les villes déjà chargées
+    @Value("${weather.batch.deadline:2s}")
+    private Duration batchDeadline;
+
+    public WeatherService(RestTemplate restTemplate, CacheLoadExecutor cacheLoadExecutor, CacheManager cacheManager,
+                          CacheBatchLoader cacheBatchLoader) {
         this.restTemplate = restTemplate;
+        this.cacheLoadExecutor = cacheLoadExecutor;
+        this.cacheManager = cacheManager;
+        this.cacheBatchLoader = cacheBatchLoader;
     }
 
     /**
      * Récupère la météo pour une ville donnée depuis le cache ou l'API externe
      * Utilise @Cacheable pour mettre en cache automatiquement les résultats
+     * sync = true : les misses concurrents pour une même ville partagent un seul appel à l'API
      */
-    @Cacheable(value = CACHE_NAME, key = "#city.toLowerCase()", unless = "#result == null")
+    @Cacheable(value = CACHE_NAME, key = "#city.toLowerCase()", sync = true)
     public Weather getWeather(String city) {
         logger.info("Cache MISS - Fetching weather for city: {}", city);
         return fetchWeatherFromApi(city);
     }
 
+    /**
+     * Variante non bloquante de getWeather() sur la même entrée de cache : lecture Redis asynchrone,
+     * et sur un miss l'appel à l'API météo s'exécute dans le CacheLoadExecutor
+     */
+    @Cacheable(value = CACHE_NAME, key = "#city.toLowerCase()", sync = true)
+    public CompletableFuture<Weather> getWeatherAsync(String city) {
+        logger.info("Cache MISS - Fetching weather asynchronously for city: {}", city);
+        return cacheLoadExecutor.supply(() -> fetchWeatherFromApi(city));
+    }
+
+    /**
+     * Météo de plusieurs villes (doublons ignorés, sans tenir compte de la casse), sous les mêmes clés de cache
+     * que getWeather() : les villes en cache sont lues en un seul MGET Redis, seules les autres sont demandées
+     * à l'API, en parallèle (au plus weather.batch.concurrency à la fois) et jusqu'à l'échéance du lot.
+     * Les villes non chargées à l'échéance sont rendues comme indisponibles ; un appel déjà lancé va à son terme
+     * et remplit quand même le cache pour la requête suivante.
+     */
+    public WeatherBatchResponse getWeatherBatch(Collection<String> cities) {
+        long deadlineNanos = System.nanoTime() + batchDeadline.toNanos();
+        // Clé de cache -> nom demandé
+        Map<String, String> names = new LinkedHashMap<>();
+        for (String city : cities) {
+            if (city != null && !city.trim().isEmpty()) {
+                names.putIfAbsent(city.trim().toLowerCase(), city.trim());
+            }
+        }
+        Map<String, String> failures = new HashMap<>();
+        Map<String, Weather> found = cacheBatchLoader.getAll(CACHE_NAME, names.keySet(), Weather.class,
+                missing -> fetchWeatherBatch(missing, names, deadlineNanos, failures));
+
+        WeatherBatchResponse response = new WeatherBatchResponse();
+        names.forEach((key, city) -> {
+            Weather weather = found.get(key);
+            if (weather != null) {
+                response.getWeather().put(city, weather);
+            } else {
+                response.getUnavailable().put(city, failures.getOrDefault(key, "unavailable"));
+            }
+        });
+        if (response.isPartial()) {
+            logger.warn("Weather batch partial - Cities: {}, Unavailable: {}", names.size(), response.getUnavailable());
+        }
+        return response;
+    }
+
+    /**
+     * Appelle l'API pour les villes absentes du cache et attend au plus jusqu'à l'échéance du lot
+     */
+    private Map<String, Weather> fetchWeatherBatch(Set<String> keys, Map<String, String> names, long deadlineNanos,
+                                                   Map<String, String> failures) {
+        logger.info("Cache MISS - Fetching weather for {} cities in parallel", keys.size());
+        Map<String, CompletableFuture<Weather>> futures = cacheLoadExecutor.supplyAll(keys,
+                key -> fetchWeatherFromApi(names.get(key)), batchConcurrency, deadlineNanos);
+        try {
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+                    .get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Échéance atteinte ou au moins une ville en erreur : chaque future est examiné ci-dessous
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Map<String, Weather> fetched = new HashMap<>();
+        futures.forEach((key, future) -> {
+            if (!future.isDone()) {
+                failures.put(key, "timeout");
+                // Réponse tardive : mise en cache pour la requête suivante, sans écraser une valeur plus récente
+                future.thenAccept(weather -> cacheLateWeather(key, weather));
+                return;
+            }
+            try {
+                fetched.put(key, future.join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                failures.put(key, cause instanceof TimeoutException ? "timeout" : String.valueOf(cause.getMessage()));
+            }
+        });
+        return fetched;
+    }
+
+    private void cacheLateWeather(String key, Weather weather) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null && weather != null) {
+            cache.putIfAbsent(key, weather);
+            logger.debug("Late weather response cached - City: {}", key);
+        }
+    }
+
     /**
      * Force la mise à jour du cache en récupérant les données depuis l'API externe
      * Utilise @CachePut pour mettre à jour le cache avec les nouvelles données
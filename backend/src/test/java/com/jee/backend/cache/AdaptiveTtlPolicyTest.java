@@ -0,0 +1,81 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveTtlPolicyTest {
+
+    private AdaptiveTtlPolicy policy;
+    private AdaptiveTtlCache cache;
+    private RedisCacheWriter.TtlFunction ttlFunction;
+
+    @BeforeEach
+    void setUp() {
+        CacheFlowProperties.AdaptiveTtl properties = new CacheFlowProperties.AdaptiveTtl();
+        CacheFlowProperties.AdaptiveTtlSpec spec = new CacheFlowProperties.AdaptiveTtlSpec();
+        spec.setMinTtl(Duration.ofMinutes(15));
+        spec.setMaxTtl(Duration.ofHours(4));
+        properties.getCaches().put("currency", spec);
+        policy = new AdaptiveTtlPolicy(properties);
+        ttlFunction = policy.register("currency", Duration.ofHours(1),
+                value -> ((BigDecimal) value).stripTrailingZeros().hashCode());
+        cache = new AdaptiveTtlCache(new ConcurrentMapCache("currency", false), policy);
+    }
+
+    @Test
+    void testVolatileValues_ShortenTtlDownToMinimum() {
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 10; i++) {
+                cache.put("USD+EUR", new BigDecimal("0.9" + round + i));
+            }
+            policy.tune();
+        }
+
+        // 1 h -> 30 min -> 15 min (borne basse)
+        assertEquals(Duration.ofMinutes(15), ttlFunction.getTimeToLive("USD+EUR", null));
+    }
+
+    @Test
+    void testStableValuesWithLowHitRatio_LengthenTtl() {
+        for (int i = 0; i < 10; i++) {
+            // Même taux à l'échelle près : pas un changement
+            cache.put("USD+EUR", i % 2 == 0 ? new BigDecimal("0.91") : new BigDecimal("0.910000"));
+        }
+        cache.get("USD+EUR");
+        policy.tune();
+
+        assertEquals(Duration.ofMinutes(75), policy.currentTtl("currency"));
+    }
+
+    @Test
+    void testStableValuesWithHighHitRatio_KeepTtl() {
+        for (int i = 0; i < 10; i++) {
+            cache.put("USD+EUR", new BigDecimal("0.91"));
+        }
+        for (int i = 0; i < 500; i++) {
+            assertEquals(new BigDecimal("0.91"), cache.get("USD+EUR", () -> BigDecimal.ONE));
+        }
+        policy.tune();
+
+        assertEquals(Duration.ofHours(1), policy.currentTtl("currency"));
+        assertEquals(1, policy.getStatistics().get("currency").get("trackedKeys"));
+    }
+
+    @Test
+    void testTooFewSamples_KeepTtl() {
+        cache.put("USD+EUR", new BigDecimal("0.91"));
+        cache.put("USD+EUR", new BigDecimal("0.95"));
+        policy.tune();
+
+        assertEquals(Duration.ofHours(1), policy.currentTtl("currency"));
+        assertEquals(0L, policy.getStatistics().get("currency").get("adjustments"));
+    }
+}
@@ -0,0 +1,120 @@
+package com.jee.backend.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BudgetedRedisCacheWriterTest {
+
+    private static final byte[] KEY = bytes("weather::0::paris");
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    private RedisCacheWriter delegate;
+    private CacheBudgets budgets;
+    private BudgetedRedisCacheWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(RedisCacheWriter.class);
+        budgets = mock(CacheBudgets.class);
+        when(budgets.isEnabledFor("weather")).thenReturn(true);
+        writer = new BudgetedRedisCacheWriter(delegate, budgets, name -> name + "::0::");
+    }
+
+    @Test
+    void testPut_RegistersStoredSize() {
+        writer.put("weather", KEY, new byte[42], TTL);
+
+        verify(delegate).put("weather", KEY, new byte[42], TTL);
+        verify(budgets).register("weather", KEY, 42);
+    }
+
+    @Test
+    void testLoaderPath_RegistersLoadedValueAndHitRecordsAccess() {
+        when(delegate.get(eq("weather"), eq(KEY), any(), eq(TTL), eq(false)))
+                .thenAnswer(invocation -> invocation.<Supplier<byte[]>>getArgument(2).get())
+                .thenReturn(bytes("cached"));
+
+        writer.get("weather", KEY, () -> new byte[7], TTL, false);
+        writer.get("weather", KEY, () -> new byte[7], TTL, false);
+
+        verify(budgets, times(1)).register("weather", KEY, 7);
+        verify(budgets, times(1)).recordAccess("weather", KEY);
+    }
+
+    @Test
+    void testBudgetExceeded_VictimsEvictedThroughChainAndNearCaches() {
+        byte[] victim = bytes("weather::0::lyon");
+        byte[] previousGeneration = bytes("weather::-1::nice");
+        when(budgets.register("weather", KEY, 42)).thenReturn(List.of(victim, previousGeneration));
+
+        writer.put("weather", KEY, new byte[42], TTL);
+
+        // Le script ne supprime rien lui-même : les victimes passent par le writer
+        verify(delegate).evict("weather", victim);
+        verify(delegate).evict("weather", previousGeneration);
+        verify(budgets).notifyEvicted("weather", "lyon");
+        verify(budgets, times(1)).notifyEvicted(anyString(), anyString());
+        verify(budgets, never()).remove(anyString(), any());
+    }
+
+    @Test
+    void testStore_RegistersOnBudgetPool() {
+        when(delegate.store("weather", KEY, new byte[42], TTL)).thenReturn(CompletableFuture.completedFuture(null));
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(budgets).registerLater(eq("weather"), any());
+
+        writer.store("weather", KEY, new byte[42], TTL).join();
+
+        verify(budgets).registerLater(eq("weather"), any());
+        verify(budgets).register("weather", KEY, 42);
+    }
+
+    @Test
+    void testEvict_RemovesFromIndex() {
+        writer.evict("weather", KEY);
+
+        verify(delegate).evict("weather", KEY);
+        verify(budgets).remove("weather", KEY);
+    }
+
+    @Test
+    void testUnbudgetedCache_NotIndexed() {
+        when(delegate.get("currency", KEY)).thenReturn(bytes("0.91"));
+
+        writer.put("currency", KEY, new byte[4], TTL);
+        writer.get("currency", KEY);
+        writer.evict("currency", KEY);
+
+        verify(budgets, never()).register(anyString(), any(), anyInt());
+        verify(budgets, never()).recordAccess(anyString(), any());
+        verify(budgets, never()).remove(anyString(), any());
+    }
+
+    @Test
+    void testIndexFailure_DoesNotFailCacheWrite() {
+        when(budgets.register("weather", KEY, 3)).thenThrow(new IllegalStateException("Redis unavailable"));
+
+        assertDoesNotThrow(() -> writer.put("weather", KEY, new byte[3], TTL));
+        verify(delegate).put("weather", KEY, new byte[3], TTL);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,177 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CacheBatchLoaderTest {
+
+    private static final RedisSerializationContext.SerializationPair<Object> VALUES =
+            RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.java());
+
+    private BatchRedisCacheWriter writer;
+    private CacheInvalidationPublisher publisher;
+    private TwoTierCacheManager cacheManager;
+    private CacheBatchLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        writer = mock(BatchRedisCacheWriter.class);
+        RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(Duration.ofMinutes(10))
+                .serializeValuesWith(VALUES)
+                .disableCachingNullValues();
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(writer)
+                .withCacheConfiguration("product", configuration)
+                .build();
+        redisCacheManager.afterPropertiesSet();
+        publisher = mock(CacheInvalidationPublisher.class);
+        cacheManager = new TwoTierCacheManager(redisCacheManager, new CacheFlowProperties(),
+                publisher, null, null, null, false);
+        loader = new CacheBatchLoader(cacheManager, null);
+    }
+
+    @Test
+    void testMisses_OneMgetOneLoadOnePipelinedBackfill() {
+        List<byte[]> values = new ArrayList<>();
+        values.add(serialize("cached-1"));
+        values.add(null);
+        values.add(null);
+        when(writer.getAll(eq("product"), anyList())).thenReturn(values);
+        when(writer.putAllIfAbsent(eq("product"), anyList())).thenReturn(List.of(true));
+        List<Set<String>> loads = new ArrayList<>();
+
+        Map<String, String> products = loader.getAll("product", List.of("1", "2", "3", "1"), String.class, ids -> {
+            loads.add(Set.copyOf(ids));
+            return Map.of("2", "loaded-2");
+        });
+
+        assertEquals(List.of("1", "2"), List.copyOf(products.keySet()));
+        assertEquals("cached-1", products.get("1"));
+        assertEquals("loaded-2", products.get("2"));
+        assertEquals(List.of(Set.of("2", "3")), loads);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<byte[]>> keys = ArgumentCaptor.forClass(List.class);
+        verify(writer, times(1)).getAll(eq("product"), keys.capture());
+        assertEquals(List.of("product::1", "product::2", "product::3"), keys.getValue().stream()
+                .map(key -> new String(key, StandardCharsets.UTF_8)).toList());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BatchRedisCacheWriter.Entry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(writer, times(1)).putAllIfAbsent(eq("product"), entries.capture());
+        assertEquals(1, entries.getValue().size());
+        assertEquals("product::2", new String(entries.getValue().get(0).getKey(), StandardCharsets.UTF_8));
+        assertEquals(Duration.ofMinutes(10), entries.getValue().get(0).getTtl());
+        assertEquals("loaded-2", VALUES.read(ByteBuffer.wrap(entries.getValue().get(0).getValue())));
+    }
+
+    @Test
+    void testSecondBatch_ServedByNearCacheWithoutRedis() {
+        List<byte[]> values = new ArrayList<>();
+        values.add(serialize("cached-1"));
+        values.add(null);
+        when(writer.getAll(eq("product"), anyList())).thenReturn(values);
+        when(writer.putAllIfAbsent(eq("product"), anyList())).thenReturn(List.of(true));
+        AtomicInteger loads = new AtomicInteger();
+
+        loader.getAll("product", List.of("1", "2"), String.class, ids -> {
+            loads.incrementAndGet();
+            return Map.of("2", "loaded-2");
+        });
+        Map<String, String> second = loader.getAll("product", List.of("2", "1"), String.class, ids -> {
+            loads.incrementAndGet();
+            return Map.of();
+        });
+
+        assertEquals(Map.of("2", "loaded-2", "1", "cached-1"), second);
+        assertEquals(List.of("2", "1"), List.copyOf(second.keySet()));
+        assertEquals(1, loads.get());
+        verify(writer, times(1)).getAll(eq("product"), anyList());
+        assertEquals(2L, loader.getStatistics().get("product").get("nearHits"));
+    }
+
+    @Test
+    void testBackfillFailure_StillReturnsLoadedValues() {
+        List<byte[]> values = new ArrayList<>();
+        values.add(null);
+        when(writer.getAll(eq("product"), anyList())).thenReturn(values);
+        when(writer.putAllIfAbsent(eq("product"), anyList())).thenThrow(new IllegalStateException("Redis unavailable"));
+
+        Map<String, String> products = loader.getAll("product", List.of("7"), String.class, ids -> Map.of("7", "loaded-7"));
+
+        assertEquals(Map.of("7", "loaded-7"), products);
+    }
+
+    @Test
+    void testPutAll_OverwritesInOneCallAndRefreshesNearCache() {
+        Map<String, String> values = new java.util.LinkedHashMap<>();
+        values.put("1", "new-1");
+        values.put("2", "new-2");
+
+        assertEquals(2, loader.putAll("product", values));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BatchRedisCacheWriter.Entry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(writer, times(1)).putAll(eq("product"), entries.capture());
+        assertEquals(List.of("product::1", "product::2"), entries.getValue().stream()
+                .map(entry -> new String(entry.getKey(), StandardCharsets.UTF_8)).toList());
+        assertEquals("new-2", VALUES.read(ByteBuffer.wrap(entries.getValue().get(1).getValue())));
+        verify(writer, never()).putAllIfAbsent(any(), anyList());
+        // Les autres nœuds abandonnent leur copie locale, ce nœud sert directement les nouvelles valeurs
+        verify(publisher).publishEvict("product", "1");
+        verify(publisher).publishEvict("product", "2");
+        assertEquals(Map.of("1", "new-1", "2", "new-2"),
+                loader.getAll("product", List.of("1", "2"), String.class, ids -> Map.of()));
+        verify(writer, never()).getAll(any(), anyList());
+        assertEquals(2L, loader.getStatistics().get("product").get("overwritten"));
+    }
+
+    @Test
+    void testWriterWithoutBatchSupport_FallsBackToSingleKeyCalls() {
+        RedisCacheWriter single = mock(RedisCacheWriter.class);
+        when(single.get("product", bytes("product::1"))).thenReturn(serialize("cached-1"));
+        when(single.putIfAbsent(eq("product"), any(), any(), any())).thenReturn(null);
+
+        List<byte[]> values = BatchRedisCacheWriter.getAll(single, "product",
+                List.of(bytes("product::1"), bytes("product::2")));
+        List<Boolean> stored = BatchRedisCacheWriter.putAllIfAbsent(single, "product",
+                List.of(new BatchRedisCacheWriter.Entry(bytes("product::2"), serialize("loaded-2"), Duration.ofMinutes(1))));
+
+        assertEquals("cached-1", VALUES.read(ByteBuffer.wrap(values.get(0))));
+        assertNull(values.get(1));
+        assertEquals(List.of(true), stored);
+    }
+
+    private static byte[] serialize(Object value) {
+        ByteBuffer buffer = VALUES.write(value);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
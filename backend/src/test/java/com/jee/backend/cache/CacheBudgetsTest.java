@@ -0,0 +1,95 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.ReturnType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CacheBudgetsTest {
+
+    private static final byte[] INDEX = bytes("cacheflow:budget:weather:index");
+
+    private RedisConnection connection;
+    private RedisKeyCommands keyCommands;
+    private RedisScriptingCommands scriptingCommands;
+    private CacheBudgets budgets;
+
+    @BeforeEach
+    void setUp() {
+        RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+        connection = mock(RedisConnection.class);
+        keyCommands = mock(RedisKeyCommands.class);
+        scriptingCommands = mock(RedisScriptingCommands.class);
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        when(connection.scriptingCommands()).thenReturn(scriptingCommands);
+
+        CacheFlowProperties.Budget properties = new CacheFlowProperties.Budget();
+        properties.setCaches(Map.of("weather", new CacheFlowProperties.BudgetSpec()));
+        budgets = new CacheBudgets(connectionFactory, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        budgets.destroy();
+    }
+
+    @Test
+    void testPrune_ChecksExistenceFromClientAndRemovesOnlyExpiredMembers() {
+        byte[] live = bytes("weather::0::paris");
+        byte[] expired = bytes("weather::0::lyon");
+        RedisZSetCommands zSetCommands = mock(RedisZSetCommands.class);
+        when(connection.zSetCommands()).thenReturn(zSetCommands);
+        Set<byte[]> coldest = new LinkedHashSet<>(List.of(live, expired));
+        when(zSetCommands.zRange(INDEX, 0, 99)).thenReturn(coldest);
+        when(connection.stringCommands()).thenReturn(mock(RedisStringCommands.class));
+        when(connection.closePipeline()).thenReturn(List.of(true, false)).thenReturn(List.of(1L))
+                .thenReturn(Arrays.asList(1L, null));
+
+        budgets.prune();
+
+        // EXISTS pipelinés depuis le client, puis le script de retrait (clés de l'index seulement) par clé expirée
+        verify(keyCommands).exists(live);
+        verify(keyCommands).exists(expired);
+        verify(scriptingCommands, times(1)).eval(any(byte[].class), eq(ReturnType.INTEGER), anyInt(),
+                any(byte[].class), any(byte[].class), any(byte[].class), eq(expired));
+        verify(scriptingCommands, never()).eval(any(byte[].class), any(), anyInt(),
+                any(byte[].class), any(byte[].class), any(byte[].class), eq(live));
+        assertEquals(1L, budgets.getStatistics().get("weather").get("prunedExpired"));
+    }
+
+    @Test
+    void testRegisterLater_RunsOnBudgetPool() throws Exception {
+        CompletableFuture<String> thread = new CompletableFuture<>();
+
+        budgets.registerLater("weather", () -> thread.complete(Thread.currentThread().getName()));
+
+        assertTrue(thread.get(5, TimeUnit.SECONDS).startsWith("cache-budget-"));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
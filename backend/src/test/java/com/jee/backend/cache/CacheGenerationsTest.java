@@ -0,0 +1,85 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CacheGenerationsTest {
+
+    private static final byte[] WEATHER_GENERATION = bytes("cacheflow:generation:weather");
+
+    private RedisStringCommands stringCommands;
+    private RedisCacheWriter delegate;
+    private CacheGenerations generations;
+    private GenerationalRedisCacheWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+        RedisConnection connection = mock(RedisConnection.class);
+        stringCommands = mock(RedisStringCommands.class);
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(stringCommands.get(WEATHER_GENERATION)).thenReturn(bytes("3"));
+
+        generations = new CacheGenerations(connectionFactory, new CacheFlowProperties.Generations());
+        delegate = mock(RedisCacheWriter.class);
+        writer = new GenerationalRedisCacheWriter(delegate, generations);
+    }
+
+    @Test
+    void testKeyPrefix_EmbedsGenerationReadOnce() {
+        assertEquals("weather::3::", generations.keyPrefix().compute("weather"));
+        assertEquals("weather::3::", generations.keyPrefix().compute("weather"));
+        // Caches non générationnels : préfixe par défaut
+        assertEquals("default::", generations.keyPrefix().compute("default"));
+
+        verify(stringCommands, times(1)).get(WEATHER_GENERATION);
+    }
+
+    @Test
+    void testWholeCacheClear_IncrementsGenerationWithoutScanning() {
+        when(stringCommands.incr(WEATHER_GENERATION)).thenReturn(4L);
+
+        writer.clear("weather", bytes("weather::3::*"));
+
+        verify(delegate, never()).clear(any(), any());
+        assertEquals("weather::4::", generations.keyPrefix().compute("weather"));
+    }
+
+    @Test
+    void testPartialPatternClear_Delegated() {
+        writer.clear("weather", bytes("weather::3::par*"));
+
+        verify(delegate).clear("weather", bytes("weather::3::par*"));
+        verify(stringCommands, never()).incr(any());
+    }
+
+    @Test
+    void testRefresh_PicksUpRemoteGenerationAndNeverGoesBack() {
+        generations.current("weather");
+        when(stringCommands.mGet(WEATHER_GENERATION)).thenReturn(List.of(bytes("7")));
+        generations.refresh();
+        assertEquals(7, generations.current("weather"));
+
+        // Relecture tardive d'une valeur plus ancienne : ignorée
+        when(stringCommands.get(WEATHER_GENERATION)).thenReturn(bytes("5"));
+        generations.reload("weather");
+        assertEquals(7, generations.current("weather"));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,100 @@
+package com.jee.backend.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheLoadExecutorTest {
+
+    private final CacheLoadExecutor executor = new CacheLoadExecutor(8, 100);
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void testSupplyAll_NeverExceedsBatchConcurrency() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        Map<Integer, CompletableFuture<Integer>> futures = executor.supplyAll(List.of(1, 2, 3, 4, 5, 6, 7, 8), key -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(20);
+            running.decrementAndGet();
+            return key * 10;
+        }, 2, deadlineIn(Duration.ofSeconds(5)));
+
+        CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8), List.copyOf(futures.keySet()));
+        assertEquals(30, futures.get(3).get());
+        assertTrue(maxRunning.get() <= 2, "Max concurrent loads: " + maxRunning.get());
+    }
+
+    @Test
+    void testSupplyAll_KeysQueuedPastDeadlineAreNeverLoaded() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        Map<String, CompletableFuture<String>> futures = executor.supplyAll(List.of("slow", "queued"), key -> {
+            loads.incrementAndGet();
+            await(release);
+            return key;
+        }, 1, deadlineIn(Duration.ofMillis(50)));
+
+        sleep(100);
+        assertFalse(futures.get("slow").isDone());
+        release.countDown();
+
+        // Le chargement déjà lancé va à son terme ; la clé en attente échoue sans être chargée
+        assertEquals("slow", futures.get("slow").get(5, TimeUnit.SECONDS));
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> futures.get("queued").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, failure.getCause());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testSupplyAll_FailureDoesNotStopOtherKeys() throws Exception {
+        Map<String, CompletableFuture<String>> futures = executor.supplyAll(List.of("broken", "paris"), key -> {
+            if (key.equals("broken")) {
+                throw new IllegalStateException("API error");
+            }
+            return key;
+        }, 1, deadlineIn(Duration.ofSeconds(5)));
+
+        assertEquals("paris", futures.get("paris").get(5, TimeUnit.SECONDS));
+        assertTrue(futures.get("broken").isCompletedExceptionally());
+    }
+
+    private static long deadlineIn(Duration duration) {
+        return System.nanoTime() + duration.toNanos();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.model.Currency;
+import com.jee.backend.model.Product;
+import com.jee.backend.model.Weather;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactBinaryRedisSerializerTest {
+
+    private final CompactBinaryRedisSerializer serializer =
+            new CompactBinaryRedisSerializer(getClass().getClassLoader());
+    private final JdkSerializationRedisSerializer jdkSerializer =
+            new JdkSerializationRedisSerializer(getClass().getClassLoader());
+
+    @Test
+    void testRoundTrip_Product() {
+        Product product = new Product("1", "Test Product", new BigDecimal("99.99"), "Electronics");
+
+        Product result = (Product) serializer.deserialize(serializer.serialize(product));
+
+        assertEquals("1", result.getId());
+        assertEquals("Test Product", result.getName());
+        assertEquals(new BigDecimal("99.99"), result.getPrice());
+        assertEquals("Electronics", result.getCategory());
+    }
+
+    @Test
+    void testRoundTrip_CurrencyKeepsLastUpdate() {
+        LocalDateTime lastUpdate = LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123456789);
+        Currency currency = new Currency("2", "EUR", new BigDecimal("0.91"), lastUpdate);
+
+        Currency result = (Currency) serializer.deserialize(serializer.serialize(currency));
+
+        assertEquals("EUR", result.getCode());
+        assertEquals(new BigDecimal("0.91"), result.getRate());
+        assertEquals(lastUpdate, result.getLastUpdate());
+    }
+
+    @Test
+    void testRoundTrip_WeatherWithNullFields() {
+        Weather weather = new Weather("Paris", 21.5, null, LocalDateTime.of(2024, 6, 1, 12, 0));
+
+        Weather result = (Weather) serializer.deserialize(serializer.serialize(weather));
+
+        assertEquals("Paris", result.getCity());
+        assertEquals(21.5, result.getTemp());
+        assertNull(result.getHumidity());
+        assertEquals(weather.getTimestamp(), result.getTimestamp());
+    }
+
+    @Test
+    void testRoundTrip_ExchangeRateAndLargeDecimal() {
+        BigDecimal rate = new BigDecimal("0.868132");
+        BigDecimal large = new BigDecimal("123456789012345678901234567890.123");
+
+        assertEquals(rate, serializer.deserialize(serializer.serialize(rate)));
+        assertEquals(large, serializer.deserialize(serializer.serialize(large)));
+    }
+
+    @Test
+    void testRoundTrip_StampedValue() {
+        Weather weather = new Weather("paris", 18.5, 62.0, LocalDateTime.of(2024, 7, 1, 12, 0));
+
+        StampedValue result = (StampedValue) serializer.deserialize(
+                serializer.serialize(new StampedValue(weather, 1_720_000_000_000L, 180)));
+
+        assertEquals(1_720_000_000_000L, result.getWrittenAt());
+        assertEquals(180, result.getComputeMillis());
+        assertEquals("paris", ((Weather) result.getValue()).getCity());
+    }
+
+    @Test
+    void testRoundTrip_UnknownTypeFallsBackToJdk() {
+        Map<String, Integer> map = new HashMap<>();
+        map.put("a", 1);
+
+        assertEquals(map, serializer.deserialize(serializer.serialize(map)));
+    }
+
+    @Test
+    void testDeserialize_ReadsLegacyJdkEntries() {
+        List<Product> products = new ArrayList<>(List.of(
+                new Product("1", "Test Product", new BigDecimal("99.99"), "Electronics")));
+        byte[] legacy = jdkSerializer.serialize(products);
+
+        @SuppressWarnings("unchecked")
+        List<Product> result = (List<Product>) serializer.deserialize(legacy);
+
+        assertEquals(1, result.size());
+        assertEquals("Test Product", result.get(0).getName());
+    }
+
+    @Test
+    void testSerialize_ProductListIsMuchSmallerThanJdk() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            products.add(new Product("65a1f0c2e4b0" + String.format("%012d", i), "Product " + i,
+                    new BigDecimal("19.99").add(BigDecimal.valueOf(i)), i % 2 == 0 ? "Electronics" : "Books"));
+        }
+
+        byte[] compact = serializer.serialize(products);
+        byte[] jdk = jdkSerializer.serialize(products);
+
+        // No class descriptors: well under half of the JDK size for the catalog blob
+        assertTrue(compact.length * 2 < jdk.length,
+                "compact=" + compact.length + " bytes, jdk=" + jdk.length + " bytes");
+        assertEquals(products.size(), ((List<?>) serializer.deserialize(compact)).size());
+    }
+}
@@ -0,0 +1,60 @@
+package com.jee.backend.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EarlyExpirationPolicyTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @Test
+    void testFarFromExpiry_NotRecomputed() {
+        EarlyExpirationPolicy policy = new EarlyExpirationPolicy(1.0, TTL, () -> 0.5);
+        StampedValue stamped = new StampedValue("list", 0, 50);
+
+        assertFalse(policy.shouldRecompute(stamped, Duration.ofMinutes(5).toMillis()));
+    }
+
+    @Test
+    void testCloseToExpiry_RecomputedWithinComputeTimeWindow() {
+        // -ln(1 - 0.5) ≈ 0.69 : anticipation d'environ 69 % du temps de calcul
+        EarlyExpirationPolicy policy = new EarlyExpirationPolicy(1.0, TTL, () -> 0.5);
+        StampedValue stamped = new StampedValue("list", 0, 1000);
+
+        assertTrue(policy.shouldRecompute(stamped, TTL.toMillis() - 600));
+        assertFalse(policy.shouldRecompute(stamped, TTL.toMillis() - 800));
+    }
+
+    @Test
+    void testProbabilityGrowsTowardExpiry() {
+        EarlyExpirationPolicy policy = new EarlyExpirationPolicy(1.0, TTL,
+                () -> ThreadLocalRandom.current().nextDouble());
+        StampedValue stamped = new StampedValue("list", 0, 100);
+
+        int early = countRecomputes(policy, stamped, TTL.toMillis() - 300);
+        int late = countRecomputes(policy, stamped, TTL.toMillis() - 10);
+
+        assertTrue(early > 0 && early < late, "early=" + early + " late=" + late);
+    }
+
+    @Test
+    void testUnknownComputeTime_NeverRecomputedEarly() {
+        EarlyExpirationPolicy policy = new EarlyExpirationPolicy(1.0, TTL, () -> 0.999);
+
+        assertFalse(policy.shouldRecompute(new StampedValue("list", 0, 0), TTL.toMillis() - 1));
+    }
+
+    private static int countRecomputes(EarlyExpirationPolicy policy, StampedValue stamped, long now) {
+        int count = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (policy.shouldRecompute(stamped, now)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
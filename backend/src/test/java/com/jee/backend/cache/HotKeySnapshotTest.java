@@ -0,0 +1,96 @@
+package com.jee.backend.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotKeySnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWriteThenRead_RoundTripsEntriesAndTtlMetadata() throws IOException {
+        Path file = directory.resolve("snapshot/cache-snapshot.bin");
+        List<HotKeySnapshot.Entry> entries = List.of(
+                new HotKeySnapshot.Entry("weather", 3, "paris", 1_000_000L, bytes("sunny")),
+                new HotKeySnapshot.Entry("currency", 0, "USD+EUR", 2_000_000L, bytes("0.91")));
+
+        HotKeySnapshot.writeFile(file, entries, 1024 * 1024);
+        List<HotKeySnapshot.Entry> read = HotKeySnapshot.readFile(file);
+
+        assertEquals(2, read.size());
+        assertEquals("weather", read.get(0).getCacheName());
+        assertEquals(3, read.get(0).getGeneration());
+        assertEquals("paris", read.get(0).getKey());
+        assertEquals(1_000_000L, read.get(0).getExpiresAt());
+        assertArrayEquals(bytes("sunny"), read.get(0).getValue());
+        assertEquals("USD+EUR", read.get(1).getKey());
+        assertFalse(Files.exists(directory.resolve("snapshot/cache-snapshot.bin.tmp")));
+    }
+
+    @Test
+    void testWrite_DropsEntriesBeyondSizeBudget() throws IOException {
+        Path file = directory.resolve("cache-snapshot.bin");
+        List<HotKeySnapshot.Entry> entries = List.of(
+                new HotKeySnapshot.Entry("product", 0, "1", 1L, new byte[100]),
+                new HotKeySnapshot.Entry("product", 0, "2", 1L, new byte[100]));
+
+        long size = HotKeySnapshot.writeFile(file, entries, 200);
+
+        assertEquals(Files.size(file), size);
+        assertEquals(1, HotKeySnapshot.readFile(file).size());
+    }
+
+    @Test
+    void testRead_RejectsCorruptedSnapshot() throws IOException {
+        Path file = directory.resolve("cache-snapshot.bin");
+        HotKeySnapshot.writeFile(file, List.of(new HotKeySnapshot.Entry("weather", 0, "paris", 1L, bytes("sunny"))),
+                1024);
+        byte[] content = Files.readAllBytes(file);
+        content[content.length - 1] ^= 0x7F;
+        Files.write(file, content);
+
+        assertThrows(IOException.class, () -> HotKeySnapshot.readFile(file));
+    }
+
+    @Test
+    void testFreshness_RequiresMinimumRemainingTtl() {
+        HotKeySnapshot.Entry entry = new HotKeySnapshot.Entry("weather", 0, "paris", 60_000L, bytes("sunny"));
+
+        assertTrue(entry.isFresh(0, Duration.ofSeconds(30)));
+        assertFalse(entry.isFresh(40_000L, Duration.ofSeconds(30)));
+        assertFalse(entry.isFresh(60_000L, Duration.ZERO));
+    }
+
+    @Test
+    void testNearCache_HottestFirstAndRestoreNeverOverwrites() {
+        NearCache nearCache = new NearCache("weather", 10, Duration.ofSeconds(30));
+        nearCache.put("paris", "sunny");
+        nearCache.put("london", "rainy");
+        nearCache.put("tokyo", "cloudy");
+        nearCache.get("paris");
+
+        List<Map.Entry<String, Object>> hottest = nearCache.hottest(2);
+        assertEquals(List.of("paris", "tokyo"), hottest.stream().map(Map.Entry::getKey).toList());
+
+        assertFalse(nearCache.restore("paris", "stale", Duration.ofMinutes(5)));
+        assertFalse(nearCache.restore("berlin", "snow", Duration.ZERO));
+        assertTrue(nearCache.restore("berlin", "snow", Duration.ofMinutes(5)));
+        assertEquals("sunny", nearCache.get("paris"));
+        assertEquals("snow", nearCache.get("berlin"));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,92 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.cache.CacheKeyPrefix;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class HotKeyTrackerTest {
+
+    private HotKeyTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        CacheFlowProperties.HotKeys properties = new CacheFlowProperties.HotKeys();
+        properties.setTopK(3);
+        tracker = new HotKeyTracker(properties);
+    }
+
+    @Test
+    void testSkewedTraffic_TopKeysRankedByReads() {
+        for (int i = 0; i < 1000; i++) {
+            tracker.record("weather", "paris");
+            if (i % 2 == 0) {
+                tracker.record("weather", "london");
+            }
+            if (i % 4 == 0) {
+                tracker.record("weather", "tokyo");
+            }
+            // Longue traîne de clés lues une seule fois
+            tracker.record("weather", "city-" + i);
+        }
+        tracker.rotate();
+
+        List<HotKeyTracker.HotKey> hotKeys = tracker.hotKeys("weather");
+        assertEquals(List.of("paris", "london", "tokyo"), hotKeys.stream().map(HotKeyTracker.HotKey::getKey).toList());
+        // Le sketch ne sous-estime jamais
+        assertTrue(hotKeys.get(0).getEstimatedReads() >= 1000);
+        assertTrue(tracker.isHot("weather", "paris", 1));
+        assertFalse(tracker.isHot("weather", "city-1", 0.001));
+    }
+
+    @Test
+    void testRotate_StartsNewWindow() {
+        tracker.record("currency", "USD+EUR");
+        tracker.rotate();
+        assertEquals(1, tracker.hotKeys("currency").size());
+
+        tracker.rotate();
+        assertTrue(tracker.hotKeys("currency").isEmpty());
+        assertEquals(0, tracker.estimatedQps("currency", "USD+EUR"));
+    }
+
+    @Test
+    void testWriterAndNearCacheHits_CountedUnderSameKey() {
+        CacheKeyPrefix keyPrefix = name -> name + "::3::";
+        RedisCacheWriter writer = new HotKeyTrackingRedisCacheWriter(mock(RedisCacheWriter.class), tracker, keyPrefix);
+        TwoTierCache cache = new TwoTierCache(new ConcurrentMapCache("weather", false),
+                new NearCache("weather", 10, Duration.ofMinutes(1)), mock(CacheInvalidationPublisher.class), tracker);
+
+        writer.get("weather", "weather::3::paris".getBytes(StandardCharsets.UTF_8));
+        cache.put("paris", "sunny");
+        cache.get("paris");
+        tracker.rotate();
+
+        assertEquals(2, tracker.hotKeys("weather").get(0).getEstimatedReads());
+        assertEquals("paris", tracker.hotKeys("weather").get(0).getKey());
+    }
+
+    @Test
+    void testSketch_EstimatesNeverBelowTrueCount() {
+        CountMinSketch sketch = new CountMinSketch(4, 64);
+        for (int i = 0; i < 500; i++) {
+            sketch.add("key-" + (i % 50));
+        }
+
+        assertEquals(64, sketch.width());
+        for (int i = 0; i < 50; i++) {
+            assertTrue(sketch.estimate("key-" + i) >= 10);
+        }
+        sketch.reset();
+        assertEquals(0, sketch.estimate("key-1"));
+    }
+}
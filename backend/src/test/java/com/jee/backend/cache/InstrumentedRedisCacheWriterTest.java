@@ -0,0 +1,86 @@
+package com.jee.backend.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class InstrumentedRedisCacheWriterTest {
+
+    private static final byte[] KEY = "weather::paris".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] VALUE = new byte[120];
+    private static final Duration TTL = Duration.ofMinutes(15);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RedisCacheWriter delegate;
+    private InstrumentedRedisCacheWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(RedisCacheWriter.class);
+        writer = new InstrumentedRedisCacheWriter(delegate, registry, 0.0);
+    }
+
+    @Test
+    void testHitsMissesAndGetLatency_PerCache() {
+        when(delegate.get("weather", KEY)).thenReturn(VALUE, VALUE, null);
+
+        writer.get("weather", KEY);
+        writer.get("weather", KEY);
+        writer.get("weather", KEY);
+
+        assertEquals(2.0, registry.get("cacheflow.cache.gets").tags("cache", "weather", "result", "hit").counter().count());
+        assertEquals(1.0, registry.get("cacheflow.cache.gets").tags("cache", "weather", "result", "miss").counter().count());
+        assertEquals(3, registry.get("cacheflow.cache.latency").tags("cache", "weather", "operation", "get").timer().count());
+    }
+
+    @Test
+    void testPut_RecordsValueSize() {
+        writer.put("currency", KEY, VALUE, TTL);
+
+        verify(delegate).put("currency", KEY, VALUE, TTL);
+        assertEquals(1.0, registry.get("cacheflow.cache.puts").tag("cache", "currency").counter().count());
+        assertEquals(120.0, registry.get("cacheflow.cache.value.size").tag("cache", "currency").summary().totalAmount());
+        assertEquals(1, registry.get("cacheflow.cache.latency").tags("cache", "currency", "operation", "put").timer().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLoadThrough_CountedAsMissAndPut() {
+        when(delegate.get(eq("weather"), eq(KEY), any(Supplier.class), eq(TTL), anyBoolean()))
+                .thenAnswer(invocation -> ((Supplier<byte[]>) invocation.getArgument(2)).get());
+
+        assertArrayEquals(VALUE, writer.get("weather", KEY, () -> VALUE, TTL, false));
+
+        assertEquals(1.0, registry.get("cacheflow.cache.gets").tags("cache", "weather", "result", "miss").counter().count());
+        assertEquals(1.0, registry.get("cacheflow.cache.puts").tag("cache", "weather").counter().count());
+    }
+
+    @Test
+    void testEvictIfPresentAndClear_DelegatedToChain() {
+        byte[] pattern = "weather::*".getBytes(StandardCharsets.UTF_8);
+        when(delegate.evictIfPresent("weather", KEY)).thenReturn(true, false);
+        when(delegate.invalidate("weather", pattern)).thenReturn(true);
+
+        assertTrue(writer.evictIfPresent("weather", KEY));
+        assertFalse(writer.evictIfPresent("weather", KEY));
+        writer.clear("weather", pattern);
+        assertTrue(writer.invalidate("weather", pattern));
+
+        verify(delegate).clear("weather", pattern);
+        verify(delegate).invalidate("weather", pattern);
+        assertEquals(1.0, registry.get("cacheflow.cache.evictions").tag("cache", "weather").counter().count());
+        assertEquals(2.0, registry.get("cacheflow.cache.clears").tag("cache", "weather").counter().count());
+        assertEquals(2, registry.get("cacheflow.cache.latency").tags("cache", "weather", "operation", "clear").timer().count());
+    }
+}
@@ -0,0 +1,98 @@
+package com.jee.backend.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LeasingRedisCacheWriterTest {
+
+    private static final byte[] KEY = "weather::paris".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] VALUE = "sunny".getBytes(StandardCharsets.UTF_8);
+    private static final Duration TTL = Duration.ofMinutes(15);
+
+    private RedisCacheWriter delegate;
+    private CacheRebuildLease lease;
+    private LeasingRedisCacheWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(RedisCacheWriter.class);
+        lease = mock(CacheRebuildLease.class);
+        when(lease.isEnabledFor("weather")).thenReturn(true);
+        when(lease.getWaitTimeout()).thenReturn(Duration.ofMillis(200));
+        when(lease.getPollInterval()).thenReturn(Duration.ofMillis(10));
+        writer = new LeasingRedisCacheWriter(delegate, lease);
+    }
+
+    @Test
+    void testLeaseHolder_LoadsAndWritesWithFencingToken() {
+        when(lease.tryAcquire("weather", KEY)).thenReturn(42L);
+        when(lease.writeIfHolder("weather", KEY, 42L, VALUE, TTL)).thenReturn(true);
+
+        byte[] result = writer.get("weather", KEY, () -> VALUE, TTL, false);
+
+        assertArrayEquals(VALUE, result);
+        verify(lease).writeIfHolder("weather", KEY, 42L, VALUE, TTL);
+        verify(delegate, never()).put(any(), any(), any(), any());
+        verify(delegate, never()).putIfAbsent(any(), any(), any(), any());
+    }
+
+    @Test
+    void testFencedWriteRefused_StoresValueOnlyIfStillAbsent() {
+        // Bail expiré pendant le chargement : la valeur n'est pas perdue, sans écraser celle d'un nouveau détenteur
+        when(lease.tryAcquire("weather", KEY)).thenReturn(42L);
+        when(lease.writeIfHolder("weather", KEY, 42L, VALUE, TTL)).thenReturn(false);
+
+        assertArrayEquals(VALUE, writer.get("weather", KEY, () -> VALUE, TTL, false));
+
+        verify(delegate).putIfAbsent("weather", KEY, VALUE, TTL);
+        verify(delegate, never()).put(any(), any(), any(), any());
+    }
+
+    @Test
+    void testOtherNodeHoldsLease_WaitsForItsValue() {
+        when(lease.tryAcquire("weather", KEY)).thenReturn(0L);
+        when(delegate.get("weather", KEY)).thenReturn(null, null, VALUE);
+        AtomicInteger loads = new AtomicInteger();
+
+        byte[] result = writer.get("weather", KEY, () -> {
+            loads.incrementAndGet();
+            return VALUE;
+        }, TTL, false);
+
+        assertArrayEquals(VALUE, result);
+        assertEquals(0, loads.get());
+        verify(lease).recordServedByOtherNode("weather");
+    }
+
+    @Test
+    void testWaitTimeout_LoadsLocally() {
+        when(lease.tryAcquire("weather", KEY)).thenReturn(0L);
+
+        byte[] result = writer.get("weather", KEY, () -> VALUE, TTL, false);
+
+        assertArrayEquals(VALUE, result);
+        verify(lease).recordWaitTimeout("weather");
+        verify(delegate).put("weather", KEY, VALUE, TTL);
+    }
+
+    @Test
+    void testLoaderFailure_ReleasesLease() {
+        when(lease.tryAcquire("weather", KEY)).thenReturn(7L);
+
+        assertThrows(IllegalStateException.class, () -> writer.get("weather", KEY, () -> {
+            throw new IllegalStateException("API météo indisponible");
+        }, TTL, false));
+
+        verify(lease).release(KEY, 7L);
+        verify(lease, never()).writeIfHolder(any(), any(), anyLong(), any(), any());
+    }
+}
@@ -0,0 +1,87 @@
+package com.jee.backend.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NearCacheTest {
+
+    @Test
+    void testTinyLfu_OneOffKeysDoNotEvictReusedKeys() {
+        NearCache nearCache = new NearCache("weather", 10, Duration.ofMinutes(1), NearCacheAdmission.TINYLFU, 0.01, true);
+
+        for (int round = 0; round < 200; round++) {
+            for (int hot = 0; hot < 8; hot++) {
+                access(nearCache, "city-" + hot);
+            }
+            // Villes aléatoires demandées une seule fois
+            for (int scan = 0; scan < 20; scan++) {
+                access(nearCache, "random-" + round + "-" + scan);
+            }
+        }
+
+        double hitRatio = (double) nearCache.getHits() / (nearCache.getHits() + nearCache.getMisses());
+        double lruHitRatio = (double) nearCache.getShadowLruHits()
+                / (nearCache.getShadowLruHits() + nearCache.getShadowLruMisses());
+        // 8 clés réutilisées sur 28 accès par tour : TinyLFU les garde, le LRU les perd à chaque tour
+        assertTrue(hitRatio > 0.25, "TinyLFU hit ratio: " + hitRatio);
+        assertEquals(0.0, lruHitRatio);
+        assertTrue(nearCache.getRejectedAdmissions() > 0);
+        assertEquals(10, nearCache.size());
+    }
+
+    @Test
+    void testTinyLfu_NewEntryReadableFromWindow() {
+        NearCache nearCache = new NearCache("weather", 10, Duration.ofMinutes(1), NearCacheAdmission.TINYLFU, 0.01, false);
+        for (int i = 0; i < 10; i++) {
+            nearCache.put("resident-" + i, i);
+        }
+
+        nearCache.put("paris", "sunny");
+
+        assertEquals("sunny", nearCache.get("paris"));
+        assertFalse(nearCache.hasShadowLru());
+    }
+
+    @Test
+    void testTinyLfu_FrequentCandidateReplacesColdVictim() {
+        NearCache nearCache = new NearCache("weather", 3, Duration.ofMinutes(1), NearCacheAdmission.TINYLFU, 0.01, false);
+        nearCache.put("a", 1);
+        nearCache.put("b", 2);
+        nearCache.put("c", 3);
+        for (int i = 0; i < 5; i++) {
+            nearCache.get("d");
+        }
+
+        // "c", jamais lu, est refusé par le cache principal plein ; "d", fréquent, y évince ensuite "a"
+        nearCache.put("d", 4);
+        nearCache.put("e", 5);
+
+        assertEquals(3, nearCache.size());
+        assertEquals(1, nearCache.getRejectedAdmissions());
+        assertEquals(4, nearCache.get("d"));
+        assertNull(nearCache.get("a"));
+    }
+
+    @Test
+    void testLru_EvictsLeastRecentlyUsed() {
+        NearCache nearCache = new NearCache("weather", 2, Duration.ofMinutes(1), NearCacheAdmission.LRU, 0.01, true);
+        nearCache.put("a", 1);
+        nearCache.put("b", 2);
+        nearCache.get("a");
+        nearCache.put("c", 3);
+
+        assertNull(nearCache.get("b"));
+        assertEquals(0, nearCache.getRejectedAdmissions());
+        // Le LRU fantôme suit exactement le même cache
+        assertEquals(nearCache.getHits(), nearCache.getShadowLruHits());
+    }
+
+    private static void access(NearCache nearCache, String key) {
+        if (nearCache.get(key) == null) {
+            nearCache.put(key, key);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.jee.backend.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RedisKeyScannerTest {
+
+    @Test
+    void testUnlinkMatching_DeletesInBoundedBatches() {
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisKeyCommands keyCommands = mock(RedisKeyCommands.class);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+
+        Iterator<byte[]> keys = List.of("a", "b", "c", "d", "e").stream().map(String::getBytes).iterator();
+        @SuppressWarnings("unchecked")
+        Cursor<byte[]> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> keys.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> keys.next());
+        when(keyCommands.scan(any(ScanOptions.class))).thenReturn(cursor);
+        when(keyCommands.unlink(any(byte[][].class)))
+                .thenAnswer(invocation -> (long) invocation.getArguments().length);
+
+        RedisKeyScanner.ClearResult result = RedisKeyScanner.unlinkMatching(connection, "products::*".getBytes(), 2);
+
+        // 5 keys with a batch size of 2 - two full batches and one remainder
+        verify(keyCommands, times(3)).unlink(any(byte[][].class));
+        verify(keyCommands, never()).keys(any());
+        verify(cursor).close();
+        assertEquals(5, result.getKeysDeleted());
+        assertNotNull(result.getDuration());
+    }
+}
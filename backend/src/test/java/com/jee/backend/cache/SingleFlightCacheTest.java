@@ -0,0 +1,119 @@
+package com.jee.backend.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightCacheTest {
+
+    @Test
+    void testConcurrentMisses_ShareOneLoad() throws Exception {
+        SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("weather", false), Duration.ofSeconds(5));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> cache.get("paris", () -> {
+                    loads.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return "sunny";
+                })));
+            }
+            // Let every caller reach the cache before the single load completes
+            while (cache.getCoalesced() + cache.getLoads() < callers) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("sunny", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getLoads());
+        assertEquals(callers - 1, cache.getCoalesced());
+        assertEquals(0, cache.getInFlight());
+    }
+
+    @Test
+    void testLoaderFailure_PropagatedAndNotCached() {
+        SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("currency", false), Duration.ofSeconds(5));
+
+        assertThrows(RuntimeException.class, () -> cache.get("USD+EUR", () -> {
+            throw new IllegalStateException("MongoDB unavailable");
+        }));
+
+        // Next caller loads again
+        assertEquals("0.91", cache.get("USD+EUR", () -> "0.91"));
+        assertEquals(2, cache.getLoads());
+    }
+
+    @Test
+    void testAsyncMisses_ShareOneLoad() {
+        SingleFlightCache cache = new SingleFlightCache(new RetrievingCache("products"), Duration.ofSeconds(5));
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> load = new CompletableFuture<>();
+
+        CompletableFuture<String> first = cache.retrieve("all", () -> {
+            loads.incrementAndGet();
+            return load;
+        });
+        CompletableFuture<String> second = cache.retrieve("all", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        assertFalse(second.isDone());
+
+        load.complete("catalog");
+
+        assertEquals("catalog", first.join());
+        assertEquals("catalog", second.join());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getCoalesced());
+        assertEquals(0, cache.getInFlight());
+        // La valeur est en cache : un nouvel appel ne charge plus
+        assertEquals("catalog", cache.retrieve("all", () -> CompletableFuture.completedFuture("reload")).join());
+    }
+
+    /**
+     * Même séquence que RedisCache.retrieve : lecture, puis chargeur appelé sur le thread appelant et écriture à sa complétion
+     */
+    private static final class RetrievingCache extends ConcurrentMapCache {
+
+        private RetrievingCache(String name) {
+            super(name, false);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+            ValueWrapper cached = get(key);
+            if (cached != null) {
+                return CompletableFuture.completedFuture((T) cached.get());
+            }
+            return valueLoader.get().thenApply(value -> {
+                put(key, value);
+                return value;
+            });
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class StaleWhileRevalidateCacheTest {
+
+    private final ConcurrentMapCache redisCache = new ConcurrentMapCache("weather", false);
+    private final List<Runnable> pendingRefreshes = new ArrayList<>();
+    private final StaleWhileRevalidateCache cache =
+            new StaleWhileRevalidateCache(redisCache, Duration.ofMinutes(10), pendingRefreshes::add);
+
+    @Test
+    void testFreshValue_ServedWithoutRefresh() {
+        assertEquals("sunny", cache.get("paris", () -> "sunny"));
+        assertEquals("sunny", cache.get("paris", () -> "rainy"));
+
+        assertTrue(pendingRefreshes.isEmpty());
+        assertEquals("sunny", cache.get("paris").get());
+        assertInstanceOf(StampedValue.class, redisCache.get("paris").get());
+    }
+
+    @Test
+    void testStaleValue_ServedImmediatelyAndRefreshedInBackground() {
+        redisCache.put("paris", new StampedValue("sunny", System.currentTimeMillis() - Duration.ofMinutes(11).toMillis(), 5));
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("sunny", cache.get("paris", () -> "rainy-" + loads.incrementAndGet()));
+        assertEquals("sunny", cache.get("paris", () -> "rainy-" + loads.incrementAndGet()));
+
+        // Un seul rafraîchissement par clé, exécuté hors du thread appelant
+        assertEquals(1, pendingRefreshes.size());
+        assertEquals(0, loads.get());
+        pendingRefreshes.get(0).run();
+
+        assertEquals("rainy-1", cache.get("paris", () -> "unused"));
+        assertEquals(2, cache.getStaleHits());
+        assertEquals(1, cache.getRefreshes());
+    }
+
+    @Test
+    void testRefreshStartedBeforeEviction_DoesNotRewriteEntry() {
+        redisCache.put("paris", new StampedValue("sunny", 0, 5));
+        cache.get("paris", () -> "rainy");
+
+        cache.evict("paris");
+        pendingRefreshes.get(0).run();
+
+        assertNull(cache.get("paris"));
+    }
+
+    @Test
+    void testPutDuringRefresh_RefreshDoesNotOverwriteNewerValue() {
+        redisCache.put("paris", new StampedValue("sunny", 0, 5));
+        cache.get("paris", () -> "cloudy");
+
+        // @CachePut pendant que le rafraîchissement charge : la valeur écrite explicitement est la plus récente
+        cache.put("paris", "rainy");
+        pendingRefreshes.get(0).run();
+
+        assertEquals("rainy", cache.get("paris").get());
+        assertEquals(1, cache.getDiscardedRefreshes());
+
+        // Sans écriture concurrente, le rafraîchissement suivant réécrit bien l'entrée
+        redisCache.put("paris", new StampedValue("rainy", 0, 5));
+        cache.get("paris", () -> "cloudy");
+        pendingRefreshes.get(1).run();
+        assertEquals("cloudy", cache.get("paris").get());
+    }
+
+    @Test
+    void testLegacyUnstampedValue_StillReadable() {
+        redisCache.put("paris", "sunny");
+
+        assertEquals("sunny", cache.get("paris", String.class));
+        assertEquals("sunny", cache.get("paris", () -> "rainy"));
+        assertTrue(pendingRefreshes.isEmpty());
+    }
+
+    @Test
+    void testEarlyExpiration_ReaderWithoutLoaderSeesMissAndComputeTimeIsRecorded() throws Exception {
+        ConcurrentMapCache currencies = new ConcurrentMapCache("currencies", false);
+        StaleWhileRevalidateCache earlyCache = new StaleWhileRevalidateCache(currencies, null,
+                new EarlyExpirationPolicy(1.0, Duration.ofMinutes(10), () -> 0.5), pendingRefreshes::add);
+
+        // @Cacheable sans sync : get() rate, la méthode s'exécute puis put() sur le même thread
+        assertNull(earlyCache.get("all"));
+        Thread.sleep(20);
+        earlyCache.put("all", "EUR,USD");
+
+        StampedValue stamped = (StampedValue) currencies.get("all").get();
+        assertTrue(stamped.getComputeMillis() >= 20);
+        assertEquals("EUR,USD", earlyCache.get("all").get());
+
+        // Juste avant le TTL dur, le lecteur tiré au sort recalcule
+        currencies.put("all", new StampedValue("EUR,USD", System.currentTimeMillis() - Duration.ofMinutes(10).toMillis() + 5, 20));
+        assertNull(earlyCache.get("all"));
+        assertEquals(1, earlyCache.getEarlyMisses());
+    }
+
+    @Test
+    void testMissFollowedByEvict_LaterPutDoesNotRecordComputeTime() throws Exception {
+        ConcurrentMapCache products = new ConcurrentMapCache("products", false);
+        StaleWhileRevalidateCache earlyCache = new StaleWhileRevalidateCache(products, null,
+                new EarlyExpirationPolicy(1.0, Duration.ofMinutes(10), () -> 0.5), pendingRefreshes::add);
+
+        // Miss sans put (lecture puis éviction) : le miss en attente est abandonné avec la clé
+        assertNull(earlyCache.get("all"));
+        earlyCache.evict("all");
+        Thread.sleep(20);
+        earlyCache.put("all", "EUR,USD");
+
+        assertEquals(0, ((StampedValue) products.get("all").get()).getComputeMillis());
+    }
+
+    @Test
+    void testPeek_IgnoresEarlyExpirationButNotSoftTtl() {
+        ConcurrentMapCache products = new ConcurrentMapCache("products", false);
+        StaleWhileRevalidateCache earlyCache = new StaleWhileRevalidateCache(products, () -> Duration.ofMinutes(10),
+                new EarlyExpirationPolicy(1.0, Duration.ofMinutes(15), () -> 0.5), pendingRefreshes::add);
+
+        // Tout près du TTL dur, get() désigne ce lecteur pour recalculer ; peek() rend la valeur
+        products.put("all", new StampedValue("p1,p2", System.currentTimeMillis() - Duration.ofMinutes(9).toMillis(), 600_000));
+        assertNull(earlyCache.get("all"));
+        assertEquals("p1,p2", earlyCache.peek("all").get());
+
+        // Au-delà du TTL souple, l'entrée doit être rechargée, pas modifiée en place
+        products.put("all", new StampedValue("p1,p2", System.currentTimeMillis() - Duration.ofMinutes(11).toMillis(), 5));
+        assertNull(earlyCache.peek("all"));
+        assertTrue(pendingRefreshes.isEmpty());
+    }
+
+    @Test
+    void testReplace_KeepsComputeTimeSoEarlyExpirationStaysOn() {
+        ConcurrentMapCache products = new ConcurrentMapCache("products", false);
+        StaleWhileRevalidateCache earlyCache = new StaleWhileRevalidateCache(products, null,
+                new EarlyExpirationPolicy(1.0, Duration.ofMinutes(10), () -> 0.5), pendingRefreshes::add);
+        products.put("all", new StampedValue("p1,p2", System.currentTimeMillis() - 60_000, 250));
+
+        earlyCache.replace("all", "p1,p2,p3");
+
+        StampedValue stamped = (StampedValue) products.get("all").get();
+        assertEquals("p1,p2,p3", stamped.getValue());
+        assertEquals(250, stamped.getComputeMillis());
+        assertTrue(System.currentTimeMillis() - stamped.getWrittenAt() < 60_000);
+        assertSame(earlyCache, StaleWhileRevalidateCache.find(new TransactionAwareCacheDecorator(earlyCache)));
+    }
+
+    @Test
+    void testAdaptiveTtlTuned_SoftTtlFollowsCurrentHardTtl() {
+        CacheFlowProperties properties = new CacheFlowProperties();
+        CacheFlowProperties.AdaptiveTtlSpec spec = new CacheFlowProperties.AdaptiveTtlSpec();
+        spec.setMinTtl(Duration.ofMinutes(15));
+        spec.setMaxTtl(Duration.ofHours(4));
+        properties.getAdaptiveTtl().getCaches().put("currency", spec);
+        AdaptiveTtlPolicy policy = new AdaptiveTtlPolicy(properties.getAdaptiveTtl());
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(mock(RedisCacheWriter.class))
+                .withCacheConfiguration("currency", RedisCacheConfiguration.defaultCacheConfig()
+                        .entryTtl(policy.register("currency", Duration.ofHours(1))))
+                .build();
+        redisCacheManager.afterPropertiesSet();
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(redisCacheManager, properties,
+                mock(CacheInvalidationPublisher.class), policy, null, null, false);
+        StaleWhileRevalidateCache currency = (StaleWhileRevalidateCache) cacheManager.getCache("currency");
+        StampedValue stamped = new StampedValue("0.91", System.currentTimeMillis() - Duration.ofMinutes(20).toMillis(), 5);
+
+        // TTL dur 1 h : TTL souple 45 min
+        assertFalse(currency.isStale(stamped));
+
+        // Taux volatils : 1 h -> 30 min -> 15 min, le TTL souple passe à 11 min 15 s
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 10; i++) {
+                policy.recordWrite("currency", "USD+EUR", "0.9" + round + i);
+            }
+            policy.tune();
+        }
+
+        assertTrue(currency.isStale(stamped));
+        assertEquals(Duration.ofMinutes(15).toMillis() * 3 / 4, currency.getSoftTtlMillis());
+        cacheManager.destroy();
+    }
+}
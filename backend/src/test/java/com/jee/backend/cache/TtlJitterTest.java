@@ -0,0 +1,91 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TtlJitterTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    private CacheFlowProperties.TtlJitter properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CacheFlowProperties.TtlJitter();
+        CacheFlowProperties.JitterSpec percent = new CacheFlowProperties.JitterSpec();
+        percent.setPercent(10);
+        CacheFlowProperties.JitterSpec band = new CacheFlowProperties.JitterSpec();
+        band.setBand(Duration.ofMinutes(5));
+        properties.getCaches().put("weather", percent);
+        properties.getCaches().put("currency", band);
+    }
+
+    @Test
+    void testJitteredTtl_StaysWithinBandBelowConfiguredTtl() {
+        TtlJitter jitter = new TtlJitter(properties);
+        Set<Duration> distinct = new HashSet<>();
+
+        for (int i = 0; i < 1000; i++) {
+            Duration ttl = jitter.apply("currency", HOUR);
+            assertTrue(ttl.compareTo(HOUR) <= 0);
+            assertTrue(ttl.compareTo(HOUR.minusMinutes(5)) >= 0);
+            distinct.add(ttl);
+        }
+        assertTrue(distinct.size() > 100);
+    }
+
+    @Test
+    void testPercentBand() {
+        TtlJitter jitter = new TtlJitter(properties, bound -> bound - 1);
+
+        assertEquals(Duration.ofMinutes(54), jitter.apply("weather", HOUR));
+    }
+
+    @Test
+    void testCacheWithoutJitterAndPersistentEntries_Unchanged() {
+        TtlJitter jitter = new TtlJitter(properties);
+
+        assertEquals(HOUR, jitter.apply("products", HOUR));
+        assertEquals(Duration.ZERO, jitter.apply("currency", Duration.ZERO));
+        assertNull(jitter.apply("currency", null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExpiryDistribution_SpreadOverSeveralMinutes() {
+        TtlJitter jitter = new TtlJitter(properties);
+        for (int i = 0; i < 500; i++) {
+            jitter.apply("currency", HOUR);
+        }
+
+        Map<String, Object> stats = jitter.getStatistics().get("currency");
+        Map<String, Long> expiries = (Map<String, Long>) stats.get("expiriesPerMinute");
+
+        assertEquals(500L, stats.get("writes"));
+        assertTrue(expiries.size() >= 5, "expiries=" + expiries);
+        assertTrue((Long) stats.get("peakExpiriesPerMinute") < 500);
+    }
+
+    @Test
+    void testEarlyExpirationCache_NotJittered() {
+        CacheFlowProperties.JitterSpec band = new CacheFlowProperties.JitterSpec();
+        band.setBand(Duration.ofMinutes(5));
+        properties.getCaches().put("products", band);
+        CacheFlowProperties.EarlyExpiration earlyExpiration = new CacheFlowProperties.EarlyExpiration();
+        earlyExpiration.setCaches(Set.of("products"));
+        TtlJitter jitter = new TtlJitter(properties, earlyExpiration, bound -> bound - 1);
+
+        // XFetch vise writtenAt + TTL nominal : le TTL Redis doit rester ce TTL
+        assertEquals(HOUR, jitter.apply("products", HOUR));
+        assertEquals(HOUR.minusMinutes(5), jitter.apply("currency", HOUR));
+        assertEquals("none (early expiration)", jitter.getStatistics().get("products").get("jitter"));
+    }
+}
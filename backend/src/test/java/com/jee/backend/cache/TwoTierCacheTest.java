@@ -0,0 +1,98 @@
+package com.jee.backend.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoTierCacheTest {
+
+    @Mock
+    private CacheInvalidationPublisher publisher;
+
+    private ConcurrentMapCache redisCache;
+    private NearCache nearCache;
+    private TwoTierCache cache;
+
+    @BeforeEach
+    void setUp() {
+        redisCache = spy(new ConcurrentMapCache("products", false));
+        nearCache = new NearCache("products", 2, Duration.ofMinutes(1));
+        cache = new TwoTierCache(redisCache, nearCache, publisher);
+    }
+
+    @Test
+    void testGet_NearCacheHitSkipsRedis() {
+        redisCache.put("1", "value");
+
+        // First call - L1 miss, read from Redis and copied locally
+        Cache.ValueWrapper first = cache.get("1");
+        // Second call - served by L1
+        Cache.ValueWrapper second = cache.get("1");
+
+        assertEquals("value", first.get());
+        assertEquals("value", second.get());
+        verify(redisCache, times(1)).get("1");
+        assertEquals(1, nearCache.getHits());
+    }
+
+    @Test
+    void testPut_UpdatesBothTiersAndPublishes() {
+        cache.put("1", "value");
+
+        assertEquals("value", redisCache.get("1").get());
+        assertEquals("value", nearCache.get("1"));
+        verify(publisher).publishEvict("products", "1");
+    }
+
+    @Test
+    void testEvict_RemovesBothTiersAndPublishes() {
+        cache.put("1", "value");
+        cache.evict("1");
+
+        assertNull(redisCache.get("1"));
+        assertNull(nearCache.get("1"));
+        verify(publisher, times(2)).publishEvict("products", "1");
+    }
+
+    @Test
+    void testClear_PublishesClear() {
+        cache.put("1", "value");
+        cache.clear();
+
+        assertEquals(0, nearCache.size());
+        verify(publisher).publishClear("products");
+    }
+
+    @Test
+    void testNearCache_BoundedLru() {
+        nearCache.put("a", 1);
+        nearCache.put("b", 2);
+        nearCache.get("a");
+        nearCache.put("c", 3);
+
+        // "b" is the least recently used entry
+        assertEquals(2, nearCache.size());
+        assertNotNull(nearCache.get("a"));
+        assertNull(nearCache.get("b"));
+    }
+
+    @Test
+    void testNearCache_StaleReadIsNotCopiedAfterInvalidation() {
+        long generation = nearCache.generation();
+        // A remote invalidation arrives while the Redis read is in flight
+        nearCache.invalidate("1");
+
+        assertFalse(nearCache.putIfUnchanged("1", "stale", generation));
+        assertNull(nearCache.get("1"));
+    }
+}
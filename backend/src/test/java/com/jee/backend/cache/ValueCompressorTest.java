@@ -0,0 +1,72 @@
+package com.jee.backend.cache;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueCompressorTest {
+
+    private CacheFlowProperties.Compression properties;
+    private ValueCompressor compressor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CacheFlowProperties.Compression();
+        properties.setThreshold(DataSize.ofBytes(256));
+        compressor = new ValueCompressor(properties);
+    }
+
+    @Test
+    void testSmallValue_StoredUnchanged() {
+        byte[] value = "small".getBytes(StandardCharsets.UTF_8);
+
+        assertSame(value, compressor.compress("products", value));
+        assertSame(value, compressor.decompress("products", value));
+    }
+
+    @Test
+    void testLargeValue_CompressedWithHeaderAndRestored() {
+        byte[] value = "Product,Electronics,99.99;".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+        byte[] compressed = compressor.compress("products", value);
+
+        assertEquals(ValueCompressor.COMPRESSED_MARKER, compressed[0]);
+        assertTrue(compressed.length < value.length / 4);
+        assertArrayEquals(value, compressor.decompress("products", compressed));
+
+        Map<String, Object> stats = compressor.getStatistics().get("products");
+        assertEquals(1L, stats.get("compressed"));
+        assertEquals(1L, stats.get("decompressed"));
+        assertTrue((Double) stats.get("ratio") > 4.0);
+    }
+
+    @Test
+    void testIncompressibleValue_StoredUnchanged() {
+        byte[] value = new byte[1024];
+        new java.util.Random(42).nextBytes(value);
+
+        assertSame(value, compressor.compress("weather", value));
+    }
+
+    @Test
+    void testPerCacheThreshold() {
+        properties.getCaches().put("weather", DataSize.ofKilobytes(64));
+        byte[] value = "x".repeat(1024).getBytes(StandardCharsets.UTF_8);
+
+        assertSame(value, compressor.compress("weather", value));
+        assertNotSame(value, compressor.compress("products", value));
+    }
+
+    @Test
+    void testLegacyAndSerializerOutput_NeverMistakenForCompressed() {
+        byte[] compact = new CompactBinaryRedisSerializer(getClass().getClassLoader()).serialize("value");
+
+        assertSame(compact, compressor.decompress("products", compact));
+    }
+}
@@ -0,0 +1,125 @@
+package com.jee.backend.service;
+
+import com.jee.backend.config.CacheFlowProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CacheWarmupServiceTest {
+
+    private ProductService productService;
+    private CurrencyService currencyService;
+    private WeatherService weatherService;
+    private StringRedisTemplate redisTemplate;
+    private ZSetOperations<String, String> zSetOperations;
+    private CacheFlowProperties properties;
+    private CacheWarmupService warmupService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        productService = mock(ProductService.class);
+        currencyService = mock(CurrencyService.class);
+        weatherService = mock(WeatherService.class);
+        redisTemplate = mock(StringRedisTemplate.class);
+        zSetOperations = mock(ZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(currencyService.getSupportedCurrencies()).thenReturn(Set.of("USD", "EUR", "GBP"));
+
+        properties = new CacheFlowProperties();
+        properties.getWarmup().setCities(List.of("Paris", "London"));
+        properties.getWarmup().setLearnedCities(2);
+        warmupService = new CacheWarmupService(productService, currencyService, weatherService, redisTemplate, properties);
+    }
+
+    @Test
+    void testWarmup_LoadsListsAllPairsAndConfiguredPlusLearnedCities() throws Exception {
+        when(zSetOperations.reverseRange("cacheflow:warmup:weather-cities", 0, 1))
+                .thenReturn(new LinkedHashSet<>(List.of("lyon", "paris")));
+        assertFalse(warmupService.isReady());
+
+        warmupService.start().get(5, TimeUnit.SECONDS);
+
+        verify(productService).getAllProducts();
+        verify(currencyService).getAllCurrencies();
+        verify(currencyService, times(9)).getExchangeRate(anyString(), anyString());
+        verify(currencyService).getExchangeRate("EUR", "GBP");
+        verify(weatherService).getWeather("paris");
+        verify(weatherService).getWeather("london");
+        verify(weatherService).getWeather("lyon");
+        verify(weatherService, times(3)).getWeather(anyString());
+        assertTrue(warmupService.isReady());
+        assertEquals(14, warmupService.getStatus().get("completed"));
+    }
+
+    @Test
+    void testFailedTasks_CountedAsFinished() throws Exception {
+        when(weatherService.getWeather(anyString())).thenThrow(new RuntimeException("Weather API unavailable"));
+        properties.getWarmup().setLearnedCities(0);
+
+        warmupService.start().get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, warmupService.getStatus().get("failed"));
+        assertTrue(warmupService.isReady());
+    }
+
+    @Test
+    void testReadiness_WaitsForConfiguredFraction() throws Exception {
+        CompletableFuture<Void> productsLoaded = new CompletableFuture<>();
+        when(productService.getAllProducts()).thenAnswer(invocation -> {
+            productsLoaded.get(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        properties.getWarmup().setReadinessFraction(1.0);
+        properties.getWarmup().setLearnedCities(0);
+
+        CompletableFuture<Void> warmup = warmupService.start();
+        Thread.sleep(100);
+        assertFalse(warmupService.isReady());
+
+        productsLoaded.complete(null);
+        warmup.get(5, TimeUnit.SECONDS);
+        assertTrue(warmupService.isReady());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCityFlush_KeepsOnlyTrackedCities() {
+        properties.getWarmup().setTrackedCities(2);
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisZSetCommands zSetCommands = mock(RedisZSetCommands.class);
+        when(connection.zSetCommands()).thenReturn(zSetCommands);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection));
+
+        warmupService.recordCityRequest("Paris");
+        warmupService.recordCityRequest("Lyon");
+        // Au-delà du plafond, une nouvelle ville n'est pas comptée ; une ville déjà comptée l'est toujours
+        warmupService.recordCityRequest("Xyzzy");
+        warmupService.recordCityRequest("paris");
+        warmupService.flushCityRequests();
+
+        byte[] key = "cacheflow:warmup:weather-cities".getBytes(StandardCharsets.UTF_8);
+        verify(zSetCommands).zIncrBy(key, 2, "paris".getBytes(StandardCharsets.UTF_8));
+        verify(zSetCommands).zIncrBy(key, 1, "lyon".getBytes(StandardCharsets.UTF_8));
+        verify(zSetCommands, times(2)).zIncrBy(any(byte[].class), anyDouble(), any(byte[].class));
+        verify(zSetCommands).zRemRange(key, 0, -3);
+    }
+}
@@ -1,29 +1,41 @@
 package com.jee.backend.service;
 
+import com.jee.backend.cache.CacheBatchLoader;
+import com.jee.backend.dto.ConversionRequest;
+import com.jee.backend.dto.ConversionResult;
 import com.jee.backend.model.Currency;
 import com.jee.backend.repository.CurrencyRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @SpringJUnitConfig(CurrencyServiceCacheTest.CacheTestConfig.class)
@@ -33,7 +45,6 @@ class CurrencyServiceCacheTest {
     @Mock
     private CurrencyRepository currencyRepository;
 
-    @InjectMocks
     private CurrencyService currencyService;
 
     private Currency usdCurrency;
@@ -48,13 +59,14 @@ class CurrencyServiceCacheTest {
         gbpCurrency = new Currency("3", "GBP", new BigDecimal("0.79"), LocalDateTime.now());
         
         testCurrencies = Arrays.asList(usdCurrency, eurCurrency, gbpCurrency);
+        currencyService = new CurrencyService(currencyRepository, new ConcurrentMapCacheManager("currency", "currencies"),
+                mock(CacheBatchLoader.class), () -> 0.005);
     }
 
     @Test
     void testGetExchangeRate_CacheHit() {
-        // First call - should hit repository (once for each currency)
-        when(currencyRepository.findByCode("USD")).thenReturn(Optional.of(usdCurrency));
-        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.of(eurCurrency));
+        // First call - builds the rate matrix from the repository
+        when(currencyRepository.findAll()).thenReturn(testCurrencies);
         
         BigDecimal firstResult = currencyService.getExchangeRate("USD", "EUR");
         
@@ -65,7 +77,9 @@ class CurrencyServiceCacheTest {
         assertNotNull(firstResult);
         assertNotNull(secondResult);
         assertEquals(firstResult, secondResult);
-        // Note: Cache behavior will be verified in integration tests with actual Redis
+        // Pair lookups never query currencies one by one
+        verify(currencyRepository, times(1)).findAll();
+        verify(currencyRepository, never()).findByCode(anyString());
     }
 
     @Test
@@ -78,8 +92,7 @@ class CurrencyServiceCacheTest {
     @Test
     void testGetExchangeRate_Calculation() {
         // USD to EUR: EUR rate / USD rate = 0.91 / 1.0 = 0.91
-        when(currencyRepository.findByCode("USD")).thenReturn(Optional.of(usdCurrency));
-        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.of(eurCurrency));
+        when(currencyRepository.findAll()).thenReturn(testCurrencies);
         
         BigDecimal rate = currencyService.getExchangeRate("USD", "EUR");
         
@@ -90,9 +103,8 @@ class CurrencyServiceCacheTest {
 
     @Test
     void testConvert_CacheHit() {
-        // First call - should hit repository and cache the rate
-        when(currencyRepository.findByCode("USD")).thenReturn(Optional.of(usdCurrency));
-        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.of(eurCurrency));
+        // First call - builds the rate matrix from the repository
+        when(currencyRepository.findAll()).thenReturn(testCurrencies);
         
         BigDecimal amount = new BigDecimal("100");
         BigDecimal firstResult = currencyService.convert("USD", "EUR", amount);
@@ -110,8 +122,7 @@ class CurrencyServiceCacheTest {
     @Test
     void testConvert_Calculation() {
         // Convert 100 USD to EUR: 100 * 0.91 = 91.00
-        when(currencyRepository.findByCode("USD")).thenReturn(Optional.of(usdCurrency));
-        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.of(eurCurrency));
+        when(currencyRepository.findAll()).thenReturn(testCurrencies);
         
         BigDecimal amount = new BigDecimal("100");
         BigDecimal converted = currencyService.convert("USD", "EUR", amount);
@@ -164,8 +175,7 @@ class CurrencyServiceCacheTest {
     @Test
     void testGetExchangeRate_InvalidCurrency() {
         // Invalid currency code should throw exception
-        when(currencyRepository.findByCode("USD")).thenReturn(Optional.of(usdCurrency));
-        when(currencyRepository.findByCode("INVALID")).thenReturn(Optional.empty());
+        when(currencyRepository.findAll()).thenReturn(testCurrencies);
         
         assertThrows(IllegalArgumentException.class, () -> {
             currencyService.getExchangeRate("USD", "INVALID");
@@ -175,8 +185,7 @@ class CurrencyServiceCacheTest {
     @Test
     void testGetExchangeRate_KeyFormat() {
         // Test that cache key is "#from+#to" format and case-insensitive
-        when(currencyRepository.findByCode("USD")).thenReturn(Optional.of(usdCurrency));
-        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.of(eurCurrency));
+        when(currencyRepository.findAll()).thenReturn(testCurrencies);
         
         // First call - populate cache
         BigDecimal firstRate = currencyService.getExchangeRate("USD", "EUR");
@@ -191,7 +200,152 @@ class CurrencyServiceCacheTest {
         
         // Verify results are the same (cache was used)
         assertEquals(firstRate, secondRate);
-        // Note: Repository may still be called for fallback, but the main cache should work
+        // The rate matrix is already built: the repository is not read again
+        verifyNoInteractions(currencyRepository);
+    }
+
+    @Test
+    void testRefreshRates_RebuildsRateMatrixWithoutReadingBack() {
+        when(currencyRepository.findAll()).thenReturn(testCurrencies);
+        assertEquals(0, new BigDecimal("0.91").compareTo(currencyService.getExchangeRate("USD", "EUR")));
+
+        currencyService.refreshRates();
+
+        // The refreshed rates are served right away, from the currencies saved by refreshRates()
+        BigDecimal expected = eurCurrency.getRate().divide(usdCurrency.getRate(), 6, java.math.RoundingMode.HALF_UP);
+        assertEquals(expected, currencyService.getExchangeRate("USD", "EUR"));
+        verify(currencyRepository, times(2)).findAll();
+        verify(currencyRepository, never()).findByCode(anyString());
+    }
+
+    @Test
+    void testRateMatrix_FallsBackToMockRatesWithoutMongo() {
+        when(currencyRepository.findAll()).thenThrow(new IllegalStateException("MongoDB unavailable"));
+
+        assertEquals(new BigDecimal("150.000000"), currencyService.getExchangeRate("USD", "JPY"));
+        assertEquals(new BigDecimal("0.868132"), currencyService.getExchangeRate("EUR", "GBP"));
+        assertEquals(8, currencyService.getRateMatrixStatistics().get("currencies"));
+    }
+
+    @Test
+    void testConvertAll_ResolvesEachPairOnceAndKeepsGoingAfterErrors() {
+        when(currencyRepository.findAll()).thenReturn(testCurrencies);
+        Iterator<ConversionRequest> requests = List.of(
+                new ConversionRequest("USD", "EUR", new BigDecimal("100")),
+                new ConversionRequest("USD", "XXX", new BigDecimal("1")),
+                new ConversionRequest("usd", "eur", new BigDecimal("12.345")),
+                new ConversionRequest("EUR", "GBP", null)
+        ).iterator();
+        List<ConversionResult> results = new ArrayList<>();
+
+        long lines = currencyService.convertAll(requests, result -> {
+            results.add(result);
+            if (result.getIndex() == 0) {
+                // A refresh in the middle of the batch does not change the rate of a pair already resolved
+                currencyService.refreshRates();
+            }
+        });
+
+        assertEquals(4, lines);
+        assertEquals(new BigDecimal("91.00"), results.get(0).getConvertedAmount());
+        assertEquals("Currency code not supported: XXX", results.get(1).getError());
+        assertEquals(new BigDecimal("0.910000"), results.get(2).getRate());
+        assertEquals(new BigDecimal("11.23"), results.get(2).getConvertedAmount());
+        assertEquals("Amount must be positive", results.get(3).getError());
+        assertEquals(List.of(0L, 1L, 2L, 3L), results.stream().map(ConversionResult::getIndex).toList());
+    }
+
+    @Test
+    void testConvertWithRate_SingleLookup() {
+        when(currencyRepository.findAll()).thenReturn(testCurrencies);
+
+        ConversionResult conversion = currencyService.convertWithRate("usd", "gbp", new BigDecimal("100"));
+
+        assertEquals("USD", conversion.getFrom());
+        assertEquals(new BigDecimal("79.00"), conversion.getConvertedAmount());
+        assertEquals(new BigDecimal("0.790000"), conversion.getRate());
+        assertThrows(IllegalArgumentException.class,
+                () -> currencyService.convertWithRate("USD", "EUR", new BigDecimal("-1")));
+    }
+
+    @Test
+    void testRefreshRates_SkipsChangesBelowThreshold() {
+        ReflectionTestUtils.setField(currencyService, "minChange", 0.5);
+        when(currencyRepository.findAll()).thenReturn(testCurrencies);
+
+        currencyService.refreshRates();
+
+        // A ±1% variation never reaches 50%: nothing is written
+        verify(currencyRepository, never()).updateRates(anyCollection());
+        verify(currencyRepository, never()).save(any(Currency.class));
+        assertEquals(new BigDecimal("0.91"), eurCurrency.getRate());
+    }
+
+    @Test
+    void testRefreshRates_BulkWritesChangedRatesAndOverwritesCaches() {
+        CacheManager cacheManager = mock(CacheManager.class);
+        CacheBatchLoader cacheBatchLoader = mock(CacheBatchLoader.class);
+        Cache currenciesCache = mock(Cache.class);
+        when(cacheManager.getCache("currencies")).thenReturn(currenciesCache);
+        CurrencyService service = new CurrencyService(currencyRepository, cacheManager, cacheBatchLoader, () -> 0.005);
+        ReflectionTestUtils.setField(service, "minChange", 0.001);
+        Currency jpyCurrency = new Currency("4", "JPY", new BigDecimal("150.00"), LocalDateTime.now());
+        List<Currency> currencies = List.of(usdCurrency, eurCurrency, gbpCurrency, jpyCurrency);
+        when(currencyRepository.findAll()).thenReturn(currencies);
+
+        service.refreshRates();
+
+        // +0.5% moves USD (1.00 -> 1.01) and JPY (150.00 -> 150.75), while EUR and GBP round back to their rate
+        assertEquals(new BigDecimal("1.01"), usdCurrency.getRate());
+        assertEquals(new BigDecimal("150.75"), jpyCurrency.getRate());
+        assertEquals(new BigDecimal("0.91"), eurCurrency.getRate());
+        verify(currencyRepository, never()).save(any(Currency.class));
+        verify(currencyRepository, times(1)).updateRates(List.of(usdCurrency, jpyCurrency));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, BigDecimal>> pairs = ArgumentCaptor.forClass(Map.class);
+        verify(cacheBatchLoader, times(1)).putAll(eq("currency"), pairs.capture());
+        // Every pair involving a changed currency is overwritten with the new matrix rate, never evicted
+        assertTrue(pairs.getValue().keySet().stream().allMatch(pair -> pair.contains("USD") || pair.contains("JPY")));
+        assertFalse(pairs.getValue().containsKey("EUR+GBP"));
+        assertEquals(service.lookupExchangeRate("EUR", "JPY"), pairs.getValue().get("EUR+JPY"));
+        verify(currenciesCache, times(1)).put(SimpleKey.EMPTY, currencies);
+        verify(currenciesCache, never()).clear();
+    }
+
+    @Test
+    void testRefreshRates_NoChange_StillRebuildsRateMatrix() {
+        currencyService = new CurrencyService(currencyRepository, new ConcurrentMapCacheManager("currency", "currencies"),
+                mock(CacheBatchLoader.class), () -> 0.0);
+        when(currencyRepository.findAll()).thenReturn(testCurrencies);
+        assertEquals(0, new BigDecimal("0.91").compareTo(currencyService.getExchangeRate("USD", "EUR")));
+
+        // Another node saved a new EUR rate in the meantime
+        eurCurrency.setRate(new BigDecimal("0.95"));
+        currencyService.refreshRates();
+
+        verify(currencyRepository, never()).updateRates(anyCollection());
+        assertEquals(0, new BigDecimal("0.95").compareTo(currencyService.lookupExchangeRate("USD", "EUR")));
+    }
+
+    @Test
+    void testReloadRateMatrixIfStale_PicksUpRatesSavedByAnotherNode() {
+        when(currencyRepository.findAll()).thenReturn(testCurrencies);
+        assertEquals(0, new BigDecimal("0.91").compareTo(currencyService.lookupExchangeRate("USD", "EUR")));
+
+        // Nothing newer in MongoDB: the matrix is kept and all rates are not read again
+        when(currencyRepository.findFirstByOrderByLastUpdateDesc()).thenReturn(Optional.of(gbpCurrency));
+        currencyService.reloadRateMatrixIfStale();
+        verify(currencyRepository, times(1)).findAll();
+
+        // Another node saved a new EUR rate
+        Currency refreshedEur = new Currency("2", "EUR", new BigDecimal("0.95"), LocalDateTime.now().plusMinutes(1));
+        when(currencyRepository.findAll()).thenReturn(List.of(usdCurrency, refreshedEur, gbpCurrency));
+        when(currencyRepository.findFirstByOrderByLastUpdateDesc()).thenReturn(Optional.of(refreshedEur));
+        currencyService.reloadRateMatrixIfStale();
+
+        assertEquals(0, new BigDecimal("0.95").compareTo(currencyService.lookupExchangeRate("USD", "EUR")));
+        verify(currencyRepository, times(2)).findAll();
     }
 
     @Test
@@ -0,0 +1,53 @@
+package com.jee.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointConverterTest {
+
+    @Test
+    void testConvert_MatchesBigDecimalHalfUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong(10_000_000_000L), random.nextInt(6));
+            BigDecimal rate = BigDecimal.valueOf(1 + random.nextLong(200_000_000L), FixedPointConverter.RATE_SCALE);
+
+            BigDecimal expected = amount.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+            assertEquals(expected, FixedPointConverter.convert(amount, FixedPointConverter.toScaledRate(rate)),
+                    () -> amount + " x " + rate);
+        }
+    }
+
+    @Test
+    void testConvert_RoundsHalfAwayFromZero() {
+        // 0.125 x 1 -> 0.13, 0.124999 -> 0.12, -0.125 -> -0.13
+        assertEquals(13, FixedPointConverter.convert(125, 3, FixedPointConverter.SCALED_ONE));
+        assertEquals(12, FixedPointConverter.convert(124_999, 6, FixedPointConverter.SCALED_ONE));
+        assertEquals(-13, FixedPointConverter.convert(-125, 3, FixedPointConverter.SCALED_ONE));
+        // 100 USD -> EUR at 0.910000 = 91.00
+        assertEquals(new BigDecimal("91.00"), FixedPointConverter.convert(new BigDecimal("100"), 910_000));
+        // Amount with a negative scale: 1E+3 x 0.868132 = 868.13
+        assertEquals(new BigDecimal("868.13"), FixedPointConverter.convert(new BigDecimal("1E+3"), 868_132));
+    }
+
+    @Test
+    void testConvert_AmountsBeyondLongRangeUseBigDecimal() {
+        BigDecimal amount = new BigDecimal("123456789012345678.99");
+        long rate = 189_873_418;
+
+        assertThrows(ArithmeticException.class, () -> FixedPointConverter.convert(12345678901234567L, 2, rate));
+        assertEquals(amount.multiply(BigDecimal.valueOf(rate, 6)).setScale(2, RoundingMode.HALF_UP),
+                FixedPointConverter.convert(amount, rate));
+    }
+
+    @Test
+    void testToScaledRate_RejectsMoreThanSixDecimals() {
+        assertEquals(868_132, FixedPointConverter.toScaledRate(new BigDecimal("0.868132")));
+        assertThrows(ArithmeticException.class, () -> FixedPointConverter.toScaledRate(new BigDecimal("0.8681325")));
+    }
+}
@@ -1,45 +1,75 @@
 package com.jee.backend.service;
 
+import com.jee.backend.cache.BatchRedisCacheWriter;
+import com.jee.backend.cache.CacheBatchLoader;
+import com.jee.backend.cache.CacheInvalidationPublisher;
+import com.jee.backend.cache.CacheLoadExecutor;
+import com.jee.backend.cache.CacheRebuildLease;
+import com.jee.backend.cache.TwoTierCacheManager;
+import com.jee.backend.config.CacheFlowProperties;
 import com.jee.backend.model.Product;
 import com.jee.backend.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @SpringJUnitConfig(ProductServiceCacheTest.CacheTestConfig.class)
-@ExtendWith(MockitoExtension.class)
 class ProductServiceCacheTest {
 
-    @Mock
+    private static final RedisSerializationContext.SerializationPair<Object> VALUES =
+            RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.java());
+
+    @Autowired
     private ProductRepository productRepository;
 
-    @InjectMocks
+    @Autowired
     private ProductService productService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private BatchRedisCacheWriter redisWriter;
+
+    @Autowired
+    private CacheBatchLoader cacheBatchLoader;
+
     private Product testProduct;
     private List<Product> testProducts;
 
     @BeforeEach
     void setUp() {
+        reset(productRepository, redisWriter);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
         testProduct = new Product("1", "Test Product", new BigDecimal("99.99"), "Electronics");
         testProducts = Arrays.asList(
                 testProduct,
@@ -84,53 +114,148 @@ class ProductServiceCacheTest {
     }
 
     @Test
-    void testCreateProduct_CacheEviction() {
+    void testCreateProduct_PatchesCachedList() {
         // First, populate cache
         when(productRepository.findAll()).thenReturn(testProducts);
         productService.getAllProducts();
         verify(productRepository, times(1)).findAll();
-        
-        // Create a new product - should evict cache
-        Product newProduct = new Product("3", "New Product", new BigDecimal("199.99"), "Clothing");
-        when(productRepository.save(any(Product.class))).thenReturn(newProduct);
+
+        // Create a new product - should be appended to the cached list
+        Product newProduct = new Product(null, "New Product", new BigDecimal("199.99"), "Clothing");
+        when(productRepository.save(any(Product.class))).thenReturn(
+                new Product("3", "New Product", new BigDecimal("199.99"), "Clothing"));
         productService.createProduct(newProduct);
-        
-        // Next call to getAllProducts should hit repository again (cache was evicted)
-        productService.getAllProducts();
-        verify(productRepository, times(2)).findAll();
+
+        // Next calls are served from cache, including the new product
+        List<Product> products = productService.getAllProducts();
+        assertEquals(3, products.size());
+        assertEquals("3", products.get(2).getId());
+        assertEquals("New Product", productService.getProductById("3").orElseThrow().getName());
+        verify(productRepository, times(1)).findAll();
+        verify(productRepository, never()).findById("3");
     }
 
     @Test
-    void testUpdateProduct_CacheEviction() {
+    void testUpdateProduct_ReplacesCachedEntries() {
         // First, populate cache
+        when(productRepository.findAll()).thenReturn(testProducts);
         when(productRepository.findById("1")).thenReturn(Optional.of(testProduct));
+        productService.getAllProducts();
         productService.getProductById("1");
         verify(productRepository, times(1)).findById("1");
-        
-        // Update product - should evict cache
+
+        // Update product - cached entry and list row are replaced in place
         Product updatedProduct = new Product("1", "Updated Product", new BigDecimal("129.99"), "Electronics");
         when(productRepository.save(any(Product.class))).thenReturn(updatedProduct);
         productService.updateProduct("1", updatedProduct);
-        
-        // Next call to getProductById should hit repository again (cache was evicted)
-        productService.getProductById("1");
+
+        // updateProduct checks existence against the repository, reads are served from cache
+        assertEquals("Updated Product", productService.getProductById("1").orElseThrow().getName());
+        List<Product> products = productService.getAllProducts();
+        assertEquals(2, products.size());
+        assertEquals("Updated Product", products.get(0).getName());
+        assertEquals("Another Product", products.get(1).getName());
         verify(productRepository, times(2)).findById("1");
+        verify(productRepository, times(1)).findAll();
     }
 
     @Test
-    void testDeleteProduct_CacheEviction() {
+    void testDeleteProduct_RemovesCachedEntries() {
         // First, populate cache
         when(productRepository.findAll()).thenReturn(testProducts);
         productService.getAllProducts();
         verify(productRepository, times(1)).findAll();
-        
-        // Delete product - should evict cache
+
+        // Delete product - only its row leaves the cached list
+        when(productRepository.existsById("1")).thenReturn(true);
         doNothing().when(productRepository).deleteById("1");
         productService.deleteProduct("1");
-        
-        // Next call to getAllProducts should hit repository again (cache was evicted)
+
+        List<Product> products = productService.getAllProducts();
+        assertEquals(1, products.size());
+        assertEquals("2", products.get(0).getId());
+        verify(productRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testCreateProduct_ListPatchedByAnotherNode_EvictsCachedList() {
+        when(productRepository.findAll()).thenReturn(testProducts);
         productService.getAllProducts();
-        verify(productRepository, times(2)).findAll();
+        CacheRebuildLease lease = mock(CacheRebuildLease.class);
+        when(lease.tryAcquire(eq("products"), any(byte[].class))).thenReturn(0L);
+        ProductService otherWriter = new ProductService(productRepository, null, cacheManager, cacheBatchLoader, lease);
+
+        when(productRepository.save(any(Product.class))).thenReturn(
+                new Product("3", "New Product", new BigDecimal("199.99"), "Clothing"));
+        otherWriter.createProduct(new Product(null, "New Product", new BigDecimal("199.99"), "Clothing"));
+
+        // The lease is held elsewhere: the list is not patched blindly but reloaded by the next reader
+        assertNull(cacheManager.getCache("products").get(SimpleKey.EMPTY));
+        verify(lease, never()).release(any(byte[].class), anyLong());
+    }
+
+    @Test
+    void testCreateProduct_LeaseAcquired_PatchesAndReleases() {
+        when(productRepository.findAll()).thenReturn(testProducts);
+        productService.getAllProducts();
+        CacheRebuildLease lease = mock(CacheRebuildLease.class);
+        when(lease.tryAcquire(eq("products"), any(byte[].class))).thenReturn(7L);
+        ProductService leasedWriter = new ProductService(productRepository, null, cacheManager, cacheBatchLoader, lease);
+
+        when(productRepository.save(any(Product.class))).thenReturn(
+                new Product("3", "New Product", new BigDecimal("199.99"), "Clothing"));
+        leasedWriter.createProduct(new Product(null, "New Product", new BigDecimal("199.99"), "Clothing"));
+
+        assertEquals(3, productService.getAllProducts().size());
+        verify(lease, times(1)).release(any(byte[].class), eq(7L));
+        verify(productRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testWriteWithoutCachedList_NextReadLoads() {
+        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
+        productService.createProduct(new Product(null, "Test Product", new BigDecimal("99.99"), "Electronics"));
+
+        when(productRepository.findAll()).thenReturn(testProducts);
+        assertEquals(2, productService.getAllProducts().size());
+        verify(productRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testGetProductsByIds_OneMgetOneFindAllByIdOnePipelinedBackfill() {
+        // "1" est dans Redis, "2" et "unknown" n'y sont pas
+        List<byte[]> stored = new ArrayList<>();
+        stored.add(null);
+        stored.add(serialize(testProduct));
+        stored.add(null);
+        when(redisWriter.getAll(eq("product"), anyList())).thenReturn(stored);
+        when(redisWriter.putAllIfAbsent(eq("product"), anyList())).thenReturn(List.of(true));
+        when(productRepository.findAllById(any())).thenReturn(List.of(testProducts.get(1)));
+
+        List<Product> products = productService.getProductsByIds(Arrays.asList("2", "1", "unknown", "2"));
+
+        assertEquals(List.of("2", "1"), products.stream().map(Product::getId).toList());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<byte[]>> keys = ArgumentCaptor.forClass(List.class);
+        verify(redisWriter, times(1)).getAll(eq("product"), keys.capture());
+        assertEquals(List.of("product::2", "product::1", "product::unknown"), keys.getValue().stream()
+                .map(key -> new String(key, StandardCharsets.UTF_8)).toList());
+        verify(productRepository, times(1)).findAllById(Set.of("2", "unknown"));
+        verify(productRepository, never()).findById(any());
+
+        // Seul le produit chargé est recopié, sous la clé de getProductById()
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BatchRedisCacheWriter.Entry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(redisWriter, times(1)).putAllIfAbsent(eq("product"), entries.capture());
+        assertEquals(List.of("product::2"), entries.getValue().stream()
+                .map(entry -> new String(entry.getKey(), StandardCharsets.UTF_8)).toList());
+    }
+
+    private static byte[] serialize(Object value) {
+        ByteBuffer buffer = VALUES.write(value);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
     }
 
     @Configuration
@@ -140,5 +265,40 @@ class ProductServiceCacheTest {
         public CacheManager cacheManager() {
             return new ConcurrentMapCacheManager("products", "product");
         }
+
+        @Bean
+        public ProductRepository productRepository() {
+            return mock(ProductRepository.class);
+        }
+
+        @Bean(destroyMethod = "destroy")
+        public CacheLoadExecutor cacheLoadExecutor() {
+            return new CacheLoadExecutor(1, 10);
+        }
+
+        @Bean
+        public BatchRedisCacheWriter redisWriter() {
+            return mock(BatchRedisCacheWriter.class);
+        }
+
+        @Bean
+        public CacheBatchLoader cacheBatchLoader(BatchRedisCacheWriter redisWriter) {
+            RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisWriter)
+                    .withCacheConfiguration("product", RedisCacheConfiguration.defaultCacheConfig()
+                            .entryTtl(Duration.ofMinutes(10))
+                            .serializeValuesWith(VALUES)
+                            .disableCachingNullValues())
+                    .build();
+            redisCacheManager.afterPropertiesSet();
+            TwoTierCacheManager twoTierCacheManager = new TwoTierCacheManager(redisCacheManager,
+                    new CacheFlowProperties(), mock(CacheInvalidationPublisher.class), null, null, null, false);
+            return new CacheBatchLoader(twoTierCacheManager, null);
+        }
+
+        @Bean
+        public ProductService productService(ProductRepository productRepository, CacheLoadExecutor cacheLoadExecutor,
+                                             CacheManager cacheManager, CacheBatchLoader cacheBatchLoader) {
+            return new ProductService(productRepository, cacheLoadExecutor, cacheManager, cacheBatchLoader, null);
+        }
     }
 }